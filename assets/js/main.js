@@ -390,6 +390,41 @@ const main = (function () {
     return res.json();
   }
 
+  // 詳細ページ用の結合済みバンドル (data/<page>/<id>.json、エディタのエクスポートで生成)。
+  // 無い場合は null を返すので、呼び出し側は従来どおりカタログ全体を取得する。
+  // エクスポート時の data/bundles.json が無いとき、またはページの元になるカタログが
+  // その後に変更された ("stale" に載っている) ときはバンドルを取りに行かない。
+  const bundleSources = {
+    track: ['music', 'movies', 'discography', 'lyrics'],
+    movie: ['movies', 'music'],
+    album: ['discography', 'music'],
+    live: ['live', 'music']
+  };
+  let bundleManifest = null;
+
+  function fetchBundleManifest() {
+    if (!bundleManifest) {
+      bundleManifest = fetch(dataPath + 'bundles.json')
+        .then(res => res.ok ? res.json() : null)
+        .catch(() => null);
+    }
+    return bundleManifest;
+  }
+
+  async function fetchBundle(page, id) {
+    try {
+      const manifest = await fetchBundleManifest();
+      if (!manifest) return null;
+      const stale = Array.isArray(manifest.stale) ? manifest.stale : [];
+      if ((bundleSources[page] || []).some(k => stale.includes(k))) return null;
+      const res = await fetch(dataPath + page + '/' + encodeURIComponent(id) + '.json');
+      if (!res.ok) return null;
+      return await res.json();
+    } catch (e) {
+      return null;
+    }
+  }
+
   async function fetchText(path) {
     // path may be absolute or relative. If relative, resolve against baseAssets.
     let url = String(path || '');
@@ -426,6 +461,17 @@ const main = (function () {
     return DEFAULT_COVER_PATH;
   }
 
+  // srcset/sizes attributes from the downscaled copies the editor records next to an
+  // imported cover (coverVariants / imageVariants: [{ width, src }]); '' when there are none.
+  function srcsetAttr(variants, sizes) {
+    if (!Array.isArray(variants)) return '';
+    const set = variants
+      .filter(v => v && v.src && Number(v.width) > 0)
+      .map(v => `${escapeHtml(v.src)} ${Number(v.width)}w`)
+      .join(', ');
+    return set ? ` srcset="${set}" sizes="${sizes}"` : '';
+  }
+
   // Utilities for flexible music lookup
   function normalize(str) {
     if (!str) return '';
@@ -555,7 +601,7 @@ const main = (function () {
       } else if (kind === 'discography') {
         html = `
           <div style="float:left;margin-right:12px;text-align:center;">
-            <img src="${thumbOrPlaceholder(latest.cover,120,120)}" alt="" class="thumb" style="display:block;margin-bottom:8px">
+            <img src="${thumbOrPlaceholder(latest.cover,120,120)}"${srcsetAttr(latest.coverVariants, '120px')} alt="" class="thumb" style="display:block;margin-bottom:8px">
             <div><a href="discography.html">Discography一覧へ</a></div>
           </div>
           <div style="overflow:hidden;">
@@ -685,7 +731,7 @@ const main = (function () {
         }
 
         // existing UI (cover, title, meta, audio/note)
-        const coverHtml = `<img src="${thumbOrPlaceholder(m.cover,96,96)}" alt="" class="thumb">`;
+        const coverHtml = `<img src="${thumbOrPlaceholder(m.cover,96,96)}"${srcsetAttr(m.coverVariants, '96px')} alt="" class="thumb">`;
         const titleHref = `track.html?id=${encodeURIComponent(m.id)}`;
         const dateAndDuration = `リリース: ${m.date || ''} ・ ${escapeHtml(m.duration || '')}`;
 
@@ -713,14 +759,17 @@ const main = (function () {
       const container = document.querySelector(containerSelector);
       if (!container) return;
       if (!id) { container.innerHTML = '<p>idが指定されていません。</p>'; return; }
-      const data = await fetchJSON('music');
+      const bundle = await fetchBundle('track', id);
+      const data = bundle ? { items: [bundle.item] } : await fetchJSON('music');
       const items = data.items || data;
       const item = items.find(x => x.id === id);
       if (!item) { container.innerHTML = '<p>曲が見つかりません。</p>'; return; }
 
       // If lyrics are in external file, fetch it. Support item.lyricsFile (relative to baseAssets) or absolute URL.
       let lyricsText = item.lyrics || '';
-      if (item.lyricsFile) {
+      if (bundle && typeof bundle.lyrics === 'string') {
+        lyricsText = bundle.lyrics;
+      } else if (item.lyricsFile) {
         try {
           lyricsText = await fetchText(item.lyricsFile);
         } catch (e) {
@@ -731,7 +780,7 @@ const main = (function () {
       }
 
       // Find related MV(s) by musicID
-      const moviesData = await fetchJSON('movies').catch(()=>({items:[]}));
+      const moviesData = bundle ? { items: bundle.movies || [] } : await fetchJSON('movies').catch(()=>({items:[]}));
       const relatedMovies = findMoviesByMusicId(moviesData.items || [], item.id);
 
       const relatedMVHtml = (relatedMovies || []).map(mv => {
@@ -742,7 +791,7 @@ const main = (function () {
 
       // --- NEW: build internal/external album lists for the track page ---
       // Internal: find albums in discography that include this music id
-      const discographyData = await fetchJSON('discography').catch(()=>({items:[]}));
+      const discographyData = bundle ? { items: bundle.discography || [] } : await fetchJSON('discography').catch(()=>({items:[]}));
       const discItems = Array.isArray(discographyData.items) ? discographyData.items : (Array.isArray(discographyData) ? discographyData : []);
       const internalAlbums = (discItems || []).filter(album => {
         if (!album || !Array.isArray(album.tracks)) return false;
@@ -881,12 +930,13 @@ const main = (function () {
       const container = document.querySelector(containerSelector);
       if (!container) return;
       if (!id) { container.innerHTML = '<p>idが指定されていません。</p>'; return; }
-      const data = await fetchJSON('movies');
+      const bundle = await fetchBundle('movie', id);
+      const data = bundle ? { items: [bundle.item] } : await fetchJSON('movies');
       const items = data.items || data;
       const item = items.find(x => x.id === id);
       if (!item) { container.innerHTML = '<p>動画が見つかりません。</p>'; return; }
 
-      const musicData = await fetchJSON('music').catch(()=>({items:[]}));
+      const musicData = bundle ? { items: bundle.music || [] } : await fetchJSON('music').catch(()=>({items:[]}));
 
       const relatedCandidates = [];
       if (item.musicID) relatedCandidates.push(item.musicID);
@@ -937,7 +987,7 @@ const main = (function () {
       container.innerHTML = items.map(a => `
         <article class="card">
           <div style="display:flex;gap:1rem;align-items:center;">
-            <img src="${thumbOrPlaceholder(a.cover,140,140)}" alt="" class="thumb">
+            <img src="${thumbOrPlaceholder(a.cover,140,140)}"${srcsetAttr(a.coverVariants, '140px')} alt="" class="thumb">
             <div>
               <h3><a href="album.html?id=${a.id}">${escapeHtml(a.title)}</a></h3>
               <div class="meta-small">参加アーティスト: ${escapeHtml((a.artists||[]).join(', ') || '未設定')}</div>
@@ -956,7 +1006,8 @@ const main = (function () {
       const container = document.querySelector(containerSelector);
       if (!container) return;
       if (!id) { container.innerHTML = '<p>id が指定されていません。</p>'; return; }
-      const data = await fetchJSON('discography');
+      const bundle = await fetchBundle('album', id);
+      const data = bundle ? { items: [bundle.item] } : await fetchJSON('discography');
       const items = data.items || data;
       const album = items.find(x => x.id === id);
       if (!album) { container.innerHTML = '<p>アルバムが見つかりません。</p>'; return; }
@@ -973,7 +1024,7 @@ const main = (function () {
         console.debug('renderAlbumPage: could not set body attributes', e);
       }
 
-      const musicData = await fetchJSON('music').catch(()=>({items:[]}));
+      const musicData = bundle ? { items: bundle.music || [] } : await fetchJSON('music').catch(()=>({items:[]}));
       const tracks = album.tracks || [];
       const trackHtml = tracks.map(t => {
         // Prefer new field musicID on track entries but handle many formats
@@ -1015,7 +1066,7 @@ const main = (function () {
       container.innerHTML = `
         <article class="card">
           <div style="display:flex;gap:1rem;align-items:flex-start;">
-            <img src="${thumbOrPlaceholder(album.cover,200,200)}" alt="${escapeHtml(album.title || '')}" class="thumb">
+            <img src="${thumbOrPlaceholder(album.cover,200,200)}"${srcsetAttr(album.coverVariants, '200px')} alt="${escapeHtml(album.title || '')}" class="thumb">
             <div>
               <h2 id="album-${escapeHtml(album.id)}">${escapeHtml(album.title)}</h2>
               <div class="meta-small">参加アーティスト: ${escapeHtml((album.artists||[]).join(', ') || '未設定')}</div>
@@ -1044,7 +1095,7 @@ const main = (function () {
       if (!container) return;
       container.innerHTML = items.map(l => `
         <div class="item">
-          <img src="${thumbOrPlaceholder(l.image,96,96)}" alt="" class="thumb">
+          <img src="${thumbOrPlaceholder(l.image,96,96)}"${srcsetAttr(l.imageVariants, '96px')} alt="" class="thumb">
           <div>
             <div class="kicker"><a href="live-event.html?id=${l.id}">${escapeHtml(l.title)}</a></div>
             <div class="meta-small">${l.date || ''} ・ ${escapeHtml(l.venue||'')}</div>
@@ -1061,11 +1112,12 @@ const main = (function () {
       const container = document.querySelector(containerSelector);
       if (!container) return;
       if (!id) { container.innerHTML = '<p>idが指定されていません。</p>'; return; }
-      const data = await fetchJSON('live');
+      const bundle = await fetchBundle('live', id);
+      const data = bundle ? { items: [bundle.item] } : await fetchJSON('live');
       const item = (data.items || data).find(x => x.id === id);
       if (!item) { container.innerHTML = '<p>ライブ情報が見つかりません。</p>'; return; }
 
-      const musicData = await fetchJSON('music').catch(()=>({items:[]}));
+      const musicData = bundle ? { items: bundle.music || [] } : await fetchJSON('music').catch(()=>({items:[]}));
       const setlistHtml = (item.setlist || []).map((s, idx) => {
         const found = (musicData.items||[]).find(m => m.id === s.id || m.title === s.title);
         if (found) {
@@ -1080,7 +1132,7 @@ const main = (function () {
           <h2 id="live-${escapeHtml(item.id)}">${escapeHtml(item.title)}</h2>
           <div class="meta-small">${item.date || ''} ・ ${escapeHtml(item.venue || '')}</div>
           <div style="margin-top:.8rem">
-            <img src="${thumbOrPlaceholder(item.image,700,200)}" alt="" style="width:100%;max-height:300px;object-fit:cover;border-radius:8px">
+            <img src="${thumbOrPlaceholder(item.image,700,200)}"${srcsetAttr(item.imageVariants, '(max-width: 700px) 100vw, 700px')} alt="" style="width:100%;max-height:300px;object-fit:cover;border-radius:8px">
           </div>
           <section style="margin-top:1rem">
             <h3>説明</h3>
@@ -0,0 +1,93 @@
+package com.example.ruichiji.bench;
+
+import com.example.ruichiji.model.CatalogItem;
+import com.example.ruichiji.service.DataService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * readItems: cold (a new DataService that has to parse the file) and warm (served from the
+ * in-memory cache after a freshness check).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogReadBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Catalog {
+        @Param({"music", "discography", "live"})
+        public String kind;
+
+        @Param({"1000", "10000", "100000", "1000000"})
+        public int size;
+
+        Path root;
+
+        @Setup(Level.Trial)
+        public void install() throws IOException {
+            root = Fixtures.install("read-" + kind + "-" + size, kind, size);
+        }
+    }
+
+    /** A DataService that has not read anything yet. */
+    @State(Scope.Thread)
+    public static class Cold {
+        DataService ds;
+
+        @Setup(Level.Invocation)
+        public void open(Catalog c) throws IOException {
+            ds = new DataService(c.root);
+        }
+
+        @TearDown(Level.Invocation)
+        public void close() throws IOException {
+            ds.close();
+        }
+    }
+
+    /** A DataService with the catalog already cached. */
+    @State(Scope.Thread)
+    public static class Warm {
+        DataService ds;
+
+        @Setup(Level.Trial)
+        public void open(Catalog c) throws IOException {
+            ds = new DataService(c.root);
+            ds.readItems(c.kind);
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws IOException {
+            ds.close();
+        }
+    }
+
+    @Benchmark
+    public List<CatalogItem> coldRead(Catalog c, Cold s) throws IOException {
+        return s.ds.readItems(c.kind);
+    }
+
+    @Benchmark
+    public List<CatalogItem> warmRead(Catalog c, Warm s) throws IOException {
+        return s.ds.readItems(c.kind);
+    }
+}
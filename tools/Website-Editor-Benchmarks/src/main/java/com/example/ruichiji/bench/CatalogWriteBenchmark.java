@@ -0,0 +1,73 @@
+package com.example.ruichiji.bench;
+
+import com.example.ruichiji.model.CatalogItem;
+import com.example.ruichiji.service.DataService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes: saving one edited item the way the editor does (get, copy, change, upsert, flush
+ * to disk) and rewriting the whole catalog with writeItems (import, repair, compaction).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CatalogWriteBenchmark {
+
+    @Param({"music", "discography", "live"})
+    public String kind;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private DataService ds;
+    private List<CatalogItem> items;
+    private List<String> ids;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void open() throws IOException {
+        ds = new DataService(Fixtures.install("write-" + kind + "-" + size, kind, size));
+        items = ds.readItems(kind);
+        ids = new ArrayList<>(items.size());
+        for (CatalogItem item : items) ids.add(item.getId());
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws IOException {
+        ds.close();
+    }
+
+    @Benchmark
+    public void saveOneItem() throws IOException {
+        int i = next++;
+        CatalogItem item = ds.getItem(kind, ids.get(i % ids.size())).copy();
+        item.set("description", "edited " + i);
+        ds.upsert(kind, item);
+        ds.flush();
+    }
+
+    @Benchmark
+    public void writeAll() throws IOException {
+        ds.writeItems(kind, items);
+    }
+}
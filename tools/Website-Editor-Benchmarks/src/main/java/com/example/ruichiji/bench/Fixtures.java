@@ -0,0 +1,178 @@
+package com.example.ruichiji.bench;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Synthetic catalogs shaped like assets/data/music.json, discography.json and live.json.
+ *
+ * Catalogs are generated once per (kind, size) under bench-data (-Dbench.dir, default
+ * target/bench-data) and reused by later forks and runs; generation is deterministic, so
+ * every run measures the same bytes. Benchmarks work on a private copy (see install), laid
+ * out as <root>/assets/data so DataService finds it like the real repository.
+ */
+final class Fixtures {
+    static final Path BASE = Paths.get(System.getProperty("bench.dir", "target/bench-data")).toAbsolutePath();
+    static final int LYRICS_CHARS = 2_000;
+
+    private static final String[] WORDS = {
+            "星空", "の", "街", "あの日", "空", "Over", "the", "World", "Remember", "夢", "Memories",
+            "ラブソング", "を", "聴かせて", "Reason", "try", "again", "夜", "風", "光"};
+
+    private Fixtures() {}
+
+    /** Fresh private root holding a copy of the generated catalog; returns the root. */
+    static Path install(String name, String kind, int size) throws IOException {
+        Path root = workspace(name);
+        Files.copy(pristine(kind, size), root.resolve("assets/data").resolve(kind + ".json"),
+                StandardCopyOption.REPLACE_EXISTING);
+        return root;
+    }
+
+    /** Empty <root>/assets/data directory under BASE/work/name (old contents removed). */
+    static Path workspace(String name) throws IOException {
+        Path root = BASE.resolve("work").resolve(name);
+        delete(root);
+        Files.createDirectories(root.resolve("assets/data/lyrics"));
+        return root;
+    }
+
+    static Path catalogFile(Path root, String kind) {
+        return root.resolve("assets/data").resolve(kind + ".json");
+    }
+
+    static String musicId(int i) {
+        return String.format("2025%04d-track_%07d", i % 10_000, i);
+    }
+
+    /** Lyrics-sized text (mixed Japanese and Latin lines), deterministic per seed. */
+    static String lyrics(long seed) {
+        Random r = new Random(seed);
+        StringBuilder sb = new StringBuilder(LYRICS_CHARS + 32);
+        while (sb.length() < LYRICS_CHARS) {
+            for (int w = 0; w < 6; w++) sb.append(WORDS[r.nextInt(WORDS.length)]).append(' ');
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    /** The generated catalog for (kind, size), created on first use. */
+    static synchronized Path pristine(String kind, int size) throws IOException {
+        Path file = BASE.resolve("catalogs").resolve(kind + "-" + size + ".json");
+        if (Files.exists(file)) return file;
+        Files.createDirectories(file.getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Random r = new Random(size * 31L + kind.hashCode());
+        // same layout as CatalogJson writes: { "items" : [ ... ] } with the default pretty printer
+        try (JsonGenerator g = new JsonFactory().createGenerator(tmp.toFile(), JsonEncoding.UTF8)) {
+            g.setPrettyPrinter(new DefaultPrettyPrinter());
+            g.writeStartObject();
+            g.writeArrayFieldStart("items");
+            for (int i = 0; i < size; i++) {
+                switch (kind) {
+                    case "music" -> music(g, i, r);
+                    case "discography" -> album(g, i, size, r);
+                    case "live" -> live(g, i, size, r);
+                    default -> throw new IllegalArgumentException("unknown kind: " + kind);
+                }
+            }
+            g.writeEndArray();
+            g.writeEndObject();
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        return file;
+    }
+
+    private static void music(JsonGenerator g, int i, Random r) throws IOException {
+        String id = musicId(i);
+        g.writeStartObject();
+        g.writeStringField("id", id);
+        g.writeStringField("title", title(r));
+        g.writeStringField("date", date(i));
+        g.writeStringField("description", r.nextInt(4) == 0 ? title(r) + "\n" + title(r) : "");
+        g.writeStringField("duration", String.format("%02d:%02d", 2 + r.nextInt(5), r.nextInt(60)));
+        g.writeArrayFieldStart("credits");
+        g.writeString("Music: Ruichiji");
+        g.writeString("Lyrics: Ruichiji");
+        g.writeEndArray();
+        g.writeStringField("lyricsFile", "data/lyrics/" + id + ".txt");
+        g.writeEndObject();
+    }
+
+    private static void album(JsonGenerator g, int i, int size, Random r) throws IOException {
+        g.writeStartObject();
+        g.writeStringField("id", String.format("album%07d", i));
+        g.writeStringField("title", title(r));
+        g.writeStringField("date", date(i));
+        g.writeStringField("description", "Ruichiji " + (i + 1) + " Album\n" + title(r));
+        g.writeStringField("cover", "https://example.com/img/" + i + ".jpg");
+        g.writeArrayFieldStart("artists");
+        g.writeString("Ruichiji");
+        g.writeEndArray();
+        g.writeArrayFieldStart("tracks");
+        for (int t = 0, n = 1 + r.nextInt(12); t < n; t++) {
+            g.writeStartObject();
+            g.writeStringField("title", title(r));
+            g.writeStringField("musicID", musicId(r.nextInt(size)));
+            g.writeStringField("author", "Ruichiji");
+            g.writeEndObject();
+        }
+        g.writeEndArray();
+        g.writeEndObject();
+    }
+
+    private static void live(JsonGenerator g, int i, int size, Random r) throws IOException {
+        g.writeStartObject();
+        g.writeStringField("id", String.format("live%07d", i));
+        g.writeStringField("title", title(r) + " Live");
+        g.writeStringField("date", date(i));
+        g.writeStringField("note", "");
+        g.writeArrayFieldStart("setlist");
+        for (int t = 0, n = 5 + r.nextInt(15); t < n; t++) {
+            g.writeStartObject();
+            g.writeStringField("title", title(r));
+            if (r.nextBoolean()) g.writeStringField("id", musicId(r.nextInt(size)));
+            g.writeEndObject();
+        }
+        g.writeEndArray();
+        g.writeEndObject();
+    }
+
+    private static String title(Random r) {
+        StringBuilder sb = new StringBuilder();
+        for (int w = 0, n = 1 + r.nextInt(4); w < n; w++) {
+            if (w > 0) sb.append(' ');
+            sb.append(WORDS[r.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+
+    private static String date(int i) {
+        return String.format("20%02d-%02d-%02d", 10 + (i / 336) % 16, 1 + (i / 28) % 12, 1 + i % 28);
+    }
+
+    static void delete(Path dir) throws IOException {
+        if (!Files.exists(dir)) return;
+        try (Stream<Path> s = Files.walk(dir)) {
+            s.sorted(Comparator.reverseOrder()).forEach(p -> {
+                try {
+                    Files.delete(p);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.ruichiji.bench;
+
+import com.example.ruichiji.service.DataService;
+import com.example.ruichiji.service.ImportedImage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * importImage: a new picture (hash, copy and the downscaled variants) and one that was
+ * imported before (hash and index lookup only).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ImageImportBenchmark {
+
+    /** Width of the source picture (4:3); 2000 produces all three variants. */
+    @Param({"640", "2000"})
+    public int width;
+
+    @Param({"jpg", "png"})
+    public String format;
+
+    private DataService ds;
+    private BufferedImage image;
+    private File known;
+    private File fresh;
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void open() throws IOException {
+        Path root = Fixtures.workspace("images-" + width + "-" + format);
+        ds = new DataService(root);
+        image = new BufferedImage(width, width * 3 / 4, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < width; x++) image.setRGB(x, y, (x * 7 + y * 13) * 0x010203 & 0xFFFFFF);
+        }
+        known = root.resolve("known." + format).toFile();
+        ImageIO.write(image, format, known);
+        ds.importImage(known);
+        fresh = root.resolve("fresh." + format).toFile();
+    }
+
+    /** Repaint a corner block so the content hash (and the stored file) is new every time. */
+    @Setup(Level.Invocation)
+    public void newContent() throws IOException {
+        int rgb = ++counter * 0x9E3779B1 & 0xFFFFFF; // large steps: JPEG must not quantize it away
+        for (int y = 0; y < 16; y++) {
+            for (int x = 0; x < 16; x++) image.setRGB(x, y, rgb);
+        }
+        ImageIO.write(image, format, fresh);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws IOException {
+        ds.close();
+    }
+
+    @Benchmark
+    public ImportedImage importNew() throws IOException {
+        return ds.importImage(fresh);
+    }
+
+    @Benchmark
+    public ImportedImage importAgain() throws IOException {
+        return ds.importImage(known);
+    }
+}
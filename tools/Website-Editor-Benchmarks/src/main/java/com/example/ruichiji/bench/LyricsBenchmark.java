@@ -0,0 +1,98 @@
+package com.example.ruichiji.bench;
+
+import com.example.ruichiji.service.DataService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * saveLyricsFile and readLyricsFile for lyrics-sized texts (Fixtures.LYRICS_CHARS).
+ * Cold reads use a new DataService each time; warm reads hit the same file repeatedly.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LyricsBenchmark {
+    static final int FILES = 100;
+
+    @State(Scope.Benchmark)
+    public static class Texts {
+        Path root;
+        String[] texts = new String[FILES];
+        String[] refs = new String[FILES];
+
+        @Setup(Level.Trial)
+        public void create() throws IOException {
+            root = Fixtures.workspace("lyrics");
+            try (DataService ds = new DataService(root)) {
+                for (int i = 0; i < FILES; i++) {
+                    texts[i] = Fixtures.lyrics(i);
+                    refs[i] = ds.saveLyricsFile(Fixtures.musicId(i), texts[i]);
+                }
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Open {
+        DataService ds;
+        int next;
+
+        @Setup(Level.Trial)
+        public void open(Texts f) throws IOException {
+            ds = new DataService(f.root);
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws IOException {
+            ds.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cold {
+        DataService ds;
+        int next;
+
+        @Setup(Level.Invocation)
+        public void open(Texts f) throws IOException {
+            ds = new DataService(f.root);
+        }
+
+        @TearDown(Level.Invocation)
+        public void close() throws IOException {
+            ds.close();
+        }
+    }
+
+    @Benchmark
+    public String save(Texts f, Open s) throws IOException {
+        int i = s.next++ % FILES;
+        return s.ds.saveLyricsFile(Fixtures.musicId(i), f.texts[i]);
+    }
+
+    @Benchmark
+    public String warmRead(Texts f, Open s) throws IOException {
+        return s.ds.readLyricsFile(f.refs[s.next++ % FILES]);
+    }
+
+    @Benchmark
+    public String coldRead(Texts f, Cold s) throws IOException {
+        return s.ds.readLyricsFile(f.refs[s.next++ % FILES]);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.ruichiji.bench;
+
+import com.example.ruichiji.service.DataService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DataService.repair on a catalog cut off part way through an item, as left by a crash or
+ * a partial copy. The file is restored to the same truncated bytes before every call.
+ *
+ * A repair that gives up returns its exception instead of failing the run, so the attempt
+ * is measured either way.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RepairBenchmark {
+
+    @Param({"music", "discography", "live"})
+    public String kind;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    /** Where the file is cut, as a fraction of its length. */
+    @Param({"0.9"})
+    public double keep;
+
+    private Path root;
+    private byte[] truncated;
+    private DataService ds;
+
+    @Setup(Level.Trial)
+    public void prepare() throws IOException {
+        root = Fixtures.workspace("repair-" + kind + "-" + size);
+        byte[] full = Files.readAllBytes(Fixtures.pristine(kind, size));
+        truncated = Arrays.copyOf(full, (int) (full.length * keep));
+    }
+
+    @Setup(Level.Invocation)
+    public void breakFile() throws IOException {
+        Files.write(Fixtures.catalogFile(root, kind), truncated);
+        ds = new DataService(root);
+    }
+
+    @TearDown(Level.Invocation)
+    public void close() {
+        try {
+            ds.close();
+        } catch (IOException ex) {
+            // close() compacts, which rereads a catalog the repair could not fix
+        }
+    }
+
+    @Benchmark
+    public Object repairTruncated() {
+        try {
+            return ds.repair(kind);
+        } catch (IOException ex) {
+            return ex;
+        }
+    }
+}
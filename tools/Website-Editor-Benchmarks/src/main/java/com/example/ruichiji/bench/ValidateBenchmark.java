@@ -0,0 +1,62 @@
+package com.example.ruichiji.bench;
+
+import com.example.ruichiji.service.DataService;
+import com.example.ruichiji.service.ValidationReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DataService.validate() over a cached catalog: schema checks of every item, duplicate ids,
+ * lyrics references and music links (the cost of the editor's check-on-save and of a
+ * pre-commit hook once the catalog is parsed; parsing is CatalogReadBenchmark.coldRead).
+ *
+ * Each fixture holds one kind only, so music reports every lyrics file as missing and albums
+ * and live events report their music links as dangling: the numbers include building those
+ * issues, an upper bound for a real catalog.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ValidateBenchmark {
+
+    @Param({"music", "discography", "live"})
+    public String kind;
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private DataService ds;
+
+    @Setup(Level.Trial)
+    public void open() throws IOException {
+        ds = new DataService(Fixtures.install("validate-" + kind + "-" + size, kind, size));
+        ds.validate();
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws IOException {
+        ds.close();
+    }
+
+    @Benchmark
+    public ValidationReport validate() throws IOException {
+        return ds.validate();
+    }
+}
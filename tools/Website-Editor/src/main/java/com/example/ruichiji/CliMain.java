@@ -0,0 +1,214 @@
+package com.example.ruichiji;
+
+import com.example.ruichiji.model.CatalogItem;
+import com.example.ruichiji.model.Items;
+import com.example.ruichiji.model.StringTable;
+import com.example.ruichiji.service.BundleExporter;
+import com.example.ruichiji.service.DataService;
+import com.example.ruichiji.service.MusicReference;
+import com.example.ruichiji.service.ReferenceReport;
+import com.example.ruichiji.service.RepairReport;
+import com.example.ruichiji.service.ValidationIssue;
+import com.example.ruichiji.service.ValidationReport;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Headless entry point for scripts and CI. Uses DataService directly and never touches
+ * JavaFX, so it runs with only Jackson on the class path.
+ *
+ *   java -jar Website-Editor.jar [--root DIR] COMMAND [ARGS]
+ *
+ * Commands:
+ *   validate [--json]              check every catalog against its schema, lyrics files and music
+ *                                  links (see DataService.validate); --json prints the report
+ *   export [OUT_DIR] [THREADS]     write the per-page bundles (see BundleExporter)
+ *   import KIND FILE [--replace]   upsert the items of FILE into KIND (--replace: FILE becomes KIND)
+ *   reindex                        fold journals into the catalogs, rebuild the search and reference
+ *                                  indexes and report what they cover and every dangling or
+ *                                  duplicate music link (exit 1 if there are any)
+ *   repair [KIND...]               repair unparsable catalogs in place
+ *
+ * Exit status: 0 success, 1 problems found or command failed, 2 usage error.
+ */
+public class CliMain {
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    static int run(String[] args) {
+        List<String> rest = new ArrayList<>(List.of(args));
+        Path root = Paths.get(System.getProperty("user.dir"));
+        if (rest.size() >= 2 && rest.get(0).equals("--root")) {
+            root = Paths.get(rest.get(1));
+            rest = rest.subList(2, rest.size());
+        }
+        if (rest.isEmpty()) return usage();
+        String cmd = rest.get(0);
+        List<String> params = rest.subList(1, rest.size());
+
+        try (DataService ds = new DataService(root)) {
+            switch (cmd) {
+                case "validate": return validate(ds, params);
+                case "export": return export(ds, params);
+                case "import": return importItems(ds, params);
+                case "reindex": return reindex(ds);
+                case "repair": return repair(ds, params);
+                default: return usage();
+            }
+        } catch (IOException | RuntimeException ex) {
+            System.err.println(cmd + " failed: " + ex);
+            return 1;
+        }
+    }
+
+    private static int usage() {
+        System.err.println("usage: CliMain [--root DIR] validate [--json] | export [OUT_DIR] [THREADS]"
+                + " | import KIND FILE [--replace] | reindex | repair [KIND...]");
+        return 2;
+    }
+
+    /** --json prints the ValidationReport as JSON (for hooks and CI); warnings do not fail. */
+    private static int validate(DataService ds, List<String> params) throws IOException {
+        ValidationReport report = ds.validate();
+        if (params.contains("--json")) {
+            System.out.println(new ObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsString(report));
+            return report.errors() == 0 ? 0 : 1;
+        }
+        for (String kind : DataService.KINDS) {
+            Integer n = report.items().get(kind);
+            if (n != null) System.out.println(kind + ": " + n + " items");
+        }
+        for (ValidationIssue issue : report.issues()) System.out.println(issue);
+        StringTable.Stats st = ds.stringStats();
+        System.out.println("strings: " + st.entries() + " interned, " + st.hits() + " of " + st.lookups()
+                + " values shared, ~" + (st.bytesSaved() + 1023) / 1024 + " KiB saved");
+        System.out.println(report.errors() == 0 && report.warnings() == 0 ? "OK"
+                : report.errors() + " error(s), " + report.warnings() + " warning(s) in " + report.millis() + " ms");
+        return report.errors() == 0 ? 0 : 1;
+    }
+
+    private static int export(DataService ds, List<String> params) throws IOException {
+        Path out = params.size() > 0 ? Paths.get(params.get(0)).toAbsolutePath() : ds.getDataDir();
+        int threads = params.size() > 1 ? Integer.parseInt(params.get(1)) : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            BundleExporter.Result r = new BundleExporter(ds).export(out, pool);
+            System.out.println("exported " + r.written() + " bundles to " + out
+                    + " (" + r.removed() + " stale removed, " + r.skipped() + " skipped) in " + r.millis() + " ms");
+            return 0;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** FILE may be a top-level array or { "items": [...] }, like the catalogs themselves. */
+    private static int importItems(DataService ds, List<String> params) throws IOException {
+        if (params.size() < 2) return usage();
+        String kind = params.get(0);
+        boolean replace = params.contains("--replace");
+        JsonNode root = new ObjectMapper().readTree(Paths.get(params.get(1)).toFile());
+        JsonNode arr = root != null && root.isObject() ? root.get("items") : root;
+        if (arr == null || !arr.isArray()) {
+            System.err.println("import: " + params.get(1) + " has no items array");
+            return 1;
+        }
+        List<ObjectNode> items = new ArrayList<>();
+        int skipped = 0;
+        for (JsonNode n : arr) {
+            if (n.isObject() && !n.path("id").asText("").isBlank()) items.add((ObjectNode) n);
+            else skipped++;
+        }
+        if (replace) {
+            ds.writeList(kind, items);
+        } else {
+            ds.writeItems(kind, upserted(ds.readItems(kind), kind, items));
+        }
+        System.out.println((replace ? "replaced " : "upserted ") + items.size() + " item(s) in " + kind
+                + (skipped > 0 ? " (" + skipped + " without id skipped)" : ""));
+        return skipped > 0 ? 1 : 0;
+    }
+
+    /**
+     * current with every item upserted as upsert() would, one by one: an existing id is replaced
+     * in place, new items go on top (the last one first). Written with one writeItems, so the
+     * import is one commit, not one journaled commit per item.
+     */
+    private static List<CatalogItem> upserted(List<CatalogItem> current, String kind, List<ObjectNode> items) {
+        List<CatalogItem> out = new ArrayList<>(current);
+        Map<String, Integer> pos = new HashMap<>(out.size() * 2);
+        for (int i = 0; i < out.size(); i++) pos.putIfAbsent(Items.idOf(out.get(i)), i);
+        Map<String, CatalogItem> added = new LinkedHashMap<>();
+        for (ObjectNode n : items) {
+            CatalogItem item = Items.fromTree(kind, n);
+            String id = Items.idOf(item);
+            Integer i = pos.get(id);
+            if (i != null) {
+                out.set(i, item);
+            } else {
+                added.put(id, item); // a repeated new id keeps its place, like a second upsert
+            }
+        }
+        List<CatalogItem> top = new ArrayList<>(added.values());
+        Collections.reverse(top);
+        out.addAll(0, top);
+        return out;
+    }
+
+    /**
+     * The indexes live in memory, so this is a check that they build from the compacted files:
+     * it reports their size and the link problems the reference index finds.
+     */
+    private static int reindex(DataService ds) throws IOException {
+        long start = System.nanoTime();
+        ds.compactAll();
+        ds.buildSearchIndex(DataService.KINDS);
+        ds.buildReferenceIndex();
+        ReferenceReport refs = ds.checkReferences();
+        int items = 0;
+        for (String kind : DataService.KINDS) items += ds.readItems(kind).size();
+        System.out.println("search index: " + ds.searchDocumentCount() + " documents for " + items + " items");
+        for (MusicReference r : refs.dangling()) System.out.println("dangling: " + describe(r));
+        for (MusicReference r : refs.duplicates()) System.out.println("duplicate: " + describe(r));
+        System.out.println("reindexed " + DataService.KINDS.size() + " catalogs in " + (System.nanoTime() - start) / 1_000_000 + " ms"
+                + (refs.isClean() ? "" : ", " + refs.dangling().size() + " dangling and " + refs.duplicates().size() + " duplicate music link(s)"));
+        return refs.isClean() ? 0 : 1;
+    }
+
+    private static String describe(MusicReference r) {
+        return r.kind() + "/" + r.id() + " " + r.field() + " -> " + r.musicId();
+    }
+
+    private static int repair(DataService ds, List<String> params) {
+        int failed = 0;
+        for (String kind : params.isEmpty() ? DataService.KINDS : params) {
+            try {
+                RepairReport r = ds.repair(kind);
+                if (!r.repaired()) {
+                    System.out.println(kind + ": ok");
+                    continue;
+                }
+                System.out.println(kind + ": repaired, kept " + r.salvaged() + " items (damaged file saved as " + r.backup() + ")");
+                for (RepairReport.Dropped d : r.dropped()) System.out.println("  dropped " + d);
+            } catch (IOException ex) {
+                System.out.println(kind + ": cannot repair: " + ex.getMessage());
+                failed++;
+            }
+        }
+        return failed == 0 ? 0 : 1;
+    }
+}
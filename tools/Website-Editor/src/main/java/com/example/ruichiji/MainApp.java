@@ -1,5 +1,6 @@
 package com.example.ruichiji;
 
+import com.example.ruichiji.controller.MainController;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -10,6 +11,8 @@ import java.io.IOException;
 import java.net.URL;
 
 public class MainApp extends Application {
+    private MainController mainController;
+
     @Override
     public void start(Stage primaryStage) throws Exception {
         URL fxml = getClass().getResource("/fxml/MainView.fxml");
@@ -18,11 +21,18 @@ public class MainApp extends Application {
         }
         FXMLLoader loader = new FXMLLoader(fxml);
         Parent root = loader.load(); // 明示的に Parent 型で受ける
+        mainController = loader.getController();
         primaryStage.setTitle("Website-Editor");
         primaryStage.setScene(new Scene(root, 1000, 700));
         primaryStage.show();
     }
 
+    @Override
+    public void stop() {
+        // flush journaled edits into assets/data/*.json before the JVM exits
+        if (mainController != null) mainController.shutdown();
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
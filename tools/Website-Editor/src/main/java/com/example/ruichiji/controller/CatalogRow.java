@@ -0,0 +1,49 @@
+package com.example.ruichiji.controller;
+
+import com.example.ruichiji.model.CatalogItem;
+import javafx.beans.InvalidationListener;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+
+/**
+ * Compact, immutable projection of one catalog item for the list table (id/title/date only).
+ *
+ * It is its own (constant) ObservableValue so a column's cell value factory can return the
+ * row itself instead of allocating a property per cell render; the cell then picks the
+ * field it shows. A changed item gets a new CatalogRow, which makes the cell repaint.
+ */
+final class CatalogRow implements ObservableValue<CatalogRow> {
+    final String id;
+    final String title;
+    final String date;
+
+    private CatalogRow(String id, String title, String date) {
+        this.id = id;
+        this.title = title;
+        this.date = date;
+    }
+
+    static CatalogRow of(CatalogItem n) {
+        return new CatalogRow(text(n, "id"), text(n, "title"), text(n, "date"));
+    }
+
+    /** id/title/date are plain field reads; a missing (or non-text) value falls back to item.text(). */
+    static String text(CatalogItem n, String key) {
+        if (n == null) return "";
+        String v = switch (key) {
+            case "id" -> n.getId();
+            case "title" -> n.getTitle();
+            case "date" -> n.getDate();
+            default -> null;
+        };
+        return v != null ? v : n.text(key);
+    }
+
+    @Override public CatalogRow getValue() { return this; }
+
+    // immutable: nothing to notify
+    @Override public void addListener(ChangeListener<? super CatalogRow> listener) {}
+    @Override public void removeListener(ChangeListener<? super CatalogRow> listener) {}
+    @Override public void addListener(InvalidationListener listener) {}
+    @Override public void removeListener(InvalidationListener listener) {}
+}
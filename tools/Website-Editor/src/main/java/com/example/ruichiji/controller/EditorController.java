@@ -1,24 +1,44 @@
 package com.example.ruichiji.controller;
 
+import com.example.ruichiji.model.Album;
+import com.example.ruichiji.model.CatalogItem;
+import com.example.ruichiji.model.Items;
+import com.example.ruichiji.model.JsonRecord;
+import com.example.ruichiji.model.LiveEvent;
+import com.example.ruichiji.model.SetlistEntry;
+import com.example.ruichiji.model.Track;
+import com.example.ruichiji.service.CatalogSchema;
 import com.example.ruichiji.service.DataService;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.example.ruichiji.service.JsonPatch;
+import com.example.ruichiji.service.MusicReference;
+import com.example.ruichiji.service.ValidationIssue;
 import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.JsonNode;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
+import javafx.scene.Parent;
 import javafx.scene.control.*;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.scene.layout.GridPane;
 import javafx.scene.control.SplitPane;
 import javafx.scene.web.WebView;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.stage.Window;
 
-import java.io.IOException;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
@@ -56,25 +76,37 @@ public class EditorController {
     // discography fields
     @FXML private VBox discographyBox;
     @FXML private TextField tfArtists;
-    @FXML private ListView<ObjectNode> lvTracks;
+    @FXML private ListView<Track> lvTracks;
 
     // live fields
     @FXML private VBox liveBox;
     @FXML private TextField tfVenue;
-    @FXML private ListView<ObjectNode> lvSetlist;
+    @FXML private ListView<SetlistEntry> lvSetlist;
 
     private DataService dataService;
     private String kind;
-    private ObjectNode current;
+    private CatalogItem current;
     private boolean isNew;
+    private String originalId; // id when the editor was opened; null for new items
+    // downscaled copies of the cover ([{width, src}]); only saved while tfCover still shows coverVariantsOf
+    private ArrayNode coverVariants;
+    private String coverVariantsOf;
     private final ObjectMapper mapper = new ObjectMapper();
 
+    // What the form showed for the item (see rememberShown). onSave writes only the members whose
+    // input differs, as a JSON Patch, so an untouched form saves nothing.
+    private final Map<TextInputControl, String> shown = new HashMap<>();
+    private String shownLyrics = "";
+    private boolean lyricsPending; // inline "lyrics" still to be moved to a lyrics file
+    private List<Track> shownTracks = List.of();
+    private List<SetlistEntry> shownSetlist = List.of();
+
     // body key used for the main textarea (can be "description", "content", "note", etc.)
     private String contentKey = "description";
 
     // observable lists for listviews
-    private final ObservableList<ObjectNode> tracksList = FXCollections.observableArrayList();
-    private final ObservableList<ObjectNode> setlistList = FXCollections.observableArrayList();
+    private final ObservableList<Track> tracksList = FXCollections.observableArrayList();
+    private final ObservableList<SetlistEntry> setlistList = FXCollections.observableArrayList();
 
     public void setDataService(DataService ds) {
         this.dataService = ds;
@@ -86,12 +118,12 @@ public class EditorController {
         lvTracks.setItems(tracksList);
         lvTracks.setCellFactory(tv -> new ListCell<>() {
             @Override
-            protected void updateItem(ObjectNode item, boolean empty) {
+            protected void updateItem(Track item, boolean empty) {
                 super.updateItem(item, empty);
                 if (empty || item == null) setText(null);
                 else {
-                    String t = item.has("track_no") ? item.get("track_no").asText() + " - " : "";
-                    t += item.has("title") ? item.get("title").asText() : "(no title)";
+                    String t = item.getTrackNo() != null ? item.getTrackNo().asText() + " - " : "";
+                    t += item.getTitle() != null ? item.getTitle() : "(no title)";
                     setText(t);
                 }
             }
@@ -100,12 +132,12 @@ public class EditorController {
         lvSetlist.setItems(setlistList);
         lvSetlist.setCellFactory(tv -> new ListCell<>() {
             @Override
-            protected void updateItem(ObjectNode item, boolean empty) {
+            protected void updateItem(SetlistEntry item, boolean empty) {
                 super.updateItem(item, empty);
                 if (empty || item == null) setText(null);
                 else {
-                    String t = item.has("title") ? item.get("title").asText() : "(no title)";
-                    if (item.has("id") && !item.get("id").asText().isEmpty()) t += " [" + item.get("id").asText() + "]";
+                    String t = item.getTitle() != null ? item.getTitle() : "(no title)";
+                    if (item.getId() != null && !item.getId().isEmpty()) t += " [" + item.getId() + "]";
                     setText(t);
                 }
             }
@@ -127,42 +159,36 @@ public class EditorController {
         boolean showMovieBox = false;
         boolean showDiscographyBox = false;
         boolean showLiveBox = false;
-        String bodyKey = "description";
         String bodyLabel = "Description:";
 
         if ("topics".equals(kind)) {
             showCover = false;
             showLyrics = false;
             showPreview = false;
-            bodyKey = "content";
             bodyLabel = "Content:";
         } else if ("music".equals(kind)) {
             showCover = true;
             showLyrics = true;    // music uses lyrics field in our editor
             showPreview = false;
             showMusicBox = true;
-            bodyKey = "description"; // keep description as body (if needed)
             bodyLabel = "Description:";
         } else if ("movies".equals(kind)) {
             showCover = false;
             showLyrics = false;
             showPreview = true;   // show web preview for movie URL if available
             showMovieBox = true;
-            bodyKey = "description";
             bodyLabel = "Description:";
         } else if ("discography".equals(kind)) {
             showCover = true;
             showDiscographyBox = true;
-            bodyKey = "description";
             bodyLabel = "Description:";
         } else if ("live".equals(kind)) {
             showCover = true;     // live uses image field (mapped to tfCover)
             showLiveBox = true;
-            bodyKey = "note";     // live's main text is "note"
             bodyLabel = "Note:";
         }
 
-        this.contentKey = bodyKey;
+        this.contentKey = CatalogSchema.of(kind).body(); // see /schema/catalogs.json
 
         // Update UI components (null checks in case called before FXML injection)
         if (lblDescription != null) lblDescription.setText(bodyLabel);
@@ -206,11 +232,14 @@ public class EditorController {
     }
 
     /**
-     * node may be null for new item
+     * item may be null for new item.
+     * The editor works on a copy so that an aborted or failed save never leaves a half-edited
+     * item inside DataService's cache.
      */
-    public void setItem(ObjectNode node, boolean isNew) {
-        this.current = node;
+    public void setItem(CatalogItem item, boolean isNew) {
+        this.current = item == null ? null : item.copy();
         this.isNew = isNew;
+        this.originalId = isNew || item == null ? null : Items.idOf(item);
         populateFields();
     }
 
@@ -227,6 +256,8 @@ public class EditorController {
             tfTitle.setText("");
             tfDate.setText("");
             tfCover.setText("");
+            coverVariants = null;
+            coverVariantsOf = null;
             taDescription.setText("");
             taLyrics.setText("");
             taRawJson.setText("");
@@ -243,6 +274,9 @@ public class EditorController {
             tracksList.clear();
             setlistList.clear();
             tfId.setEditable(true); // new item -> allow editing id
+            shownLyrics = "";
+            lyricsPending = false;
+            rememberShown();
             return;
         }
 
@@ -254,6 +288,9 @@ public class EditorController {
         String coverVal = getText(current, "cover");
         if (coverVal.isEmpty()) coverVal = getText(current, "image");
         tfCover.setText(coverVal);
+        JsonNode variants = current.get(coverField() + "Variants");
+        coverVariants = variants != null && variants.isArray() ? ((ArrayNode) variants).deepCopy() : null;
+        coverVariantsOf = coverVal;
 
         // main body: use contentKey (e.g. "content" for topics, "note" for live)
         String body = getText(current, contentKey);
@@ -262,21 +299,29 @@ public class EditorController {
         }
         taDescription.setText(body);
 
-        // lyrics: if JSON contains lyricsFile, load from file; else fallback to "lyrics" field
-        String lyricsText = "";
-        try {
-            String lyricsFilePath = getText(current, "lyricsFile");
-            if (!lyricsFilePath.isEmpty() && dataService != null) {
-                String loaded = dataService.readLyricsFile(lyricsFilePath);
-                if (loaded != null) lyricsText = loaded;
-            } else {
-                lyricsText = getText(current, "lyrics");
-            }
-        } catch (Exception ex) {
-            // ignore and fallback
-            lyricsText = getText(current, "lyrics");
+        // lyrics: if JSON contains lyricsFile, load from file (in the background; the text area
+        // stays disabled until then); else fallback to "lyrics" field
+        String lyricsFilePath = getText(current, "lyricsFile");
+        if (!lyricsFilePath.isEmpty() && dataService != null) {
+            final CatalogItem loading = current;
+            taLyrics.setText("");
+            taLyrics.setDisable(true);
+            dataService.async().readLyricsFile(lyricsFilePath).whenCompleteAsync((loaded, err) -> {
+                if (current != loading) return; // another item was set meanwhile
+                taLyrics.setDisable(false);
+                if (err != null) {
+                    // ignore and fallback
+                    taLyrics.setText(getText(current, "lyrics"));
+                } else {
+                    taLyrics.setText(loaded != null ? loaded : "");
+                }
+                shownLyrics = taLyrics.getText();
+            }, Platform::runLater);
+        } else {
+            taLyrics.setText(getText(current, "lyrics"));
         }
-        taLyrics.setText(lyricsText);
+        shownLyrics = taLyrics.getText();
+        lyricsPending = lyricsFilePath.isEmpty() && !taLyrics.getText().isBlank();
 
         // music specific
         tfDuration.setText(getText(current, "duration"));
@@ -309,19 +354,19 @@ public class EditorController {
 
         // tracks (array of objects)
         tracksList.clear();
-        if (current.has("tracks") && current.get("tracks").isArray()) {
-            for (JsonNode tn : current.get("tracks")) {
-                if (tn.isObject()) tracksList.add((ObjectNode) tn);
-            }
+        if (current instanceof Album album && album.getTracks() != null) {
+            for (Track t : album.getTracks()) tracksList.add(t.copy());
+        } else {
+            tracksList.addAll(recordsOf(current.get("tracks"), Track.class));
         }
 
         // live specific: venue and setlist
         tfVenue.setText(getText(current, "venue"));
         setlistList.clear();
-        if (current.has("setlist") && current.get("setlist").isArray()) {
-            for (JsonNode sn : current.get("setlist")) {
-                if (sn.isObject()) setlistList.add((ObjectNode) sn);
-            }
+        if (current instanceof LiveEvent live && live.getSetlist() != null) {
+            for (SetlistEntry e : live.getSetlist()) setlistList.add(e.copy());
+        } else {
+            setlistList.addAll(recordsOf(current.get("setlist"), SetlistEntry.class));
         }
 
         // Raw JSON preview
@@ -331,8 +376,40 @@ public class EditorController {
             taRawJson.setText(current.toString());
         }
 
-        // If editing an existing item, prevent changing the id to avoid accidental id changes.
-        tfId.setEditable(isNew);
+        // Changing the id of an existing item goes through DataService.renameId on save, which
+        // also updates every reference to it.
+        tfId.setEditable(true);
+        rememberShown();
+    }
+
+    /** Record what the form shows now; isDirty compares against it. */
+    private void rememberShown() {
+        shown.clear();
+        for (TextInputControl in : List.of(tfId, tfTitle, tfDate, tfCover, taDescription, tfDuration, tfCredits, tfAlbums,
+                tfAudioFile, tfService, tfUploader, tfVideo, tfMusicID, tfArtists, tfVenue)) {
+            shown.put(in, textOf(in));
+        }
+        shownTracks = List.copyOf(tracksList);
+        shownSetlist = List.copyOf(setlistList);
+    }
+
+    private boolean isDirty(TextInputControl in) {
+        return !textOf(in).equals(shown.get(in));
+    }
+
+    /** True if the form changed what the member would be saved as. */
+    private boolean isDirty(CatalogSchema.Member m) {
+        return switch (m.type()) {
+            case TEXT, DATE, TEXTS -> formInput(m.name()) != null && isDirty(formInput(m.name()));
+            case VARIANTS -> isDirty(tfCover);
+            case RECORDS -> !tracksList.equals(shownTracks) || !setlistList.equals(shownSetlist);
+            case LYRICS -> lyricsPending || !textOf(taLyrics).equals(shownLyrics);
+            case NUMBER_OR_TEXT -> false;
+        };
+    }
+
+    private static String textOf(TextInputControl in) {
+        return in.getText() == null ? "" : in.getText();
     }
 
     @FXML
@@ -341,177 +418,172 @@ public class EditorController {
             showAlert("設定エラー", "DataService または kind が設定されていません。");
             return;
         }
-        try {
-            // Load list
-            List<ObjectNode> list = dataService.readList(kind);
-
-            // Ensure current node exists
-            ObjectNode node = current;
-            if (node == null) {
-                node = mapper.createObjectNode();
-            }
-
-            node.put("id", tfId.getText() == null ? "" : tfId.getText());
-            node.put("title", tfTitle.getText() == null ? "" : tfTitle.getText());
-            node.put("date", tfDate.getText() == null ? "" : tfDate.getText());
-
-            // Write the main body according to contentKey
-            node.put(contentKey, taDescription.getText() == null ? "" : taDescription.getText());
-
-            // Per-kind handling: only include fields that make sense for the kind
-            switch (kind) {
-                case "topics":
-                    node.remove("cover");
-                    node.remove("lyrics");
-                    node.remove("description");
-                    node.remove("image");
-                    node.remove("lyricsFile");
-                    break;
-                case "music":
-                    if (tfCover.getText() != null && !tfCover.getText().isBlank())
-                        node.put("cover", tfCover.getText());
-                    else node.remove("cover");
-
-                    if (tfDuration.getText() != null && !tfDuration.getText().isBlank())
-                        node.put("duration", tfDuration.getText());
-                    else node.remove("duration");
-
-                    // credits -> array
-                    if (tfCredits.getText() != null && !tfCredits.getText().isBlank()) {
-                        ArrayNode arr = mapper.createArrayNode();
-                        for (String s : tfCredits.getText().split(",")) {
-                            String t = s.trim();
-                            if (!t.isEmpty()) arr.add(t);
-                        }
-                        node.set("credits", arr);
-                    } else node.remove("credits");
-
-                    // albums -> array
-                    if (tfAlbums.getText() != null && !tfAlbums.getText().isBlank()) {
+        if (tfId.getText() == null || tfId.getText().isBlank()) {
+            showAlert("保存エラー", "ID が空です。ID を入力してください。");
+            return;
+        }
+        String newId = tfId.getText();
+        boolean rename = originalId != null && !originalId.isBlank() && !originalId.equals(newId);
+        if (rename && !confirmRename(newId)) return;
+
+        // A new item is written whole. An existing one is edited on a copy and saved as the
+        // patch from the item to the copy, built from the members whose input changed only;
+        // its test ops make the save fail rather than overwrite what another editor saved to
+        // the same members since the item was opened (other members are merged).
+        boolean whole = isNew || current == null;
+        CatalogItem node = whole ? (current == null ? Items.create(kind) : current) : current.copy();
+        String lyricsToSave = null; // music only: written to lyrics/<id>.txt before the item is saved
+
+        if (whole) node.set("id", newId);
+        if (whole || isDirty(tfTitle)) node.set("title", textOf(tfTitle));
+        if (whole || isDirty(tfDate)) node.set("date", textOf(tfDate));
+        // Write the main body according to contentKey
+        if (whole || isDirty(taDescription)) node.set(contentKey, textOf(taDescription));
+        boolean edited = whole || isDirty(tfTitle) || isDirty(tfDate) || isDirty(taDescription);
+
+        // Everything else follows the kind's schema: text members from their form field (blank
+        // removes them), texts comma-split, members the kind does not use dropped
+        CatalogSchema schema = CatalogSchema.of(kind);
+        for (CatalogSchema.Member m : schema.members()) {
+            String name = m.name();
+            if (name.equals("id") || name.equals("title") || name.equals("date") || name.equals(contentKey)) continue;
+            if (!whole && !isDirty(m)) continue;
+            edited = true;
+            switch (m.type()) {
+                case TEXT, DATE -> {
+                    TextInputControl in = formInput(name);
+                    if (in == null) break; // not editable here (e.g. movies' url): keep as is
+                    if (in.getText() != null && !in.getText().isBlank()) node.set(name, in.getText());
+                    else node.remove(name);
+                }
+                case TEXTS -> {
+                    TextInputControl in = formInput(name);
+                    if (in == null) break;
+                    if (in.getText() != null && !in.getText().isBlank()) {
                         ArrayNode arr = mapper.createArrayNode();
-                        for (String s : tfAlbums.getText().split(",")) {
-                            String t = s.trim();
+                        for (String part : in.getText().split(",")) {
+                            String t = part.trim();
                             if (!t.isEmpty()) arr.add(t);
                         }
-                        node.set("albums", arr);
-                    } else node.remove("albums");
-
-                    if (tfAudioFile.getText() != null && !tfAudioFile.getText().isBlank())
-                        node.put("audioFile", tfAudioFile.getText());
-                    else node.remove("audioFile");
-
-                    // lyrics: save to file and set lyricsFile
+                        node.set(name, arr);
+                    } else node.remove(name);
+                }
+                case VARIANTS -> putCoverVariants(node, name);
+                case RECORDS -> {
+                    if (node instanceof Album album && name.equals("tracks")) album.setTracks(tracksList);
+                    else if (node instanceof LiveEvent live && name.equals("setlist")) live.setSetlist(setlistList);
+                }
+                case LYRICS -> {
+                    // The lyrics text goes to assets/data/lyrics/<id>.txt (written in the background
+                    // below); the member gets the path the website uses, "data/lyrics/<id>.txt".
                     String lyricsTxt = taLyrics.getText() == null ? "" : taLyrics.getText();
-                    String idForFile = node.has("id") ? node.get("id").asText() : "";
                     if (!lyricsTxt.isBlank()) {
-                        if (idForFile == null || idForFile.isBlank()) {
+                        if (newId.isBlank()) {
                             showAlert("保存エラー", "楽曲ID が空です。歌詞をファイル保存するには ID を入力してください。");
                             return;
                         }
-                        // NOTE:
-                        // The lyrics file is written on disk under assets/data/lyrics/<id>.txt,
-                        // but the path stored in JSON must omit the leading 'assets/' so that
-                        // the website references it as 'data/lyrics/...'.
-                        // saveLyricsFile(...) returns the JSON-appropriate path (without 'assets/').
-                        String relPath = dataService.saveLyricsFile(idForFile, lyricsTxt);
-                        node.put("lyricsFile", relPath);
-                        // remove inline lyrics field if present
-                        node.remove("lyrics");
+                        lyricsToSave = lyricsTxt;
                     } else {
-                        node.remove("lyricsFile");
-                        node.remove("lyrics");
+                        node.remove(name);
                     }
-                    break;
-                case "movies":
-                    node.remove("lyrics");
-                    node.remove("cover");
-                    if (tfService.getText() != null && !tfService.getText().isBlank()) node.put("service", tfService.getText());
-                    else node.remove("service");
-                    if (tfUploader.getText() != null && !tfUploader.getText().isBlank()) node.put("uploader", tfUploader.getText());
-                    else node.remove("uploader");
-                    if (tfVideo.getText() != null && !tfVideo.getText().isBlank()) node.put("video", tfVideo.getText());
-                    else node.remove("video");
-                    if (tfMusicID.getText() != null && !tfMusicID.getText().isBlank()) node.put("musicID", tfMusicID.getText());
-                    else node.remove("musicID");
-                    break;
-                case "discography":
-                    if (tfCover.getText() != null && !tfCover.getText().isBlank())
-                        node.put("cover", tfCover.getText());
-                    else node.remove("cover");
-
-                    // artists -> array
-                    if (tfArtists.getText() != null && !tfArtists.getText().isBlank()) {
-                        ArrayNode arr = mapper.createArrayNode();
-                        for (String s : tfArtists.getText().split(",")) {
-                            String t = s.trim();
-                            if (!t.isEmpty()) arr.add(t);
-                        }
-                        node.set("artists", arr);
-                    } else node.remove("artists");
-
-                    // tracks -> use tracksList
-                    ArrayNode tracksArr = mapper.createArrayNode();
-                    for (ObjectNode on : tracksList) tracksArr.add(on);
-                    node.set("tracks", tracksArr);
-                    node.remove("lyrics");
-                    break;
-                case "live":
-                    // image vs cover
-                    if (tfCover.getText() != null && !tfCover.getText().isBlank())
-                        node.put("image", tfCover.getText());
-                    else {
-                        node.remove("image");
-                        node.remove("cover");
-                    }
-                    node.remove("lyrics");
-
-                    if (tfVenue.getText() != null && !tfVenue.getText().isBlank()) node.put("venue", tfVenue.getText());
-                    else node.remove("venue");
-
-                    // setlist -> use setlistList
-                    ArrayNode setArr = mapper.createArrayNode();
-                    for (ObjectNode on : setlistList) setArr.add(on);
-                    node.set("setlist", setArr);
-                    break;
-                default:
-                    node.remove("lyrics");
-                    break;
+                }
+                case NUMBER_OR_TEXT -> { }
             }
+        }
+        if (edited) for (String name : schema.unused()) node.remove(name);
+
+        List<ValidationIssue> errors = schema.validate(node).stream().filter(ValidationIssue::isError).toList();
+        if (!errors.isEmpty()) {
+            StringBuilder sb = new StringBuilder("入力内容を確認してください:");
+            for (ValidationIssue issue : errors) sb.append('\n').append(issue.path()).append(": ").append(issue.message());
+            showAlert("保存エラー", sb.toString());
+            return;
+        }
 
-            // Update or insert
-            boolean replaced = false;
-            for (int i = 0; i < list.size(); i++) {
-                JsonNode e = list.get(i);
-                String id = getText((ObjectNode) e, "id");
-                if (id.equals(node.get("id").asText())) {
-                    list.set(i, node);
-                    replaced = true;
-                    break;
+        // the patch is taken before any rename, so it never touches the id
+        ArrayNode ops = whole ? null : JsonPatch.checkedDiff(current.toTree(), node.toTree());
+        if (!whole && !rename && ops.isEmpty() && lyricsToSave == null) {
+            onCancel(); // nothing changed: nothing to write
+            return;
+        }
+
+        // Disk work runs in the background; the form is disabled until it finishes.
+        var async = dataService.async();
+        final CatalogItem target = node;
+        final String lyrics = lyricsToSave;
+        // a changed id is renamed first (with its references), then the edits are saved under it;
+        // the editor follows the rename at once, so a retry after a failed save does not rename again
+        CompletableFuture<Void> renamed = rename
+                ? async.renameId(kind, originalId, newId).thenRunAsync(() -> originalId = newId, Platform::runLater)
+                : CompletableFuture.completedFuture(null);
+        CompletableFuture<String> lyricsFile = lyrics == null
+                ? renamed.thenApply(v -> null)
+                : renamed.thenCompose(v -> async.saveLyricsFile(newId, lyrics));
+        CompletableFuture<Void> save;
+        if (whole) {
+            save = lyricsFile.thenCompose(relPath -> {
+                if (relPath != null) {
+                    target.set("lyricsFile", relPath);
+                    // remove inline lyrics field if present
+                    target.remove("lyrics");
                 }
+                return async.upsert(kind, target); // update or insert (by id)
+            });
+        } else {
+            save = lyricsFile.thenCompose(relPath -> {
+                if (relPath != null) ops.addObject().put("op", "add").put("path", "/lyricsFile").put("value", relPath);
+                if (ops.isEmpty()) return CompletableFuture.completedFuture(null);
+                return async.patch(kind, newId, ops).thenApply(item -> null);
+            });
+        }
+
+        Parent root = tfId.getScene().getRoot();
+        root.setDisable(true);
+        save.whenCompleteAsync((v, err) -> {
+            root.setDisable(false);
+            if (err != null) {
+                Throwable cause = ListController.unwrap(err);
+                cause.printStackTrace();
+                showAlert("保存エラー", ListController.messageOf(cause));
+                return;
             }
-            if (!replaced) {
-                list.add(0, node);
+            List<MusicReference> unresolved = dataService.unresolvedReferences(kind, newId);
+            if (!unresolved.isEmpty()) {
+                StringBuilder sb = new StringBuilder("保存しましたが、存在しない楽曲 ID を参照しています:");
+                for (MusicReference r : unresolved) sb.append('\n').append(MainController.describe(r));
+                Alert a = new Alert(Alert.AlertType.WARNING, sb.toString(), ButtonType.OK);
+                a.setTitle("参照チェック");
+                a.showAndWait();
             }
-
-            dataService.writeList(kind, list);
-
             // Close window
             Window w = tfId.getScene().getWindow();
             if (w instanceof Stage) ((Stage) w).close();
-        } catch (IOException ex) {
-            ex.printStackTrace();
-            showAlert("保存エラー", ex.getMessage());
+        }, Platform::runLater);
+    }
+
+    /** Ask before changing an id; for songs, show which items will be updated with it. */
+    private boolean confirmRename(String newId) {
+        StringBuilder sb = new StringBuilder("ID を「" + originalId + "」から「" + newId + "」に変更しますか？");
+        if ("music".equals(kind)) {
+            List<MusicReference> refs = dataService.referencesTo(originalId);
+            if (!refs.isEmpty()) {
+                sb.append("\n\n次の参照も更新されます:");
+                for (MusicReference r : refs) sb.append('\n').append(MainController.describe(r));
+            }
         }
+        Alert a = new Alert(Alert.AlertType.CONFIRMATION, sb.toString(), ButtonType.YES, ButtonType.NO);
+        a.setTitle("ID 変更");
+        return a.showAndWait().filter(b -> b == ButtonType.YES).isPresent();
     }
 
     // ---- Track / Setlist item editors ----
     @FXML
-    private void onAddTrack() { ObjectNode n = showTrackDialog(null); if (n != null) tracksList.add(n); }
+    private void onAddTrack() { Track n = showTrackDialog(null); if (n != null) tracksList.add(n); }
     @FXML
     private void onEditTrack() {
-        ObjectNode sel = lvTracks.getSelectionModel().getSelectedItem();
+        Track sel = lvTracks.getSelectionModel().getSelectedItem();
         if (sel == null) { showAlert("選択エラー", "編集するトラックを選択してください。"); return; }
-        ObjectNode updated = showTrackDialog(sel.deepCopy());
+        Track updated = showTrackDialog(sel.copy());
         if (updated != null) {
             int idx = lvTracks.getSelectionModel().getSelectedIndex();
             tracksList.set(idx, updated);
@@ -519,11 +591,12 @@ public class EditorController {
     }
     @FXML
     private void onRemoveTrack() {
-        ObjectNode sel = lvTracks.getSelectionModel().getSelectedItem();
+        Track sel = lvTracks.getSelectionModel().getSelectedItem();
         if (sel != null) tracksList.remove(sel);
     }
 
-    private ObjectNode showTrackDialog(ObjectNode initial) {
+    /** initial (a copy) is updated in place, so members the form does not show are kept. */
+    private Track showTrackDialog(Track initial) {
         Dialog<ButtonType> dlg = new Dialog<>();
         dlg.setTitle(initial == null ? "Add Track" : "Edit Track");
         GridPane g = new GridPane();
@@ -534,46 +607,47 @@ public class EditorController {
         g.add(new Label("MusicID:"), 0, 2); g.add(tfMusic, 1, 2);
         g.add(new Label("Author:"), 0, 3); g.add(tfAuthor, 1, 3);
         if (initial != null) {
-            tfNo.setText(getText(initial, "track_no"));
-            tfTitle.setText(getText(initial, "title"));
-            tfMusic.setText(getText(initial, "musicID"));
-            tfAuthor.setText(getText(initial, "author"));
+            tfNo.setText(initial.text("track_no"));
+            tfTitle.setText(initial.text("title"));
+            tfMusic.setText(initial.text("musicID"));
+            tfAuthor.setText(initial.text("author"));
         }
         dlg.getDialogPane().setContent(g);
         dlg.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
         dlg.setResultConverter(bt -> bt);
         var res = dlg.showAndWait();
         if (res.isPresent() && res.get() == ButtonType.OK) {
-            ObjectNode out = mapper.createObjectNode();
+            Track out = initial != null ? initial : new Track();
             String no = tfNo.getText() == null ? "" : tfNo.getText().trim();
             if (!no.isEmpty()) {
                 // if numeric, try number; else keep as text (e.g., "Ex")
-                try { out.put("track_no", Integer.parseInt(no)); } catch (Exception ex) { out.put("track_no", no); }
-            }
-            out.put("title", tfTitle.getText() == null ? "" : tfTitle.getText());
-            if (tfMusic.getText() != null && !tfMusic.getText().isBlank()) out.put("musicID", tfMusic.getText());
-            if (tfAuthor.getText() != null && !tfAuthor.getText().isBlank()) out.put("author", tfAuthor.getText());
+                try { out.setTrackNo(IntNode.valueOf(Integer.parseInt(no))); } catch (Exception ex) { out.setTrackNo(TextNode.valueOf(no)); }
+            } else out.setTrackNo(null);
+            out.setTitle(tfTitle.getText() == null ? "" : tfTitle.getText());
+            out.setMusicId(tfMusic.getText() != null && !tfMusic.getText().isBlank() ? tfMusic.getText() : null);
+            out.setAuthor(tfAuthor.getText() != null && !tfAuthor.getText().isBlank() ? tfAuthor.getText() : null);
             return out;
         }
         return null;
     }
 
-    @FXML private void onAddSetlist() { ObjectNode n = showSetlistDialog(null); if (n != null) setlistList.add(n); }
+    @FXML private void onAddSetlist() { SetlistEntry n = showSetlistDialog(null); if (n != null) setlistList.add(n); }
     @FXML private void onEditSetlist() {
-        ObjectNode sel = lvSetlist.getSelectionModel().getSelectedItem();
+        SetlistEntry sel = lvSetlist.getSelectionModel().getSelectedItem();
         if (sel == null) { showAlert("選択エラー", "編集するセットリスト項目を選択してください。"); return; }
-        ObjectNode updated = showSetlistDialog(sel.deepCopy());
+        SetlistEntry updated = showSetlistDialog(sel.copy());
         if (updated != null) {
             int idx = lvSetlist.getSelectionModel().getSelectedIndex();
             setlistList.set(idx, updated);
         }
     }
     @FXML private void onRemoveSetlist() {
-        ObjectNode sel = lvSetlist.getSelectionModel().getSelectedItem();
+        SetlistEntry sel = lvSetlist.getSelectionModel().getSelectedItem();
         if (sel != null) setlistList.remove(sel);
     }
 
-    private ObjectNode showSetlistDialog(ObjectNode initial) {
+    /** initial (a copy) is updated in place, like showTrackDialog. */
+    private SetlistEntry showSetlistDialog(SetlistEntry initial) {
         Dialog<ButtonType> dlg = new Dialog<>();
         dlg.setTitle(initial == null ? "Add Setlist Item" : "Edit Setlist Item");
         GridPane g = new GridPane();
@@ -582,17 +656,17 @@ public class EditorController {
         g.add(new Label("Title:"), 0, 0); g.add(tfTitle, 1, 0);
         g.add(new Label("ID (optional):"), 0, 1); g.add(tfIdField, 1, 1);
         if (initial != null) {
-            tfTitle.setText(getText(initial, "title"));
-            tfIdField.setText(getText(initial, "id"));
+            tfTitle.setText(initial.text("title"));
+            tfIdField.setText(initial.text("id"));
         }
         dlg.getDialogPane().setContent(g);
         dlg.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
         dlg.setResultConverter(bt -> bt);
         var res = dlg.showAndWait();
         if (res.isPresent() && res.get() == ButtonType.OK) {
-            ObjectNode out = mapper.createObjectNode();
-            out.put("title", tfTitle.getText() == null ? "" : tfTitle.getText());
-            if (tfIdField.getText() != null && !tfIdField.getText().isBlank()) out.put("id", tfIdField.getText());
+            SetlistEntry out = initial != null ? initial : new SetlistEntry();
+            out.setTitle(tfTitle.getText() == null ? "" : tfTitle.getText());
+            out.setId(tfIdField.getText() != null && !tfIdField.getText().isBlank() ? tfIdField.getText() : null);
             return out;
         }
         return null;
@@ -604,9 +678,67 @@ public class EditorController {
         if (w instanceof Stage) ((Stage) w).close();
     }
 
+    /** The form field that edits a text (or comma-separated texts) member, or null if there is none. */
+    private TextInputControl formInput(String member) {
+        return switch (member) {
+            case "cover", "image" -> tfCover; // live keeps its picture in "image"
+            case "duration" -> tfDuration;
+            case "credits" -> tfCredits;
+            case "albums" -> tfAlbums;
+            case "audioFile" -> tfAudioFile;
+            case "service" -> tfService;
+            case "uploader" -> tfUploader;
+            case "video" -> tfVideo;
+            case "musicID" -> tfMusicID;
+            case "artists" -> tfArtists;
+            case "venue" -> tfVenue;
+            default -> null;
+        };
+    }
+
+    /** Variants belong to the imported file; a cover typed or changed by hand drops them. */
+    private void putCoverVariants(CatalogItem node, String field) {
+        String cover = tfCover.getText();
+        if (coverVariants != null && !coverVariants.isEmpty() && cover != null && cover.equals(coverVariantsOf)) {
+            node.set(field, coverVariants.deepCopy());
+        } else {
+            node.remove(field);
+        }
+    }
+
+    /** live keeps its picture in "image", the other kinds in "cover". */
+    private String coverField() {
+        return "live".equals(kind) ? "image" : "cover";
+    }
+
     @FXML
     private void onChooseCover() {
-        showAlert("未実装", "カバー選択は未実装です。URLを直接入力してください。");
+        if (dataService == null) return;
+        FileChooser fc = new FileChooser();
+        fc.setTitle("Choose cover image");
+        fc.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Images", "*.png", "*.jpg", "*.jpeg", "*.gif", "*.webp", "*.svg"),
+                new FileChooser.ExtensionFilter("All files", "*.*"));
+        File file = fc.showOpenDialog(tfCover.getScene().getWindow());
+        if (file == null) return;
+
+        // hashing and rendering the variants can take a moment for large photos
+        Parent root = tfCover.getScene().getRoot();
+        root.setDisable(true);
+        dataService.async().importImage(file).whenCompleteAsync((img, err) -> {
+            root.setDisable(false);
+            if (err != null) {
+                Throwable cause = ListController.unwrap(err);
+                cause.printStackTrace();
+                showAlert("画像の取り込みエラー", cause.getMessage());
+                return;
+            }
+            ArrayNode arr = mapper.createArrayNode();
+            img.variants().forEach((w, src) -> arr.addObject().put("width", w).put("src", src));
+            coverVariants = arr;
+            coverVariantsOf = img.path();
+            tfCover.setText(img.path());
+        }, Platform::runLater);
     }
 
     @FXML
@@ -614,10 +746,23 @@ public class EditorController {
         showAlert("未実装", "オーディオファイル選択は未実装です。ファイルパス/URLを直接入力してください。");
     }
 
-    private static String getText(ObjectNode n, String key) {
-        if (n == null || !n.has(key)) return "";
-        JsonNode node = n.get(key);
-        return node == null || node.isNull() ? "" : node.asText("");
+    private static String getText(CatalogItem n, String key) {
+        return n == null ? "" : n.text(key);
+    }
+
+    /** The object elements of an array that is not held typed (e.g. it also has non-object elements). */
+    private <T extends JsonRecord> List<T> recordsOf(JsonNode arr, Class<T> type) {
+        List<T> out = new ArrayList<>();
+        if (arr == null || !arr.isArray()) return out;
+        for (JsonNode e : arr) {
+            if (!e.isObject()) continue;
+            try {
+                out.add(mapper.treeToValue(e, type));
+            } catch (JsonProcessingException ex) {
+                // cannot happen for an object; skip it like a non-object element
+            }
+        }
+        return out;
     }
 
     private static java.util.List<JsonNode> iterableToList(JsonNode a) {
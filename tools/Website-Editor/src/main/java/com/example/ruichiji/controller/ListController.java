@@ -1,9 +1,22 @@
 package com.example.ruichiji.controller;
 
+import com.example.ruichiji.model.CatalogItem;
+import com.example.ruichiji.model.Items;
+import com.example.ruichiji.service.BulkEdit;
+import com.example.ruichiji.service.CatalogConflictException;
+import com.example.ruichiji.service.CatalogDelta;
+import com.example.ruichiji.service.CatalogSchema;
 import com.example.ruichiji.service.DataService;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import com.example.ruichiji.service.ItemConflict;
+import com.example.ruichiji.service.MusicReference;
+import com.example.ruichiji.service.SearchHit;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.TextNode;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.collections.ListChangeListener;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -12,54 +25,109 @@ import javafx.scene.input.MouseEvent;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.stage.Window;
+import javafx.util.Duration;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * ListController is used by each tab to show a TableView of entries for a given kind.
+ *
+ * The table is backed by a PagedCatalogModel (lazy id/title/date row projections, sorting via
+ * a precomputed index); the full record is fetched by id only when an item is opened.
+ *
+ * The search box filters the table through DataService.search() once typing pauses for
+ * SEARCH_DELAY; the query runs in the background and a newer one supersedes it. Until the
+ * index has been built (see MainController) the box has no effect.
+ *
+ * Several rows can be selected. Delete and the Bulk menu then work on all of them through
+ * DataService.applyBulk: one pass over the catalog, one write per affected kind, one undo
+ * step, with the progress bar (and Cancel, until the first write) shown meanwhile.
  */
 public class ListController {
 
-    @FXML private TableView<ObjectNode> table;
-    @FXML private TableColumn<ObjectNode, String> colId;
-    @FXML private TableColumn<ObjectNode, String> colTitle;
-    @FXML private TableColumn<ObjectNode, String> colDate;
+    private static final Duration SEARCH_DELAY = Duration.millis(200);
+
+    @FXML private TableView<CatalogRow> table;
+    @FXML private TableColumn<CatalogRow, CatalogRow> colId;
+    @FXML private TableColumn<CatalogRow, CatalogRow> colTitle;
+    @FXML private TableColumn<CatalogRow, CatalogRow> colDate;
     @FXML private Button btnNew;
     @FXML private Button btnEdit;
     @FXML private Button btnDelete;
+    @FXML private MenuButton btnBulk;
+    @FXML private MenuItem miAddCredit;
+    @FXML private MenuItem miRemoveCredit;
+    @FXML private MenuItem miReassignAlbum;
     @FXML private Button btnRefresh;
+    @FXML private ProgressBar progress;
+    @FXML private Button btnCancelLoad;
+    @FXML private TextField tfSearch;
 
     private DataService dataService;
     private String kind;
-    private final ObservableList<ObjectNode> items = FXCollections.observableArrayList();
+    private final PagedCatalogModel items = new PagedCatalogModel();
+    private Set<String> reportedDuplicates = Set.of();
+    private CompletableFuture<List<CatalogItem>> pendingLoad;
+    private CompletableFuture<Map<String, Integer>> pendingBulk;
+    private CompletableFuture<List<SearchHit>> pendingSearch;
+    private final PauseTransition searchDelay = new PauseTransition(SEARCH_DELAY);
+    private Consumer<Collection<String>> onCatalogsWritten = kinds -> refreshList();
+
+    private record Loaded(List<CatalogItem> items, Set<String> duplicates) {}
 
     public void setDataService(DataService ds) {
         this.dataService = ds;
+        ds.addChangeListener(delta -> {
+            if (delta.kind().equals(kind)) Platform.runLater(() -> applyDelta(delta));
+        });
     }
 
     public void setKind(String kind) {
         this.kind = kind;
+        // only songs have credits and albums
+        boolean music = "music".equals(kind);
+        miAddCredit.setVisible(music);
+        miRemoveCredit.setVisible(music);
+        miReassignAlbum.setVisible(music);
+    }
+
+    /** Called with the kinds a bulk edit wrote (more than this tab's for Move to album). */
+    public void setOnCatalogsWritten(Consumer<Collection<String>> handler) {
+        this.onCatalogsWritten = handler;
     }
 
     @FXML
     private void initialize() {
-        colId.setCellValueFactory(c -> {
-            var node = c.getValue().get("id");
-            return new javafx.beans.property.SimpleStringProperty(node == null || node.isNull() ? "" : node.asText(""));
-        });
-        colTitle.setCellValueFactory(c -> {
-            var node = c.getValue().get("title");
-            return new javafx.beans.property.SimpleStringProperty(node == null || node.isNull() ? "" : node.asText(""));
-        });
-        colDate.setCellValueFactory(c -> {
-            var node = c.getValue().get("date");
-            return new javafx.beans.property.SimpleStringProperty(node == null || node.isNull() ? "" : node.asText(""));
-        });
+        // the row is its own cell value; each column's cell renders one field of it
+        setupColumn(colId, r -> r.id);
+        setupColumn(colTitle, r -> r.title);
+        setupColumn(colDate, r -> r.date);
 
         table.setItems(items);
+        table.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        table.setSortPolicy(tv -> {
+            preservingSelection(() -> {
+                var col = tv.getSortOrder().isEmpty() ? null : tv.getSortOrder().get(0);
+                String key = col == colId ? "id" : col == colTitle ? "title" : col == colDate ? "date" : null;
+                items.sortBy(key, col != null && col.getSortType() == TableColumn.SortType.DESCENDING);
+            });
+            return true;
+        });
 
         table.setOnMouseClicked((MouseEvent click) -> {
             if (click.getClickCount() == 2) {
@@ -68,25 +136,173 @@ public class ListController {
             }
         });
 
-        updateButtons(null);
-        table.getSelectionModel().selectedItemProperty().addListener(obs -> updateButtons(table.getSelectionModel().getSelectedItem()));
+        searchDelay.setOnFinished(e -> applySearch());
+        tfSearch.textProperty().addListener(obs -> searchDelay.playFromStart());
+
+        updateButtons();
+        table.getSelectionModel().getSelectedIndices().addListener((ListChangeListener<Integer>) c -> updateButtons());
     }
 
+    private static void setupColumn(TableColumn<CatalogRow, CatalogRow> col, Function<CatalogRow, String> field) {
+        col.setCellValueFactory(c -> c.getValue());
+        col.setCellFactory(c -> new TableCell<>() {
+            @Override
+            protected void updateItem(CatalogRow row, boolean empty) {
+                super.updateItem(row, empty);
+                setText(empty || row == null ? null : field.apply(row));
+            }
+        });
+    }
+
+    /** Run a model change and re-select the previously selected ids (they may have moved). */
+    private void preservingSelection(Runnable change) {
+        List<String> sel = selectedIds();
+        change.run();
+        if (sel.isEmpty()) return;
+        int[] rows = new int[sel.size()];
+        int n = 0;
+        for (String id : sel) {
+            int idx = items.indexOfId(id);
+            if (idx >= 0) rows[n++] = idx;
+        }
+        table.getSelectionModel().clearSelection();
+        // one call, so listeners see a single selection change
+        if (n > 0) table.getSelectionModel().selectIndices(rows[0], Arrays.copyOfRange(rows, 1, n));
+    }
+
+    private List<String> selectedIds() {
+        List<String> out = new ArrayList<>();
+        for (CatalogRow r : table.getSelectionModel().getSelectedItems()) if (r != null) out.add(r.id);
+        return out;
+    }
+
+    /**
+     * Reload the table in the background. A load that is still running is cancelled; the
+     * progress bar and Cancel button are shown until the new one completes.
+     */
     public void refreshList() {
         if (dataService == null || kind == null) return;
-        try {
-            List<ObjectNode> list = dataService.readList(kind);
-            items.setAll(list);
-        } catch (IOException e) {
-            e.printStackTrace();
-            showAlert("読み込みエラー", e.getMessage());
+        if (pendingLoad != null) pendingLoad.cancel(false);
+
+        var async = dataService.async();
+        CompletableFuture<List<CatalogItem>> load = async.readItems(kind,
+                p -> Platform.runLater(() -> progress.setProgress(p)));
+        pendingLoad = load;
+        showLoading(true);
+
+        load.thenCompose(list -> async.getDuplicateIds(kind).thenApply(d -> new Loaded(list, d)))
+                .whenCompleteAsync((res, err) -> {
+                    if (load != pendingLoad) return; // superseded by a newer refresh
+                    pendingLoad = null;
+                    showLoading(false);
+                    if (err != null) {
+                        Throwable cause = unwrap(err);
+                        if (cause instanceof CancellationException) return;
+                        cause.printStackTrace();
+                        showAlert("読み込みエラー", cause.getMessage());
+                        return;
+                    }
+                    preservingSelection(() -> items.setSource(res.items()));
+                    applySearch();
+                    reportDuplicates(res.duplicates());
+                }, Platform::runLater);
+    }
+
+    /**
+     * Apply an external change (from DataService's file watcher): only the affected rows are
+     * removed/replaced/inserted, and the selection is kept by id.
+     */
+    private void applyDelta(CatalogDelta delta) {
+        if (pendingLoad != null) return; // the running load already sees the new file
+        preservingSelection(() -> items.applyDelta(delta));
+        applySearch();
+    }
+
+    /** Called once the search index covers this kind, to apply text typed before that. */
+    public void onSearchIndexReady() {
+        applySearch();
+    }
+
+    /** Filter the table by the search box now (a query still running is superseded). */
+    private void applySearch() {
+        if (dataService == null || kind == null) return;
+        searchDelay.stop();
+        if (pendingSearch != null) pendingSearch.cancel(false);
+        pendingSearch = null;
+        String q = tfSearch.getText();
+        if (q == null || q.isBlank() || !dataService.isIndexed(kind)) {
+            preservingSelection(() -> items.filterBy(null));
+            return;
         }
+        CompletableFuture<List<SearchHit>> search = dataService.async().search(q, kind, Integer.MAX_VALUE);
+        pendingSearch = search;
+        search.whenCompleteAsync((hits, err) -> {
+            if (search != pendingSearch) return; // superseded by newer text or a reload
+            pendingSearch = null;
+            if (err != null) {
+                Throwable cause = unwrap(err);
+                if (cause instanceof CancellationException) return;
+                cause.printStackTrace();
+                showAlert("検索エラー", cause.getMessage());
+                return;
+            }
+            Set<String> ids = new HashSet<>();
+            for (SearchHit h : hits) ids.add(h.id());
+            preservingSelection(() -> items.filterBy(ids));
+        }, Platform::runLater);
+    }
+
+    @FXML
+    private void onCancelLoad() {
+        if (pendingLoad != null) pendingLoad.cancel(false);
+        if (pendingBulk != null) pendingBulk.cancel(false);
+    }
+
+    private void showLoading(boolean loading) {
+        progress.setProgress(ProgressIndicator.INDETERMINATE_PROGRESS);
+        progress.setVisible(loading);
+        progress.setManaged(loading);
+        btnCancelLoad.setVisible(loading);
+        btnCancelLoad.setManaged(loading);
+        btnRefresh.setDisable(loading);
+    }
+
+    static Throwable unwrap(Throwable t) {
+        return (t instanceof CompletionException && t.getCause() != null) ? t.getCause() : t;
+    }
+
+    /**
+     * Alert text for a failed save: a conflict with another editor lists the items one by one
+     * (DataService has reloaded them, so the edit can be redone on the new version).
+     */
+    static String messageOf(Throwable cause) {
+        if (!(cause instanceof CatalogConflictException ce)) return cause.getMessage();
+        StringBuilder sb = new StringBuilder("他のエディタが先に保存した変更と競合したため、保存しませんでした。"
+                + "最新の内容を開き直してからやり直してください:");
+        for (ItemConflict c : ce.conflicts()) sb.append('\n').append(c);
+        return sb.toString();
+    }
+
+    /**
+     * Warn once about duplicate ids (only the first entry of each is editable); stays quiet on
+     * later refreshes until the set of duplicates changes.
+     */
+    private void reportDuplicates(Set<String> dups) {
+        if (dups.equals(reportedDuplicates)) return;
+        reportedDuplicates = dups;
+        if (dups.isEmpty()) return;
+        Alert a = new Alert(Alert.AlertType.WARNING,
+                kind + ".json に重複した ID があります。先頭の項目のみ編集されます。\n" + String.join("\n", dups),
+                ButtonType.OK);
+        a.setTitle("重複 ID");
+        a.showAndWait();
     }
 
-    private void updateButtons(ObjectNode sel) {
-        boolean has = sel != null;
-        btnEdit.setDisable(!has);
-        btnDelete.setDisable(!has);
+    private void updateButtons() {
+        int n = table.getSelectionModel().getSelectedIndices().size();
+        btnEdit.setDisable(n != 1);
+        btnDelete.setDisable(n == 0 || pendingBulk != null);
+        btnBulk.setDisable(n == 0 || pendingBulk != null);
     }
 
     @FXML
@@ -98,28 +314,207 @@ public class ListController {
     private void onEdit() {
         var selected = table.getSelectionModel().getSelectedItem();
         if (selected == null) return;
-        openEditorFor(selected, false);
+        dataService.async().getItem(kind, selected.id).whenCompleteAsync((node, err) -> {
+            if (err != null) {
+                Throwable cause = unwrap(err);
+                cause.printStackTrace();
+                showAlert("読み込みエラー", cause.getMessage());
+            } else if (node == null) {
+                showAlert("読み込みエラー", "項目が見つかりません: " + selected.id);
+                refreshList();
+            } else {
+                openEditorFor(node, false);
+            }
+        }, Platform::runLater);
     }
 
     @FXML
     private void onDelete() {
-        var selected = table.getSelectionModel().getSelectedItem();
-        if (selected == null) return;
-        Alert a = new Alert(Alert.AlertType.CONFIRMATION, "選択した項目を削除しますか？", ButtonType.YES, ButtonType.NO);
+        List<String> ids = selectedIds();
+        if (ids.isEmpty()) return;
+        if ("music".equals(kind) && !dataService.isReferenceIndexReady()) {
+            // the index MainController builds at startup may not be done yet; without it the
+            // confirmation would not mention any reference
+            dataService.async().buildReferenceIndex()
+                    .whenCompleteAsync((v, err) -> {
+                        if (err != null) {
+                            showAlert("削除エラー", "参照の確認に失敗したため削除しませんでした: " + messageOf(unwrap(err)));
+                            return;
+                        }
+                        delete(ids);
+                    }, Platform::runLater);
+            return;
+        }
+        delete(ids);
+    }
+
+    /** Confirm and delete; for music, the reference index must be ready. */
+    private void delete(List<String> ids) {
+        if (ids.size() > 1) {
+            onBulkDelete(ids);
+            return;
+        }
+        String id = ids.get(0);
+        String msg = "選択した項目を削除しますか？";
+        if ("music".equals(kind)) {
+            // answered from the reference index, no file is read
+            List<MusicReference> refs = dataService.referencesTo(id);
+            if (!refs.isEmpty()) {
+                StringBuilder sb = new StringBuilder(msg).append("\n\nこの楽曲は次の項目から参照されています:");
+                for (MusicReference r : refs) sb.append('\n').append(MainController.describe(r));
+                msg = sb.toString();
+            }
+        }
+        Alert a = new Alert(Alert.AlertType.CONFIRMATION, msg, ButtonType.YES, ButtonType.NO);
         a.setTitle("削除確認");
         Optional<ButtonType> res = a.showAndWait();
         if (res.isPresent() && res.get() == ButtonType.YES) {
-            try {
-                List<ObjectNode> list = dataService.readList(kind);
-                String id = getText(selected, "id");
-                list.removeIf(n -> getText(n, "id").equals(id));
-                dataService.writeList(kind, list);
-                refreshList();
-            } catch (IOException e) {
-                e.printStackTrace();
-                showAlert("削除エラー", e.getMessage());
+            dataService.async().delete(kind, id)
+                    .whenCompleteAsync((ok, err) -> {
+                        if (err != null) {
+                            Throwable cause = unwrap(err);
+                            cause.printStackTrace();
+                            showAlert("削除エラー", messageOf(cause));
+                            return;
+                        }
+                        refreshList();
+                    }, Platform::runLater);
+        }
+    }
+
+    private void onBulkDelete(List<String> ids) {
+        String msg = "選択した " + ids.size() + " 件を削除しますか？";
+        if ("music".equals(kind)) {
+            int referenced = 0;
+            for (String id : ids) if (!dataService.referencesTo(id).isEmpty()) referenced++;
+            if (referenced > 0) msg += "\n\nうち " + referenced + " 曲は他の項目から参照されています。";
+        }
+        if (confirm("削除確認", msg)) runBulk(BulkEdit.delete(kind, ids), "削除エラー");
+    }
+
+    /** Set (or, left blank, remove) one member of every selected item. */
+    @FXML
+    private void onBulkSetField() {
+        List<String> ids = selectedIds();
+        CatalogSchema schema = CatalogSchema.of(kind);
+        Map<String, CatalogSchema.Member> editable = new LinkedHashMap<>();
+        for (CatalogSchema.Member m : schema.members()) {
+            switch (m.type()) {
+                case TEXT, DATE, TEXTS -> {
+                    if (!m.name().equals("id")) editable.put(m.name(), m);
+                }
+                default -> { }
             }
         }
+        if (editable.isEmpty()) return;
+        ChoiceDialog<String> which = new ChoiceDialog<>(editable.keySet().iterator().next(), editable.keySet());
+        which.setTitle("一括編集");
+        which.setHeaderText(ids.size() + " 件の項目を変更します");
+        which.setContentText("Field:");
+        Optional<String> name = which.showAndWait();
+        if (name.isEmpty()) return;
+        CatalogSchema.Member m = editable.get(name.get());
+        TextInputDialog value = new TextInputDialog();
+        value.setTitle("一括編集");
+        value.setHeaderText(m.type() == CatalogSchema.Type.TEXTS
+                ? name.get() + " (カンマ区切り、空欄で削除)"
+                : name.get() + " (空欄で削除)");
+        value.setContentText("Value:");
+        Optional<String> text = value.showAndWait();
+        if (text.isEmpty()) return;
+        runBulk(BulkEdit.setField(kind, ids, name.get(), fieldValue(m, text.get())), "一括編集エラー");
+    }
+
+    /** The tree for a member typed in as text, like the editor form saves it; null for blank. */
+    private static JsonNode fieldValue(CatalogSchema.Member m, String text) {
+        if (text.isBlank()) return null;
+        if (m.type() != CatalogSchema.Type.TEXTS) return TextNode.valueOf(text);
+        ArrayNode arr = JsonNodeFactory.instance.arrayNode();
+        for (String part : text.split(",")) {
+            String t = part.trim();
+            if (!t.isEmpty()) arr.add(t);
+        }
+        return arr.isEmpty() ? null : arr;
+    }
+
+    @FXML
+    private void onBulkAddCredit() {
+        List<String> ids = selectedIds();
+        askText("クレジット追加", ids.size() + " 曲に追加するクレジット (例: Music: Ruichiji)")
+                .ifPresent(credit -> runBulk(BulkEdit.addCredit(kind, ids, credit), "一括編集エラー"));
+    }
+
+    @FXML
+    private void onBulkRemoveCredit() {
+        List<String> ids = selectedIds();
+        askText("クレジット削除", ids.size() + " 曲から削除するクレジット")
+                .ifPresent(credit -> runBulk(BulkEdit.removeCredit(kind, ids, credit), "一括編集エラー"));
+    }
+
+    /** Move the selected songs to one album of discography (tracks and the songs' albums). */
+    @FXML
+    private void onBulkReassignAlbum() {
+        List<String> ids = selectedIds();
+        dataService.async().readItems("discography").whenCompleteAsync((albums, err) -> {
+            if (err != null) {
+                Throwable cause = unwrap(err);
+                cause.printStackTrace();
+                showAlert("読み込みエラー", cause.getMessage());
+                return;
+            }
+            if (albums.isEmpty()) {
+                showAlert("アルバム変更", "discography にアルバムがありません。");
+                return;
+            }
+            Map<String, CatalogItem> byLabel = new LinkedHashMap<>();
+            for (CatalogItem a : albums) byLabel.putIfAbsent(a.text("title") + " [" + Items.idOf(a) + "]", a);
+            ChoiceDialog<String> d = new ChoiceDialog<>(byLabel.keySet().iterator().next(), byLabel.keySet());
+            d.setTitle("アルバム変更");
+            d.setHeaderText(ids.size() + " 曲を移動するアルバム");
+            d.setContentText("Album:");
+            d.showAndWait().ifPresent(label -> {
+                CatalogItem album = byLabel.get(label);
+                runBulk(BulkEdit.reassignAlbum(ids, Items.idOf(album), album.text("title")), "アルバム変更エラー");
+            });
+        }, Platform::runLater);
+    }
+
+    private Optional<String> askText(String title, String header) {
+        TextInputDialog d = new TextInputDialog();
+        d.setTitle(title);
+        d.setHeaderText(header);
+        d.setContentText("Credit:");
+        return d.showAndWait().map(String::trim).filter(s -> !s.isEmpty());
+    }
+
+    /** Apply a bulk edit in the background with progress; refreshes the written kinds afterwards. */
+    private void runBulk(BulkEdit edit, String errorTitle) {
+        if (pendingBulk != null) return;
+        CompletableFuture<Map<String, Integer>> run = dataService.async().applyBulk(edit,
+                p -> Platform.runLater(() -> progress.setProgress(p)));
+        pendingBulk = run;
+        showLoading(true);
+        updateButtons();
+        run.whenCompleteAsync((changed, err) -> {
+            pendingBulk = null;
+            showLoading(false);
+            updateButtons();
+            if (err != null) {
+                Throwable cause = unwrap(err);
+                if (cause instanceof CancellationException) return;
+                cause.printStackTrace();
+                showAlert(errorTitle, messageOf(cause));
+                if (cause instanceof CatalogConflictException) refreshList();
+                return;
+            }
+            if (!changed.isEmpty()) onCatalogsWritten.accept(changed.keySet());
+        }, Platform::runLater);
+    }
+
+    private static boolean confirm(String title, String msg) {
+        Alert a = new Alert(Alert.AlertType.CONFIRMATION, msg, ButtonType.YES, ButtonType.NO);
+        a.setTitle(title);
+        return a.showAndWait().filter(b -> b == ButtonType.YES).isPresent();
     }
 
     // <-- 追加: FXML の btnRefresh が onAction="#onRefresh" を指しているためハンドラを実装
@@ -129,7 +524,7 @@ public class ListController {
     }
     // -->
 
-    private void openEditorFor(ObjectNode node, boolean isNew) {
+    private void openEditorFor(CatalogItem node, boolean isNew) {
         if (dataService == null || kind == null) {
             showAlert("設定エラー", "DataService または kind が設定されていません。");
             return;
@@ -159,11 +554,6 @@ public class ListController {
         }
     }
 
-    private static String getText(ObjectNode n, String key) {
-        var node = n == null ? null : n.get(key);
-        return (node != null && !node.isNull()) ? node.asText("") : "";
-    }
-
     private void showAlert(String title, String msg) {
         Alert a = new Alert(Alert.AlertType.ERROR, msg, ButtonType.OK);
         a.setTitle(title);
@@ -1,24 +1,42 @@
 package com.example.ruichiji.controller;
 
 import com.example.ruichiji.service.DataService;
+import com.example.ruichiji.service.EditHistory;
+import com.example.ruichiji.service.MusicReference;
+import com.example.ruichiji.service.ReferenceReport;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
+import javafx.scene.control.Alert;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.Menu;
+import javafx.scene.control.MenuItem;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * MainController: holds 5 tabs and loads a ListView into each, injecting DataService and kind.
  * No folder chooser: DataService will use working directory.
+ *
+ * The Edit menu undoes and redoes saves and deletes of every tab (see EditHistory); the
+ * history keeps at most -Druichiji.historyBytes (default 8 MiB) of patches.
  */
 public class MainController {
+    private static final long HISTORY_BYTES = Long.getLong("ruichiji.historyBytes", 8L * 1024 * 1024);
 
     @FXML private TabPane tabPane;
+    @FXML private Menu editMenu;
+    @FXML private MenuItem miUndo;
+    @FXML private MenuItem miRedo;
 
     private DataService dataService;
     private final Map<String, ListController> controllers = new HashMap<>();
@@ -30,6 +48,20 @@ public class MainController {
         } catch (IOException e) {
             throw new RuntimeException("Failed to initialize DataService", e);
         }
+        dataService.history().setLimit(HISTORY_BYTES);
+        // labels and enabled state are only accurate while the menu is open; the items stay
+        // enabled otherwise so the shortcuts keep working (an empty history does nothing)
+        editMenu.setOnShowing(e -> updateEditMenu());
+        editMenu.setOnHidden(e -> {
+            miUndo.setDisable(false);
+            miRedo.setDisable(false);
+        });
+        try {
+            // pick up git pull / scripted edits while the editor is open
+            dataService.startWatching();
+        } catch (IOException e) {
+            e.printStackTrace(); // manual Refresh still works
+        }
 
         // kinds and tab titles
         // NOTE: use keys that match the JSON filenames under assets/data (e.g. "movies" -> movies.json)
@@ -52,6 +84,7 @@ public class MainController {
                 ListController lc = loader.getController();
                 lc.setDataService(dataService);
                 lc.setKind(kind);
+                lc.setOnCatalogsWritten(this::refreshKinds);
                 lc.refreshList();
                 controllers.put(kind, lc);
                 tab.setContent(content);
@@ -60,6 +93,99 @@ public class MainController {
                 ex.printStackTrace();
             }
         }
+
+        // full-text index for the search boxes; built in the background, kept current by DataService
+        dataService.async().buildSearchIndex(List.copyOf(controllers.keySet()))
+                .whenCompleteAsync((v, err) -> {
+                    if (err != null) {
+                        ListController.unwrap(err).printStackTrace();
+                        return;
+                    }
+                    controllers.values().forEach(ListController::onSearchIndexReady);
+                }, Platform::runLater);
+
+        // music id links, so deletes can warn about referencing items; problems found at startup are reported once
+        dataService.async().buildReferenceIndex()
+                .thenCompose(v -> dataService.async().checkReferences())
+                .whenCompleteAsync((report, err) -> {
+                    if (err != null) {
+                        ListController.unwrap(err).printStackTrace();
+                    } else if (!report.isClean()) {
+                        reportReferenceProblems(report);
+                    }
+                }, Platform::runLater);
+    }
+
+    private void reportReferenceProblems(ReferenceReport report) {
+        StringBuilder sb = new StringBuilder();
+        for (MusicReference r : report.dangling()) {
+            sb.append("存在しない楽曲: ").append(describe(r)).append('\n');
+        }
+        for (MusicReference r : report.duplicates()) {
+            sb.append("重複した参照: ").append(describe(r)).append('\n');
+        }
+        Alert a = new Alert(Alert.AlertType.WARNING, sb.toString().trim(), ButtonType.OK);
+        a.setTitle("参照チェック");
+        a.setHeaderText("楽曲 ID の参照に問題があります");
+        a.show();
+    }
+
+    private void updateEditMenu() {
+        EditHistory h = dataService.history();
+        EditHistory.Step u = h.nextUndo(), r = h.nextRedo();
+        miUndo.setText(u == null ? "Undo" : "Undo " + u.label());
+        miUndo.setDisable(u == null);
+        miRedo.setText(r == null ? "Redo" : "Redo " + r.label());
+        miRedo.setDisable(r == null);
+    }
+
+    @FXML
+    private void onUndo() {
+        runHistory(dataService.async().undo(), "元に戻せません");
+    }
+
+    @FXML
+    private void onRedo() {
+        runHistory(dataService.async().redo(), "やり直せません");
+    }
+
+    /** Refresh the tabs of the kinds the step touched once it has been applied. */
+    private void runHistory(CompletableFuture<EditHistory.Step> f, String errorTitle) {
+        f.whenCompleteAsync((step, err) -> {
+            if (err != null) {
+                Throwable cause = ListController.unwrap(err);
+                cause.printStackTrace();
+                Alert a = new Alert(Alert.AlertType.ERROR, cause.getMessage(), ButtonType.OK);
+                a.setTitle(errorTitle);
+                a.showAndWait();
+                return;
+            }
+            if (step != null) refreshKinds(step.kinds());
+        }, Platform::runLater);
+    }
+
+    private void refreshKinds(Collection<String> kinds) {
+        for (String kind : kinds) {
+            ListController lc = controllers.get(kind);
+            if (lc != null) lc.refreshList();
+        }
+    }
+
+    static String describe(MusicReference r) {
+        return r.kind() + "/" + r.id() + " " + r.field() + " -> " + r.musicId();
+    }
+
+    /**
+     * Called from MainApp.stop(): folds pending journal edits into the JSON files. The per-page
+     * bundles are not refreshed here; that is `CliMain export`.
+     */
+    public void shutdown() {
+        if (dataService == null) return;
+        try {
+            dataService.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
     }
 
     // Optional: expose a method to refresh all lists
@@ -0,0 +1,239 @@
+package com.example.ruichiji.controller;
+
+import com.example.ruichiji.model.CatalogItem;
+import com.example.ruichiji.service.CatalogDelta;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableListBase;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Windowed list model behind the ListController table.
+ *
+ * The table only asks for the rows it is about to show, so rows are projected to CatalogRow
+ * lazily, one page (PAGE_SIZE rows) at a time, plus the neighbouring page when a request is
+ * within PREFETCH rows of a page edge. At most MAX_PAGES pages are kept (LRU).
+ *
+ * Only the rows are deferred, not the catalog: the source is the whole list from
+ * DataService.readItems, parsed once per change of the file into DataService's cache (which
+ * search, the reference index and editing use as well) and handed over as a shallow copy.
+ *
+ * Sorting never reorders the source: a permutation (view index -> source index) is computed
+ * once per column from that column's keys and reused for both directions until the source
+ * changes.
+ *
+ * A search filter (set of ids) is applied on top of the sort order, so narrowing the list
+ * while typing costs one pass over cached ids, not a re-projection of the rows.
+ *
+ * indexOfId answers from an id -> view index map built on the first lookup after a change, so
+ * re-selecting k rows after a change costs one pass, not k.
+ */
+final class PagedCatalogModel extends ObservableListBase<CatalogRow> {
+    static final int PAGE_SIZE = 256;
+    private static final int PREFETCH = 32;
+    private static final int MAX_PAGES = 64;
+
+    private List<CatalogItem> source = List.of();
+    private int[] order;              // null = file order
+    private String sortKey;           // null = file order
+    private boolean descending;
+    private Set<String> filter;       // null = all rows
+    private String[] ids;             // id per source index, built on first filter or lookup
+    private Map<String, Integer> viewIndexById;   // built on first indexOfId after a change
+    private final Map<String, int[]> ascendingByKey = new HashMap<>();
+    private final LinkedHashMap<Integer, CatalogRow[]> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, CatalogRow[]> eldest) {
+            return size() > MAX_PAGES;
+        }
+    };
+
+    @Override
+    public int size() {
+        return order != null ? order.length : source.size();
+    }
+
+    @Override
+    public CatalogRow get(int index) {
+        Objects.checkIndex(index, size());
+        int p = index / PAGE_SIZE;
+        int off = index % PAGE_SIZE;
+        CatalogRow[] page = page(p);
+        if (off >= PAGE_SIZE - PREFETCH && (p + 1) * PAGE_SIZE < size()) page(p + 1);
+        else if (off < PREFETCH && p > 0) page(p - 1);
+        return page[off];
+    }
+
+    private CatalogRow[] page(int p) {
+        CatalogRow[] page = pages.get(p);
+        if (page != null) return page;
+        int from = p * PAGE_SIZE;
+        int to = Math.min(size(), from + PAGE_SIZE);
+        page = new CatalogRow[to - from];
+        for (int i = from; i < to; i++) page[i - from] = CatalogRow.of(source.get(sourceIndex(i)));
+        pages.put(p, page);
+        return page;
+    }
+
+    private int sourceIndex(int viewIndex) {
+        return order == null ? viewIndex : order[viewIndex];
+    }
+
+    /** Replace all rows (e.g. after a reload). */
+    void setSource(List<CatalogItem> items) {
+        replaceAll(() -> source = items);
+    }
+
+    /**
+     * Apply an external change: drop removed ids, swap changed items in place and put added
+     * items on top (as in the file), then fire one change.
+     */
+    void applyDelta(CatalogDelta delta) {
+        Set<String> removed = new HashSet<>(delta.removed());
+        Map<String, CatalogItem> changed = new HashMap<>();
+        for (CatalogItem n : delta.changed()) changed.put(CatalogRow.text(n, "id"), n);
+        List<CatalogItem> next = new ArrayList<>(source.size() + delta.added().size());
+        next.addAll(delta.added());
+        for (CatalogItem n : source) {
+            String id = CatalogRow.text(n, "id");
+            if (removed.contains(id)) continue;
+            next.add(changed.getOrDefault(id, n));
+        }
+        setSource(next);
+    }
+
+    /** Sort by "id", "title" or "date"; null restores file order. */
+    void sortBy(String key, boolean descending) {
+        replaceAll(() -> {
+            this.sortKey = key;
+            this.descending = descending;
+        });
+    }
+
+    /** Show only rows whose id is in the set; null shows every row. */
+    void filterBy(Set<String> ids) {
+        replaceAll(() -> this.filter = ids);
+    }
+
+    /** View index of the first row with this id, or -1. */
+    int indexOfId(String id) {
+        if (id == null) return -1;
+        if (viewIndexById == null) {
+            String[] all = ids();
+            int n = size();
+            viewIndexById = new HashMap<>(n * 2);
+            for (int i = 0; i < n; i++) viewIndexById.putIfAbsent(all[sourceIndex(i)], i);
+        }
+        return viewIndexById.getOrDefault(id, -1);
+    }
+
+    private String[] ids() {
+        if (ids == null) {
+            ids = new String[source.size()];
+            for (int i = 0; i < ids.length; i++) ids[i] = CatalogRow.text(source.get(i), "id");
+        }
+        return ids;
+    }
+
+    private void replaceAll(Runnable mutation) {
+        List<CatalogRow> before = frozenView();
+        List<CatalogItem> oldSource = source;
+        mutation.run();
+        if (source != oldSource) {
+            ascendingByKey.clear();
+            ids = null;
+        }
+        pages.clear();
+        viewIndexById = null;
+        order = computeOrder();
+        if (before.isEmpty() && size() == 0) return;
+        // fired directly: ObservableListBase.nextReplace would walk (and so project) every
+        // removed row; this change hands out the lazy view instead
+        fireChange(new ReplaceAllChange(before));
+    }
+
+    private int[] computeOrder() {
+        int[] sorted = sortedOrder();
+        if (filter == null) return sorted;
+        String[] all = ids();
+        int n = source.size();
+        int[] out = new int[n];
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            int src = sorted == null ? i : sorted[i];
+            if (filter.contains(all[src])) out[k++] = src;
+        }
+        return Arrays.copyOf(out, k);
+    }
+
+    private int[] sortedOrder() {
+        if (sortKey == null) return null;
+        int[] asc = ascendingByKey.computeIfAbsent(sortKey, this::sortIndex);
+        if (!descending) return asc;
+        int[] desc = new int[asc.length];
+        for (int i = 0; i < asc.length; i++) desc[i] = asc[asc.length - 1 - i];
+        return desc;
+    }
+
+    private int[] sortIndex(String key) {
+        int n = source.size();
+        String[] keys = new String[n];
+        Integer[] idx = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = CatalogRow.text(source.get(i), key);
+            idx[i] = i;
+        }
+        Arrays.sort(idx, (a, b) -> keys[a].compareTo(keys[b]));
+        int[] out = new int[n];
+        for (int i = 0; i < n; i++) out[i] = idx[i];
+        return out;
+    }
+
+    /** One sub-change: every row was replaced. */
+    private final class ReplaceAllChange extends ListChangeListener.Change<CatalogRow> {
+        private final List<CatalogRow> removed;
+        private boolean atStart = true;
+
+        ReplaceAllChange(List<CatalogRow> removed) {
+            super(PagedCatalogModel.this);
+            this.removed = removed;
+        }
+
+        @Override public boolean next() {
+            if (!atStart) return false;
+            atStart = false;
+            return true;
+        }
+
+        @Override public void reset() { atStart = true; }
+        @Override public int getFrom() { checkState(); return 0; }
+        @Override public int getTo() { checkState(); return size(); }
+        @Override public List<CatalogRow> getRemoved() { checkState(); return removed; }
+        @Override public int getRemovedSize() { checkState(); return removed.size(); }
+        @Override protected int[] getPermutation() { checkState(); return new int[0]; }
+
+        private void checkState() {
+            if (atStart) throw new IllegalStateException("Invalid Change state: next() must be called before inspecting the Change.");
+        }
+    }
+
+    /** The current rows as a lazily projected list that is unaffected by later changes. */
+    private List<CatalogRow> frozenView() {
+        List<CatalogItem> src = source;
+        int[] ord = order;
+        int size = size();
+        return new AbstractList<>() {
+            @Override public CatalogRow get(int i) { return CatalogRow.of(src.get(ord == null ? i : ord[i])); }
+            @Override public int size() { return size; }
+        };
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.ruichiji.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
+
+/** discography.json: a release and its track list. */
+public final class Album extends CatalogItem {
+    static final Fields<Album> FIELDS = new Fields<>(Album.class, Album::new,
+            Field.text("id", Album::getId, Album::setId),
+            Field.text("title", Album::getTitle, Album::setTitle),
+            Field.text("date", Album::getDate, Album::setDate),
+            Field.text("description", Album::getDescription, Album::setDescription),
+            Field.text("cover", Album::getCover, Album::setCover),
+            Field.any("coverVariants", Album::getCoverVariants, Album::setCoverVariants),
+            Field.texts("artists", Album::getArtists, Album::setArtists),
+            Field.records("tracks", Track::new, Album::getTracks, Album::setTracks));
+
+    private String description;
+    private String cover;
+    private JsonNode coverVariants;
+    private List<String> artists;
+    private List<Track> tracks;
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; dropExtra("description"); }
+
+    public String getCover() { return cover; }
+    public void setCover(String cover) { this.cover = cover; dropExtra("cover"); }
+
+    /** [{ "width": 320, "src": "..." }, ...] as written by the image import. */
+    public JsonNode getCoverVariants() { return coverVariants; }
+    public void setCoverVariants(JsonNode coverVariants) { this.coverVariants = coverVariants; dropExtra("coverVariants"); }
+
+    /** Unmodifiable. */
+    public List<String> getArtists() { return artists; }
+    public void setArtists(List<String> artists) { this.artists = artists == null ? null : List.copyOf(artists); dropExtra("artists"); }
+
+    /**
+     * Unmodifiable list; null also when the file holds tracks in another shape (e.g. plain
+     * ids), which are then only reachable through get("tracks").
+     */
+    public List<Track> getTracks() { return tracks; }
+    public void setTracks(List<Track> tracks) { this.tracks = tracks == null ? null : List.copyOf(tracks); dropExtra("tracks"); }
+
+    @Override
+    Fields<?> fields() { return FIELDS; }
+
+    @Override
+    public Album copy() { return (Album) super.copy(); }
+}
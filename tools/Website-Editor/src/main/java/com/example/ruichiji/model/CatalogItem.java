@@ -0,0 +1,42 @@
+package com.example.ruichiji.model;
+
+/**
+ * An item of one of the catalogs under assets/data. Every kind has an id, a title and a
+ * date (yyyy-MM-dd by convention, not enforced); see Items for the class of each kind.
+ *
+ * A copy() remembers the version (see Items.version) of the item it was copied from, so
+ * DataService can tell, when the copy is saved, whether another editor changed the stored
+ * item in the meantime.
+ */
+public abstract class CatalogItem extends JsonRecord {
+    private String id;
+    private String title;
+    private String date;
+    private String baseVersion;   // not a member; see baseVersion()
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; dropExtra("id"); }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; dropExtra("title"); }
+
+    public String getDate() { return date; }
+    public void setDate(String date) { this.date = date; dropExtra("date"); }
+
+    /**
+     * The version of the stored item this record is a copy of; Items.NEW for an item made with
+     * Items.create (and its copies); null for a record that is not a copy (a stored item, or
+     * one read from a file or tree).
+     */
+    public String baseVersion() { return baseVersion; }
+
+    /** DataService clears it when the record becomes the stored item. */
+    public void setBaseVersion(String baseVersion) { this.baseVersion = baseVersion; }
+
+    @Override
+    public CatalogItem copy() {
+        CatalogItem c = (CatalogItem) super.copy();
+        c.baseVersion = baseVersion != null ? baseVersion : Items.version(this);
+        return c;
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.ruichiji.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.JsonEOFException;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Reads, writes and copies the value of one typed member.
+ *
+ * A value that does not have the member's JSON shape (a number where text is expected, an
+ * array with a non-text element, null, ...) is handed back as {@link Unfit} and kept by the
+ * record as an untyped member, so nothing is lost or coerced.
+ */
+abstract class Codec<V> {
+
+    /** A value that does not fit the member's type, as read. */
+    record Unfit(JsonNode node) {}
+
+    /** p is on the first token of the value; consumes the whole value. Returns a V or an Unfit. */
+    abstract Object read(JsonParser p, DeserializationContext ctxt) throws IOException;
+
+    abstract void write(V value, JsonGenerator g, SerializerProvider sp) throws IOException;
+
+    abstract JsonNode toTree(V value, JsonNodeFactory f);
+
+    /** The value for a tree, or null if the tree does not fit. */
+    abstract V fromTree(JsonNode n);
+
+    /** A copy that can be changed without affecting value (immutable values are shared). */
+    V copy(V value) {
+        return value;
+    }
+
+    static final Codec<String> TEXT = new Codec<>() {
+        @Override
+        Object read(JsonParser p, DeserializationContext ctxt) throws IOException {
+            return p.currentToken() == JsonToken.VALUE_STRING ? StringTable.text(p, ctxt) : new Unfit(ctxt.readTree(p));
+        }
+
+        @Override
+        void write(String value, JsonGenerator g, SerializerProvider sp) throws IOException {
+            g.writeString(value);
+        }
+
+        @Override
+        JsonNode toTree(String value, JsonNodeFactory f) {
+            return f.textNode(value);
+        }
+
+        @Override
+        String fromTree(JsonNode n) {
+            return n.isTextual() ? n.textValue() : null;
+        }
+    };
+
+    /** Array of strings, held as an unmodifiable List. */
+    static final Codec<List<String>> TEXTS = new Codec<>() {
+        @Override
+        Object read(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.currentToken() != JsonToken.START_ARRAY) return new Unfit(ctxt.readTree(p));
+            List<String> out = new ArrayList<>();
+            JsonToken t;
+            while ((t = p.nextToken()) == JsonToken.VALUE_STRING) out.add(StringTable.text(p, ctxt));
+            if (t == JsonToken.END_ARRAY) return List.copyOf(out);
+            ArrayNode arr = ctxt.getNodeFactory().arrayNode();
+            for (String s : out) arr.add(s);
+            return new Unfit(readRest(arr, p, ctxt));
+        }
+
+        @Override
+        void write(List<String> value, JsonGenerator g, SerializerProvider sp) throws IOException {
+            g.writeStartArray(value, value.size());
+            for (String s : value) g.writeString(s);
+            g.writeEndArray();
+        }
+
+        @Override
+        JsonNode toTree(List<String> value, JsonNodeFactory f) {
+            ArrayNode arr = f.arrayNode(value.size());
+            for (String s : value) arr.add(s);
+            return arr;
+        }
+
+        @Override
+        List<String> fromTree(JsonNode n) {
+            if (!n.isArray()) return null;
+            List<String> out = new ArrayList<>(n.size());
+            for (JsonNode e : n) {
+                if (!e.isTextual()) return null;
+                out.add(e.textValue());
+            }
+            return List.copyOf(out);
+        }
+    };
+
+    /** Any JSON value, kept as a tree (e.g. a track number that may be 3 or "Ex"). */
+    static final Codec<JsonNode> ANY = new Codec<>() {
+        @Override
+        Object read(JsonParser p, DeserializationContext ctxt) throws IOException {
+            JsonNode n = ctxt.readTree(p);
+            return n.isNull() ? new Unfit(n) : n;
+        }
+
+        @Override
+        void write(JsonNode value, JsonGenerator g, SerializerProvider sp) throws IOException {
+            ((JsonSerializable) value).serialize(g, sp);
+        }
+
+        @Override
+        JsonNode toTree(JsonNode value, JsonNodeFactory f) {
+            return value.deepCopy();
+        }
+
+        @Override
+        JsonNode fromTree(JsonNode n) {
+            return n.isNull() || n.isMissingNode() ? null : n;
+        }
+
+        @Override
+        JsonNode copy(JsonNode value) {
+            return value.deepCopy();
+        }
+    };
+
+    /** Array of nested records (discography tracks, live setlist), held as an unmodifiable List. */
+    static <R extends JsonRecord> Codec<List<R>> records(Supplier<R> factory) {
+        return new Codec<>() {
+            @Override
+            Object read(JsonParser p, DeserializationContext ctxt) throws IOException {
+                if (p.currentToken() != JsonToken.START_ARRAY) return new Unfit(ctxt.readTree(p));
+                List<R> out = new ArrayList<>();
+                JsonToken t;
+                while ((t = p.nextToken()) == JsonToken.START_OBJECT) {
+                    R r = factory.get();
+                    r.read(p, ctxt);
+                    out.add(r);
+                }
+                if (t == JsonToken.END_ARRAY) return List.copyOf(out);
+                ArrayNode arr = ctxt.getNodeFactory().arrayNode();
+                for (R r : out) arr.add(r.toTree(ctxt.getNodeFactory()));
+                return new Unfit(readRest(arr, p, ctxt));
+            }
+
+            @Override
+            void write(List<R> value, JsonGenerator g, SerializerProvider sp) throws IOException {
+                g.writeStartArray(value, value.size());
+                for (R r : value) r.write(g, sp);
+                g.writeEndArray();
+            }
+
+            @Override
+            JsonNode toTree(List<R> value, JsonNodeFactory f) {
+                ArrayNode arr = f.arrayNode(value.size());
+                for (R r : value) arr.add(r.toTree(f));
+                return arr;
+            }
+
+            @Override
+            List<R> fromTree(JsonNode n) {
+                if (!n.isArray()) return null;
+                List<R> out = new ArrayList<>(n.size());
+                for (JsonNode e : n) {
+                    if (!e.isObject()) return null;
+                    R r = factory.get();
+                    r.load((ObjectNode) e);
+                    out.add(r);
+                }
+                return List.copyOf(out);
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            List<R> copy(List<R> value) {
+                List<R> out = new ArrayList<>(value.size());
+                for (R r : value) out.add((R) r.copy());
+                return List.copyOf(out);
+            }
+        };
+    }
+
+    /** p is on the first element that did not fit; reads it and the rest of the array into arr. */
+    private static ArrayNode readRest(ArrayNode arr, JsonParser p, DeserializationContext ctxt) throws IOException {
+        for (JsonToken t = p.currentToken(); t != JsonToken.END_ARRAY; t = p.nextToken()) {
+            if (t == null) throw new JsonEOFException(p, null, "unexpected end of array");
+            arr.add(ctxt.readTree(p));
+        }
+        return arr;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.ruichiji.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * One typed member of a record: its JSON name, its codec and the Java field behind it.
+ * A null field value means the member is absent (or kept untyped, see JsonRecord).
+ */
+final class Field<R extends JsonRecord, V> {
+    final String name;
+    final Codec<V> codec;
+    private final Function<? super R, V> getter;
+    private final BiConsumer<? super R, V> setter;
+
+    private Field(String name, Codec<V> codec, Function<? super R, V> getter, BiConsumer<? super R, V> setter) {
+        this.name = name;
+        this.codec = codec;
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    static <R extends JsonRecord> Field<R, String> text(String name, Function<? super R, String> get, BiConsumer<? super R, String> set) {
+        return new Field<>(name, Codec.TEXT, get, set);
+    }
+
+    static <R extends JsonRecord> Field<R, List<String>> texts(String name, Function<? super R, List<String>> get, BiConsumer<? super R, List<String>> set) {
+        return new Field<>(name, Codec.TEXTS, get, set);
+    }
+
+    static <R extends JsonRecord> Field<R, JsonNode> any(String name, Function<? super R, JsonNode> get, BiConsumer<? super R, JsonNode> set) {
+        return new Field<>(name, Codec.ANY, get, set);
+    }
+
+    static <R extends JsonRecord, E extends JsonRecord> Field<R, List<E>> records(String name, Supplier<E> factory,
+            Function<? super R, List<E>> get, BiConsumer<? super R, List<E>> set) {
+        return new Field<>(name, Codec.records(factory), get, set);
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(JsonRecord r) {
+        return getter.apply((R) r);
+    }
+
+    /** v is a V (as returned by the codec) or null. */
+    @SuppressWarnings("unchecked")
+    void set(JsonRecord r, Object v) {
+        setter.accept((R) r, (V) v);
+    }
+
+    /** Sets the field from a tree; false (and nothing changed) if the tree does not fit. */
+    boolean setFromTree(JsonRecord r, JsonNode n) {
+        V v = codec.fromTree(n);
+        if (v == null) return false;
+        set(r, v);
+        return true;
+    }
+
+    void writeValue(JsonRecord r, JsonGenerator g, SerializerProvider sp) throws IOException {
+        codec.write(get(r), g, sp);
+    }
+
+    JsonNode toTree(JsonRecord r, JsonNodeFactory f) {
+        V v = get(r);
+        return v == null ? null : codec.toTree(v, f);
+    }
+
+    void copy(JsonRecord from, JsonRecord to) {
+        V v = get(from);
+        if (v != null) set(to, codec.copy(v));
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.ruichiji.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * The typed members of one record class, in the order new members are written.
+ *
+ * Also interns member orders ("layouts"): items of a catalog are nearly always written in
+ * one or two orders, so every record read from a file points at a shared list instead of
+ * carrying its own. At most MAX_LAYOUTS distinct orders are shared; beyond that each record
+ * keeps a private copy.
+ */
+final class Fields<R extends JsonRecord> {
+    private static final int MAX_LAYOUTS = 1024;
+    private static final Map<List<String>, List<String>> LAYOUTS = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, Fields<?>> BY_TYPE = new ConcurrentHashMap<>();
+
+    final Supplier<R> factory;
+    final List<Field<R, ?>> list;
+    private final Map<String, Field<R, ?>> byName = new HashMap<>();
+    private volatile List<String> lastLayout;
+
+    @SafeVarargs
+    Fields(Class<R> type, Supplier<R> factory, Field<R, ?>... fields) {
+        this.factory = factory;
+        // copied element by element: handing the varargs array on is what -Xlint:varargs flags
+        List<Field<R, ?>> all = new ArrayList<>(fields.length);
+        for (Field<R, ?> f : fields) {
+            all.add(f);
+            byName.put(f.name, f);
+        }
+        this.list = List.copyOf(all);
+        BY_TYPE.put(type, this);
+    }
+
+    Field<R, ?> get(String name) {
+        return byName.get(name);
+    }
+
+    /** The shared list equal to names (which the caller may reuse afterwards). */
+    List<String> layout(List<String> names) {
+        List<String> last = lastLayout;
+        if (names.equals(last)) return last;
+        List<String> l = LAYOUTS.get(names);
+        if (l == null) {
+            l = List.copyOf(names);
+            if (LAYOUTS.size() < MAX_LAYOUTS) {
+                List<String> prev = LAYOUTS.putIfAbsent(l, l);
+                if (prev != null) l = prev;
+            }
+        }
+        lastLayout = l;
+        return l;
+    }
+
+    /** The members of a concrete record class, or null if type is not one. */
+    static Fields<?> of(Class<?> type) {
+        Fields<?> f = BY_TYPE.get(type);
+        if (f != null || !JsonRecord.class.isAssignableFrom(type)) return f;
+        try {
+            // the table is registered by the class's static initializer
+            Class.forName(type.getName(), true, type.getClassLoader());
+        } catch (ClassNotFoundException ex) {
+            return null;
+        }
+        return BY_TYPE.get(type);
+    }
+}
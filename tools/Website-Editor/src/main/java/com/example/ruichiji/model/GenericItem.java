@@ -0,0 +1,15 @@
+package com.example.ruichiji.model;
+
+/** Item of a catalog without a dedicated class: id, title and date typed, the rest kept as is. */
+public final class GenericItem extends CatalogItem {
+    static final Fields<GenericItem> FIELDS = new Fields<>(GenericItem.class, GenericItem::new,
+            Field.text("id", GenericItem::getId, GenericItem::setId),
+            Field.text("title", GenericItem::getTitle, GenericItem::setTitle),
+            Field.text("date", GenericItem::getDate, GenericItem::setDate));
+
+    @Override
+    Fields<?> fields() { return FIELDS; }
+
+    @Override
+    public GenericItem copy() { return (GenericItem) super.copy(); }
+}
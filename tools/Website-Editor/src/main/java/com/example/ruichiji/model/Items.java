@@ -0,0 +1,106 @@
+package com.example.ruichiji.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * The record class of each catalog kind:
+ *   topics -> Topic, music -> Music, movies -> Movie, discography -> Album, live -> LiveEvent;
+ * any other kind -> GenericItem.
+ */
+public final class Items {
+
+    /** baseVersion() of new items: based on nothing stored. */
+    public static final String NEW = "";
+
+    private Items() {}
+
+    public static Class<? extends CatalogItem> typeOf(String kind) {
+        return switch (kind) {
+            case "topics" -> Topic.class;
+            case "music" -> Music.class;
+            case "movies" -> Movie.class;
+            case "discography" -> Album.class;
+            case "live" -> LiveEvent.class;
+            default -> GenericItem.class;
+        };
+    }
+
+    /** A new, empty item of the kind (baseVersion NEW). */
+    public static CatalogItem create(String kind) {
+        CatalogItem item = empty(kind);
+        item.setBaseVersion(NEW);
+        return item;
+    }
+
+    private static CatalogItem empty(String kind) {
+        return switch (kind) {
+            case "topics" -> new Topic();
+            case "music" -> new Music();
+            case "movies" -> new Movie();
+            case "discography" -> new Album();
+            case "live" -> new LiveEvent();
+            default -> new GenericItem();
+        };
+    }
+
+    /** The item for a tree, keeping its member order. The item shares n's values: do not change n afterwards. */
+    public static CatalogItem fromTree(String kind, ObjectNode n) {
+        CatalogItem item = empty(kind);
+        item.load(n);
+        return item;
+    }
+
+    /** The item's id, or "" if it has none (a non-text id is converted, as asText does). */
+    public static String idOf(CatalogItem item) {
+        if (item == null) return "";
+        String id = item.getId();
+        return id != null ? id : item.text("id");
+    }
+
+    /**
+     * Content hash of an item: 16 hex digits of SHA-256 over its members in name order (at
+     * every level), so it changes exactly when equals() would and is the same in every process.
+     */
+    public static String version(CatalogItem item) {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+        digest(item.toTree(), md);
+        return HexFormat.of().formatHex(md.digest(), 0, 8);
+    }
+
+    private static void digest(JsonNode n, MessageDigest md) {
+        if (n.isObject()) {
+            List<String> names = new ArrayList<>(n.size());
+            n.fieldNames().forEachRemaining(names::add);
+            Collections.sort(names);
+            md.update((byte) '{');
+            for (String name : names) {
+                md.update(name.getBytes(StandardCharsets.UTF_8));
+                md.update((byte) ':');
+                digest(n.get(name), md);
+            }
+            md.update((byte) '}');
+        } else if (n.isArray()) {
+            md.update((byte) '[');
+            for (JsonNode e : n) digest(e, md);
+            md.update((byte) ']');
+        } else {
+            // scalars as JSON text, then a separator no JSON text contains unescaped
+            md.update(n.toString().getBytes(StandardCharsets.UTF_8));
+            md.update((byte) 0);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.ruichiji.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.JsonEOFException;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A JSON object with typed members held in plain Java fields.
+ *
+ * Members a subclass knows are read into fields (see Fields); everything else, and known
+ * members whose value has an unexpected shape, is kept as a tree in a small side map that is
+ * only allocated when needed. The order the members were read in is remembered (as a shared
+ * list, see Fields.layout), so writing a record back produces the same object: same members,
+ * same order, same values. Members added later are written after the remembered ones.
+ *
+ * Besides the typed getters and setters of the subclasses, members can be read and written
+ * by name as trees (get/set/remove), which is what the editor form and generic tools use.
+ *
+ * Records are mutable. Records handed out by DataService are shared with its cache: treat
+ * them as read-only and change a copy().
+ *
+ * Jackson binds records through RecordSerializer/RecordDeserializer, so they can be read
+ * and written with any ObjectMapper, embedded in trees (POJONode) or converted with
+ * treeToValue/valueToTree.
+ */
+@JsonSerialize(using = RecordSerializer.class)
+@JsonDeserialize(using = RecordDeserializer.class)
+public abstract class JsonRecord {
+    private Map<String, JsonNode> extra;   // untyped members; null when there are none
+    private List<String> layout;           // member order as read; null for new records
+
+    abstract Fields<?> fields();
+
+    // ---- access by name ----
+
+    /** The member's value as a tree, or null if absent. Do not modify the result. */
+    public JsonNode get(String name) {
+        Field<?, ?> f = fields().get(name);
+        JsonNode typed = f == null ? null : f.toTree(this, JsonNodeFactory.instance);
+        if (typed != null) return typed;
+        return extra == null ? null : extra.get(name);
+    }
+
+    /** The member's value as text (numbers and booleans converted); "" if absent, null or a container. */
+    public String text(String name) {
+        Field<?, ?> f = fields().get(name);
+        if (f != null && f.get(this) instanceof String s) return s;
+        JsonNode n = get(name);
+        return n == null || n.isNull() ? "" : n.asText("");
+    }
+
+    /**
+     * The member's value as held, without conversion: a String, a List of Strings or records
+     * for typed members, a JsonNode otherwise; null if absent. Do not modify the result.
+     */
+    public Object value(String name) {
+        Field<?, ?> f = fields().get(name);
+        Object typed = f == null ? null : f.get(this);
+        if (typed != null) return typed;
+        return extra == null ? null : extra.get(name);
+    }
+
+    public boolean has(String name) {
+        Field<?, ?> f = fields().get(name);
+        return (f != null && f.get(this) != null) || (extra != null && extra.containsKey(name));
+    }
+
+    /**
+     * Set a member from a tree; null removes it. A value that fits the typed field is stored
+     * there, anything else is kept as given (the record then shares it).
+     */
+    public void set(String name, JsonNode value) {
+        if (value == null || value.isMissingNode()) {
+            remove(name);
+            return;
+        }
+        Field<?, ?> f = fields().get(name);
+        if (f != null) {
+            if (f.setFromTree(this, value)) return;
+            f.set(this, null);
+        }
+        putExtra(name, value);
+    }
+
+    /** Set a text member; null removes it. */
+    public void set(String name, String value) {
+        set(name, value == null ? null : TextNode.valueOf(value));
+    }
+
+    public void remove(String name) {
+        Field<?, ?> f = fields().get(name);
+        if (f != null) f.set(this, null);
+        dropExtra(name);
+    }
+
+    /** Names of the present members in the order they are written. */
+    public List<String> names() {
+        List<String> out = new ArrayList<>(12);
+        if (layout != null) {
+            for (String n : layout) if (has(n)) out.add(n);
+        }
+        for (Field<?, ?> f : fields().list) {
+            if (f.get(this) != null && !out.contains(f.name)) out.add(f.name);
+        }
+        if (extra != null) {
+            for (String n : extra.keySet()) if (!out.contains(n)) out.add(n);
+        }
+        return out;
+    }
+
+    /** The record as an independent ObjectNode (members in output order). */
+    public ObjectNode toTree() {
+        return toTree(JsonNodeFactory.instance);
+    }
+
+    ObjectNode toTree(JsonNodeFactory f) {
+        ObjectNode o = f.objectNode();
+        for (String name : names()) {
+            Field<?, ?> field = fields().get(name);
+            JsonNode typed = field == null ? null : field.toTree(this, f);
+            o.set(name, typed != null ? typed : extra.get(name).deepCopy());
+        }
+        return o;
+    }
+
+    /** Deep copy; the copy writes its members in the same order. */
+    public JsonRecord copy() {
+        JsonRecord c = fields().factory.get();
+        for (Field<?, ?> f : fields().list) f.copy(this, c);
+        if (extra != null) {
+            for (Map.Entry<String, JsonNode> e : extra.entrySet()) c.putExtra(e.getKey(), e.getValue().deepCopy());
+        }
+        c.layout = layout;
+        return c;
+    }
+
+    /** Subclass setters call this so a typed value replaces an untyped one of the same name. */
+    protected final void dropExtra(String name) {
+        if (extra != null && extra.remove(name) != null && extra.isEmpty()) extra = null;
+    }
+
+    private void putExtra(String name, JsonNode value) {
+        if (extra == null) extra = new LinkedHashMap<>(4);
+        extra.put(name, value);
+    }
+
+    // ---- binding ----
+
+    /** p is on START_OBJECT (or the first FIELD_NAME); consumes up to and including END_OBJECT. */
+    final void read(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken t = p.currentToken();
+        if (t == JsonToken.START_OBJECT) {
+            t = p.nextToken();
+        } else if (t != JsonToken.FIELD_NAME && t != JsonToken.END_OBJECT) {
+            throw MismatchedInputException.from(p, getClass(), "expected a JSON object, got " + t);
+        }
+        Fields<?> fs = fields();
+        List<String> names = new ArrayList<>(12);
+        for (; t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+            String name = p.currentName();
+            p.nextToken();
+            Field<?, ?> f = fs.get(name);
+            if (f == null) {
+                putExtra(name, ctxt.readTree(p));
+            } else {
+                Object v = f.codec.read(p, ctxt);
+                if (v instanceof Codec.Unfit u) {
+                    f.set(this, null);
+                    putExtra(name, u.node());
+                } else {
+                    f.set(this, v);
+                }
+            }
+            if (!names.contains(name)) names.add(name);
+        }
+        if (t != JsonToken.END_OBJECT) throw new JsonEOFException(p, t, "unexpected end of object");
+        layout = fs.layout(names);
+    }
+
+    /** Set every member of n (sharing its values) and take over its member order. */
+    final void load(ObjectNode n) {
+        List<String> names = new ArrayList<>(n.size());
+        for (Iterator<Map.Entry<String, JsonNode>> it = n.fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> e = it.next();
+            set(e.getKey(), e.getValue());
+            names.add(e.getKey());
+        }
+        layout = fields().layout(names);
+    }
+
+    final void write(JsonGenerator g, SerializerProvider sp) throws IOException {
+        g.writeStartObject(this);
+        Fields<?> fs = fields();
+        for (String name : names()) {
+            g.writeFieldName(name);
+            Field<?, ?> f = fs.get(name);
+            if (f != null && f.get(this) != null) {
+                f.writeValue(this, g, sp);
+            } else {
+                ((JsonSerializable) extra.get(name)).serialize(g, sp);
+            }
+        }
+        g.writeEndObject();
+    }
+
+    // ---- value semantics ----
+
+    /** Same class and same member values; member order is not compared. */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || o.getClass() != getClass()) return false;
+        JsonRecord r = (JsonRecord) o;
+        for (Field<?, ?> f : fields().list) {
+            if (!Objects.equals(f.get(this), f.get(r))) return false;
+        }
+        return Objects.equals(extra, r.extra);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = getClass().hashCode();
+        for (Field<?, ?> f : fields().list) h = 31 * h + Objects.hashCode(f.get(this));
+        return 31 * h + Objects.hashCode(extra);
+    }
+
+    /** Compact JSON. */
+    @Override
+    public String toString() {
+        return toTree().toString();
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.ruichiji.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
+
+/** live.json: a concert and its set list. The picture is "image" here, not "cover". */
+public final class LiveEvent extends CatalogItem {
+    static final Fields<LiveEvent> FIELDS = new Fields<>(LiveEvent.class, LiveEvent::new,
+            Field.text("id", LiveEvent::getId, LiveEvent::setId),
+            Field.text("title", LiveEvent::getTitle, LiveEvent::setTitle),
+            Field.text("date", LiveEvent::getDate, LiveEvent::setDate),
+            Field.text("note", LiveEvent::getNote, LiveEvent::setNote),
+            Field.text("image", LiveEvent::getImage, LiveEvent::setImage),
+            Field.any("imageVariants", LiveEvent::getImageVariants, LiveEvent::setImageVariants),
+            Field.text("venue", LiveEvent::getVenue, LiveEvent::setVenue),
+            Field.records("setlist", SetlistEntry::new, LiveEvent::getSetlist, LiveEvent::setSetlist));
+
+    private String note;
+    private String image;
+    private JsonNode imageVariants;
+    private String venue;
+    private List<SetlistEntry> setlist;
+
+    public String getNote() { return note; }
+    public void setNote(String note) { this.note = note; dropExtra("note"); }
+
+    public String getImage() { return image; }
+    public void setImage(String image) { this.image = image; dropExtra("image"); }
+
+    /** [{ "width": 320, "src": "..." }, ...] as written by the image import. */
+    public JsonNode getImageVariants() { return imageVariants; }
+    public void setImageVariants(JsonNode imageVariants) { this.imageVariants = imageVariants; dropExtra("imageVariants"); }
+
+    public String getVenue() { return venue; }
+    public void setVenue(String venue) { this.venue = venue; dropExtra("venue"); }
+
+    /** Unmodifiable. */
+    public List<SetlistEntry> getSetlist() { return setlist; }
+    public void setSetlist(List<SetlistEntry> setlist) { this.setlist = setlist == null ? null : List.copyOf(setlist); dropExtra("setlist"); }
+
+    @Override
+    Fields<?> fields() { return FIELDS; }
+
+    @Override
+    public LiveEvent copy() { return (LiveEvent) super.copy(); }
+}
@@ -0,0 +1,49 @@
+package com.example.ruichiji.model;
+
+/** movies.json: a video, usually of one song (musicID). */
+public final class Movie extends CatalogItem {
+    static final Fields<Movie> FIELDS = new Fields<>(Movie.class, Movie::new,
+            Field.text("id", Movie::getId, Movie::setId),
+            Field.text("title", Movie::getTitle, Movie::setTitle),
+            Field.text("date", Movie::getDate, Movie::setDate),
+            Field.text("description", Movie::getDescription, Movie::setDescription),
+            Field.text("service", Movie::getService, Movie::setService),
+            Field.text("uploader", Movie::getUploader, Movie::setUploader),
+            Field.text("video", Movie::getVideo, Movie::setVideo),
+            Field.text("url", Movie::getUrl, Movie::setUrl),
+            Field.text("musicID", Movie::getMusicId, Movie::setMusicId));
+
+    private String description;
+    private String service;
+    private String uploader;
+    private String video;
+    private String url;
+    private String musicId;
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; dropExtra("description"); }
+
+    /** e.g. "ニコニコ動画", "YouTube". */
+    public String getService() { return service; }
+    public void setService(String service) { this.service = service; dropExtra("service"); }
+
+    public String getUploader() { return uploader; }
+    public void setUploader(String uploader) { this.uploader = uploader; dropExtra("uploader"); }
+
+    /** Video id on the service. */
+    public String getVideo() { return video; }
+    public void setVideo(String video) { this.video = video; dropExtra("video"); }
+
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; dropExtra("url"); }
+
+    /** "musicID" in JSON. */
+    public String getMusicId() { return musicId; }
+    public void setMusicId(String musicId) { this.musicId = musicId; dropExtra("musicID"); }
+
+    @Override
+    Fields<?> fields() { return FIELDS; }
+
+    @Override
+    public Movie copy() { return (Movie) super.copy(); }
+}
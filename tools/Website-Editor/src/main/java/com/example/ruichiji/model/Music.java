@@ -0,0 +1,65 @@
+package com.example.ruichiji.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
+
+/** music.json: a song. Lyrics live in a separate file referenced by lyricsFile. */
+public final class Music extends CatalogItem {
+    static final Fields<Music> FIELDS = new Fields<>(Music.class, Music::new,
+            Field.text("id", Music::getId, Music::setId),
+            Field.text("title", Music::getTitle, Music::setTitle),
+            Field.text("date", Music::getDate, Music::setDate),
+            Field.text("description", Music::getDescription, Music::setDescription),
+            Field.text("cover", Music::getCover, Music::setCover),
+            Field.any("coverVariants", Music::getCoverVariants, Music::setCoverVariants),
+            Field.text("duration", Music::getDuration, Music::setDuration),
+            Field.texts("credits", Music::getCredits, Music::setCredits),
+            Field.texts("albums", Music::getAlbums, Music::setAlbums),
+            Field.text("audioFile", Music::getAudioFile, Music::setAudioFile),
+            Field.text("lyricsFile", Music::getLyricsFile, Music::setLyricsFile));
+
+    private String description;
+    private String cover;
+    private JsonNode coverVariants;
+    private String duration;
+    private List<String> credits;
+    private List<String> albums;
+    private String audioFile;
+    private String lyricsFile;
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; dropExtra("description"); }
+
+    public String getCover() { return cover; }
+    public void setCover(String cover) { this.cover = cover; dropExtra("cover"); }
+
+    /** [{ "width": 320, "src": "..." }, ...] as written by the image import. */
+    public JsonNode getCoverVariants() { return coverVariants; }
+    public void setCoverVariants(JsonNode coverVariants) { this.coverVariants = coverVariants; dropExtra("coverVariants"); }
+
+    /** "m:ss" by convention. */
+    public String getDuration() { return duration; }
+    public void setDuration(String duration) { this.duration = duration; dropExtra("duration"); }
+
+    /** e.g. "Music: Ruichiji"; unmodifiable. */
+    public List<String> getCredits() { return credits; }
+    public void setCredits(List<String> credits) { this.credits = credits == null ? null : List.copyOf(credits); dropExtra("credits"); }
+
+    /** Titles of the albums the song appears on; unmodifiable. */
+    public List<String> getAlbums() { return albums; }
+    public void setAlbums(List<String> albums) { this.albums = albums == null ? null : List.copyOf(albums); dropExtra("albums"); }
+
+    public String getAudioFile() { return audioFile; }
+    public void setAudioFile(String audioFile) { this.audioFile = audioFile; dropExtra("audioFile"); }
+
+    /** e.g. "data/lyrics/<id>.txt" (relative to assets/). */
+    public String getLyricsFile() { return lyricsFile; }
+    public void setLyricsFile(String lyricsFile) { this.lyricsFile = lyricsFile; dropExtra("lyricsFile"); }
+
+    @Override
+    Fields<?> fields() { return FIELDS; }
+
+    @Override
+    public Music copy() { return (Music) super.copy(); }
+}
@@ -0,0 +1,49 @@
+package com.example.ruichiji.model;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Reads a JsonRecord subclass (see JsonRecord#read). The annotation on JsonRecord creates
+ * one untyped instance; Jackson then asks it for a deserializer of the concrete class.
+ */
+final class RecordDeserializer extends StdDeserializer<JsonRecord> implements ContextualDeserializer {
+    private static final long serialVersionUID = 1L;
+
+    private final transient Fields<?> fields;   // never serialized: Jackson keeps deserializers in memory
+
+    RecordDeserializer() {
+        this(JsonRecord.class, null);
+    }
+
+    private RecordDeserializer(Class<?> type, Fields<?> fields) {
+        super(type);
+        this.fields = fields;
+    }
+
+    @Override
+    public JsonDeserializer<?> createContextual(DeserializationContext ctxt, BeanProperty property) throws JsonMappingException {
+        JavaType type = ctxt.getContextualType();
+        if (type == null && property != null) type = property.getType();
+        if (type == null) return this;
+        Fields<?> f = Fields.of(type.getRawClass());
+        if (f == null) return ctxt.reportBadDefinition(type, "not a concrete record type: " + type.getRawClass().getName());
+        return new RecordDeserializer(type.getRawClass(), f);
+    }
+
+    @Override
+    public JsonRecord deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (fields == null) return ctxt.reportBadDefinition(handledType(), "record type not known");
+        JsonRecord r = fields.factory.get();
+        r.read(p, ctxt);
+        return r;
+    }
+}
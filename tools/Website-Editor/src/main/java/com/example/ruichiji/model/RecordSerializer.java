@@ -0,0 +1,21 @@
+package com.example.ruichiji.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/** Writes a JsonRecord member by member (see JsonRecord#write). */
+final class RecordSerializer extends StdSerializer<JsonRecord> {
+    private static final long serialVersionUID = 1L;
+
+    RecordSerializer() {
+        super(JsonRecord.class);
+    }
+
+    @Override
+    public void serialize(JsonRecord value, JsonGenerator g, SerializerProvider sp) throws IOException {
+        value.write(g, sp);
+    }
+}
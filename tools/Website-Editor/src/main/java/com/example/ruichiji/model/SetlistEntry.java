@@ -0,0 +1,23 @@
+package com.example.ruichiji.model;
+
+/** One entry of a live event's "setlist"; id is the music id, when the song has one. */
+public final class SetlistEntry extends JsonRecord {
+    static final Fields<SetlistEntry> FIELDS = new Fields<>(SetlistEntry.class, SetlistEntry::new,
+            Field.text("title", SetlistEntry::getTitle, SetlistEntry::setTitle),
+            Field.text("id", SetlistEntry::getId, SetlistEntry::setId));
+
+    private String title;
+    private String id;
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; dropExtra("title"); }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; dropExtra("id"); }
+
+    @Override
+    Fields<?> fields() { return FIELDS; }
+
+    @Override
+    public SetlistEntry copy() { return (SetlistEntry) super.copy(); }
+}
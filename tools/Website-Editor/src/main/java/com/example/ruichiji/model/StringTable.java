@@ -0,0 +1,133 @@
+package com.example.ruichiji.model;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.cfg.ContextAttributes;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Canonical instances of short strings that repeat across items: "Ruichiji" in uploader,
+ * artists and author, "ニコニコ動画", "Music: Ruichiji" in credits, dates, ...
+ *
+ * The table is direct-mapped and bounded: a value hashes to one slot and replaces whatever
+ * different string was there. Lookups never lock and the table never grows, at the price of
+ * missing a repeat now and then when two values share a slot. Values longer than maxLength
+ * (descriptions, notes) are passed through untouched.
+ *
+ * install() hooks the table into an ObjectMapper, so every text value it reads is looked up:
+ * typed record members (see Codec) and text nodes of trees (untyped members, journal records).
+ */
+public final class StringTable {
+
+    /**
+     * @param entries    strings currently held
+     * @param lookups    strings looked up (values short enough to intern)
+     * @param hits       lookups answered with an existing instance
+     * @param bytesSaved estimated heap size of the duplicate strings that were not kept
+     */
+    public record Stats(int entries, long lookups, long hits, long bytesSaved) {}
+
+    private final String[] slots;
+    private final int maxLength;
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+
+    /** @param slots rounded up to a power of two */
+    public StringTable(int slots, int maxLength) {
+        this.slots = new String[Integer.highestOneBit(Math.max(1, slots - 1)) << 1];
+        this.maxLength = maxLength;
+    }
+
+    /** Use the table for every text value read through mapper. */
+    public void install(ObjectMapper mapper) {
+        mapper.setNodeFactory(new InterningNodeFactory(this));
+        mapper.setDefaultAttributes(ContextAttributes.getEmpty().withSharedAttribute(StringTable.class, this));
+    }
+
+    /** The canonical instance equal to s (s itself if it is the first, or too long). */
+    public String intern(String s) {
+        if (s == null || s.length() > maxLength) return s;
+        lookups.increment();
+        int slot = slot(s.hashCode());
+        String held = slots[slot];
+        if (s.equals(held)) return hit(held);
+        slots[slot] = s;
+        return s;
+    }
+
+    /** intern() for the current string token, without creating a String when it is a repeat. */
+    String intern(JsonParser p) throws IOException {
+        int len = p.getTextLength();
+        if (len > maxLength) return p.getText();
+        char[] buf = p.getTextCharacters();
+        int off = p.getTextOffset();
+        int h = 0;
+        for (int i = 0; i < len; i++) h = 31 * h + buf[off + i]; // same as String.hashCode()
+        lookups.increment();
+        int slot = slot(h);
+        String held = slots[slot];
+        if (held != null && sameChars(held, buf, off, len)) return hit(held);
+        String s = new String(buf, off, len);
+        slots[slot] = s;
+        return s;
+    }
+
+    public Stats stats() {
+        int n = 0;
+        for (String s : slots) if (s != null) n++;
+        return new Stats(n, lookups.sum(), hits.sum(), bytesSaved.sum());
+    }
+
+    /** Text of the current string token, through the table the reader was configured with (if any). */
+    static String text(JsonParser p, DeserializationContext ctxt) throws IOException {
+        return ctxt.getAttribute(StringTable.class) instanceof StringTable t ? t.intern(p) : p.getText();
+    }
+
+    private int slot(int h) {
+        return (h ^ (h >>> 16)) & (slots.length - 1);
+    }
+
+    private String hit(String held) {
+        hits.increment();
+        bytesSaved.add(sizeOf(held));
+        return held;
+    }
+
+    private static boolean sameChars(String s, char[] buf, int off, int len) {
+        if (s.length() != len) return false;
+        for (int i = 0; i < len; i++) if (s.charAt(i) != buf[off + i]) return false;
+        return true;
+    }
+
+    /** Heap size of a String with compact strings and compressed oops: object + byte[] value. */
+    private static long sizeOf(String s) {
+        int bytes = s.length();
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 0xFF) {
+                bytes = 2 * s.length();
+                break;
+            }
+        }
+        return 24 + ((16 + bytes + 7) & ~7);
+    }
+
+    private static final class InterningNodeFactory extends JsonNodeFactory {
+        private static final long serialVersionUID = 1L;
+        private final transient StringTable table;
+
+        InterningNodeFactory(StringTable table) {
+            this.table = table;
+        }
+
+        @Override
+        public TextNode textNode(String text) {
+            return super.textNode(table.intern(text));
+        }
+    }
+}
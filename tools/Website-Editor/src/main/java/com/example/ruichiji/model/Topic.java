@@ -0,0 +1,27 @@
+package com.example.ruichiji.model;
+
+/** topics.json: a news post. */
+public final class Topic extends CatalogItem {
+    static final Fields<Topic> FIELDS = new Fields<>(Topic.class, Topic::new,
+            Field.text("id", Topic::getId, Topic::setId),
+            Field.text("title", Topic::getTitle, Topic::setTitle),
+            Field.text("date", Topic::getDate, Topic::setDate),
+            Field.text("cover", Topic::getCover, Topic::setCover),
+            Field.text("content", Topic::getContent, Topic::setContent));
+
+    private String cover;
+    private String content;
+
+    public String getCover() { return cover; }
+    public void setCover(String cover) { this.cover = cover; dropExtra("cover"); }
+
+    /** Markdown body. */
+    public String getContent() { return content; }
+    public void setContent(String content) { this.content = content; dropExtra("content"); }
+
+    @Override
+    Fields<?> fields() { return FIELDS; }
+
+    @Override
+    public Topic copy() { return (Topic) super.copy(); }
+}
@@ -0,0 +1,37 @@
+package com.example.ruichiji.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/** One entry of an album's "tracks". */
+public final class Track extends JsonRecord {
+    static final Fields<Track> FIELDS = new Fields<>(Track.class, Track::new,
+            Field.any("track_no", Track::getTrackNo, Track::setTrackNo),
+            Field.text("title", Track::getTitle, Track::setTitle),
+            Field.text("musicID", Track::getMusicId, Track::setMusicId),
+            Field.text("author", Track::getAuthor, Track::setAuthor));
+
+    private JsonNode trackNo;
+    private String title;
+    private String musicId;
+    private String author;
+
+    /** "track_no" in JSON: a number, or text such as "Ex". */
+    public JsonNode getTrackNo() { return trackNo; }
+    public void setTrackNo(JsonNode trackNo) { this.trackNo = trackNo; dropExtra("track_no"); }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; dropExtra("title"); }
+
+    /** "musicID" in JSON. */
+    public String getMusicId() { return musicId; }
+    public void setMusicId(String musicId) { this.musicId = musicId; dropExtra("musicID"); }
+
+    public String getAuthor() { return author; }
+    public void setAuthor(String author) { this.author = author; dropExtra("author"); }
+
+    @Override
+    Fields<?> fields() { return FIELDS; }
+
+    @Override
+    public Track copy() { return (Track) super.copy(); }
+}
@@ -0,0 +1,210 @@
+package com.example.ruichiji.service;
+
+import com.example.ruichiji.model.CatalogItem;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.DoubleConsumer;
+
+/**
+ * CompletableFuture-based front for DataService so UI code never waits on disk.
+ *
+ * Every call runs the matching DataService method on a background thread. UI code continues
+ * on its own thread with e.g. {@code future.whenCompleteAsync(handler, Platform::runLater)};
+ * this class deliberately has no JavaFX dependency so headless callers can use it too.
+ *
+ * Tasks run on virtual threads when the runtime provides them (JDK 21+); the project compiles
+ * for release 17, so the factory is looked up reflectively and a daemon cached pool is used
+ * on older runtimes.
+ *
+ * Cancelling a returned future before it starts skips the task. For readItems/readList, cancellation is
+ * also polled while the file is parsed, so a long load stops early and leaves the cache as it
+ * was.
+ */
+public class AsyncDataService {
+
+    @FunctionalInterface
+    private interface IoCall<T> {
+        T call(CompletableFuture<T> self) throws Exception;
+    }
+
+    private final DataService ds;
+    private final ExecutorService executor = newIoExecutor();
+
+    AsyncDataService(DataService ds) {
+        this.ds = ds;
+    }
+
+    public CompletableFuture<List<CatalogItem>> readItems(String kind) {
+        return readItems(kind, null);
+    }
+
+    /**
+     * @param progress receives 0..1 while the file is parsed (from the loading thread); may be null
+     */
+    public CompletableFuture<List<CatalogItem>> readItems(String kind, DoubleConsumer progress) {
+        return submit(self -> ds.readItems(kind, monitor(self, progress)));
+    }
+
+    public CompletableFuture<List<ObjectNode>> readList(String kind) {
+        return readList(kind, null);
+    }
+
+    /** Like readItems, but every item is converted to an independent tree. */
+    public CompletableFuture<List<ObjectNode>> readList(String kind, DoubleConsumer progress) {
+        return submit(self -> ds.readList(kind, monitor(self, progress)));
+    }
+
+    private static LoadMonitor monitor(CompletableFuture<?> self, DoubleConsumer progress) {
+        return new LoadMonitor() {
+            @Override
+            public void progress(long done, long total) {
+                if (progress != null && total > 0) progress.accept(Math.min(1.0, (double) done / total));
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return self.isCancelled();
+            }
+        };
+    }
+
+    public CompletableFuture<CatalogItem> getItem(String kind, String id) {
+        return submit(self -> ds.getItem(kind, id));
+    }
+
+    public CompletableFuture<ObjectNode> get(String kind, String id) {
+        return submit(self -> ds.get(kind, id));
+    }
+
+    public CompletableFuture<Set<String>> getDuplicateIds(String kind) {
+        return submit(self -> ds.getDuplicateIds(kind));
+    }
+
+    public CompletableFuture<Void> upsert(String kind, CatalogItem item) {
+        return submit(self -> {
+            ds.upsert(kind, item);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> upsert(String kind, ObjectNode node) {
+        return submit(self -> {
+            ds.upsert(kind, node);
+            return null;
+        });
+    }
+
+    public CompletableFuture<CatalogItem> patch(String kind, String id, JsonNode patch) {
+        return submit(self -> ds.patch(kind, id, patch));
+    }
+
+    public CompletableFuture<Boolean> delete(String kind, String id) {
+        return submit(self -> ds.delete(kind, id));
+    }
+
+    public CompletableFuture<Void> writeList(String kind, List<ObjectNode> list) {
+        return submit(self -> {
+            ds.writeList(kind, list);
+            return null;
+        });
+    }
+
+    /**
+     * @param progress receives 0..1 while the catalogs are passed over and written; may be null.
+     *                 Cancelling the future before the first write leaves everything unchanged.
+     */
+    public CompletableFuture<Map<String, Integer>> applyBulk(BulkEdit edit, DoubleConsumer progress) {
+        return submit(self -> ds.applyBulk(edit, monitor(self, progress)));
+    }
+
+    public CompletableFuture<Void> renameId(String kind, String oldId, String newId) {
+        return submit(self -> {
+            ds.renameId(kind, oldId, newId);
+            return null;
+        });
+    }
+
+    public CompletableFuture<EditHistory.Step> undo() {
+        return submit(self -> ds.undo());
+    }
+
+    public CompletableFuture<EditHistory.Step> redo() {
+        return submit(self -> ds.redo());
+    }
+
+    public CompletableFuture<String> saveLyricsFile(String musicId, String lyrics) {
+        return submit(self -> ds.saveLyricsFile(musicId, lyrics));
+    }
+
+    public CompletableFuture<String> readLyricsFile(String lyricsFilePath) {
+        return submit(self -> ds.readLyricsFile(lyricsFilePath));
+    }
+
+    public CompletableFuture<ImportedImage> importImage(File src) {
+        return submit(self -> ds.importImage(src));
+    }
+
+    public CompletableFuture<Void> buildSearchIndex(Collection<String> kinds) {
+        return submit(self -> {
+            ds.buildSearchIndex(kinds);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> buildReferenceIndex() {
+        return submit(self -> {
+            ds.buildReferenceIndex();
+            return null;
+        });
+    }
+
+    public CompletableFuture<List<SearchHit>> search(String query, String kind, int limit) {
+        return submit(self -> ds.search(query, kind, limit));
+    }
+
+    public CompletableFuture<ReferenceReport> checkReferences() {
+        return submit(self -> ds.checkReferences());
+    }
+
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> CompletableFuture<T> submit(IoCall<T> call) {
+        CompletableFuture<T> f = new CompletableFuture<>();
+        executor.execute(() -> {
+            if (f.isDone()) return; // cancelled before it started
+            try {
+                f.complete(call.call(f));
+            } catch (Throwable t) {
+                f.completeExceptionally(t);
+            }
+        });
+        return f;
+    }
+
+    private static ExecutorService newIoExecutor() {
+        try {
+            Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) m.invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            AtomicInteger n = new AtomicInteger();
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "data-io-" + n.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+}
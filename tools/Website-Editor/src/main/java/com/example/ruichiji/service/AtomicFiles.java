@@ -0,0 +1,91 @@
+package com.example.ruichiji.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Crash-safe whole-file replacement: write a temp file next to the target, fsync it, then
+ * rename it over the target with ATOMIC_MOVE. Readers (and a crash) see either the old or
+ * the new content, never a truncated mix.
+ *
+ * The temp file lives in the same directory (so the rename is not a cross-device copy) and
+ * starts with '.', so Jekyll ignores a leftover one.
+ */
+final class AtomicFiles {
+
+    @FunctionalInterface
+    interface Body {
+        void writeTo(OutputStream os) throws IOException;
+    }
+
+    private AtomicFiles() {}
+
+    static void write(Path target, byte[] content) throws IOException {
+        write(target, os -> os.write(content));
+    }
+
+    static void write(Path target, Body body) throws IOException {
+        Path tmp = prepare(target, body);
+        try {
+            publish(tmp, target);
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(tmp);
+            throw ex;
+        }
+    }
+
+    /**
+     * First half of write(): the new content in an fsynced temp file next to target. The
+     * caller must publish() or delete it. Used directly by CatalogTransaction to stage
+     * several files before renaming any of them.
+     */
+    static Path prepare(Path target, Body body) throws IOException {
+        Path dir = target.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        // not Files.createTempFile: that creates 0600 files on POSIX and the rename would carry
+        // those permissions over to the catalog
+        Path tmp = dir.resolve("." + target.getFileName() + "." + Long.toHexString(System.nanoTime()) + ".tmp");
+        try {
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                OutputStream os = new BufferedOutputStream(Channels.newOutputStream(ch), 64 * 1024);
+                body.writeTo(os);
+                os.flush();
+                ch.force(true);
+            }
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(tmp);
+            throw ex;
+        }
+        return tmp;
+    }
+
+    /** Second half of write(): rename tmp over target and make the rename durable. */
+    static void publish(Path tmp, Path target) throws IOException {
+        try {
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        syncDirectory(target.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Persist the rename itself. Opening a directory for reading works on Linux/macOS; on
+     * Windows it fails and the rename is already durable through NTFS journaling, so ignore.
+     */
+    static void syncDirectory(Path dir) {
+        try (FileChannel ch = FileChannel.open(dir, StandardOpenOption.READ)) {
+            ch.force(true);
+        } catch (IOException ex) {
+            // not supported on this platform
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.ruichiji.service;
+
+import com.example.ruichiji.model.Album;
+import com.example.ruichiji.model.CatalogItem;
+import com.example.ruichiji.model.Items;
+import com.example.ruichiji.model.Music;
+import com.example.ruichiji.model.Track;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * An edit of many items at once, for DataService.applyBulk: every affected catalog is passed
+ * over once, written once and the whole edit becomes one undo step.
+ *
+ * Per kind the edit is a function from an item to its replacement: a changed copy, the item
+ * itself if it is left alone, or null to drop it. Kinds are passed over in the order given
+ * here, so an edit of a later kind can use what an earlier one saw (reassignAlbum reads the
+ * song titles while passing over music, then fixes the album tracks).
+ */
+public final class BulkEdit {
+    private final String label;
+    private final Map<String, UnaryOperator<CatalogItem>> byKind = new LinkedHashMap<>();
+
+    private BulkEdit(String label) {
+        this.label = label;
+    }
+
+    /** e.g. "delete 200 music", used as the undo step's label. */
+    public String label() {
+        return label;
+    }
+
+    /** The kinds the edit may change, in pass order. */
+    public List<String> kinds() {
+        return List.copyOf(byKind.keySet());
+    }
+
+    /** The replacement of item (see class comment). */
+    CatalogItem apply(String kind, CatalogItem item) {
+        UnaryOperator<CatalogItem> f = byKind.get(kind);
+        return f == null ? item : f.apply(item);
+    }
+
+    public static BulkEdit delete(String kind, Collection<String> ids) {
+        Set<String> sel = Set.copyOf(ids);
+        BulkEdit e = new BulkEdit("delete " + sel.size() + " " + kind);
+        e.byKind.put(kind, item -> sel.contains(Items.idOf(item)) ? null : item);
+        return e;
+    }
+
+    /** Set a member of the selected items to value (a tree, stored like JsonRecord.set); null removes it. */
+    public static BulkEdit setField(String kind, Collection<String> ids, String member, JsonNode value) {
+        if (member.equals("id")) throw new IllegalArgumentException("ids are changed with renameId");
+        Set<String> sel = Set.copyOf(ids);
+        BulkEdit e = new BulkEdit("set " + member + " of " + sel.size() + " " + kind);
+        e.byKind.put(kind, item -> {
+            if (!sel.contains(Items.idOf(item))) return item;
+            JsonNode old = item.get(member);
+            if (value == null ? old == null : value.equals(old)) return item;
+            CatalogItem copy = item.copy();
+            copy.set(member, value);
+            return copy;
+        });
+        return e;
+    }
+
+    /** Append credit to the "credits" of the selected items that do not have it yet. */
+    public static BulkEdit addCredit(String kind, Collection<String> ids, String credit) {
+        return editCredits(kind, ids, "add credit", credits -> {
+            if (credits.contains(credit)) return false;
+            credits.add(credit);
+            return true;
+        });
+    }
+
+    /** Remove credit from the "credits" of the selected items (the member goes when it becomes empty). */
+    public static BulkEdit removeCredit(String kind, Collection<String> ids, String credit) {
+        return editCredits(kind, ids, "remove credit", credits -> credits.removeIf(credit::equals));
+    }
+
+    private interface TextsEdit {
+        /** Changes texts in place; returns true if it changed them. */
+        boolean apply(List<String> texts);
+    }
+
+    private static BulkEdit editCredits(String kind, Collection<String> ids, String what, TextsEdit change) {
+        Set<String> sel = Set.copyOf(ids);
+        BulkEdit e = new BulkEdit(what + " of " + sel.size() + " " + kind);
+        e.byKind.put(kind, item -> {
+            if (!sel.contains(Items.idOf(item))) return item;
+            JsonNode old = item.get("credits");
+            List<String> credits = new ArrayList<>();
+            if (old != null && old.isArray()) old.forEach(n -> credits.add(n.asText()));
+            if (!change.apply(credits)) return item;
+            CatalogItem copy = item.copy();
+            if (credits.isEmpty()) {
+                copy.remove("credits");
+            } else {
+                ArrayNode arr = JsonNodeFactory.instance.arrayNode();
+                credits.forEach(arr::add);
+                copy.set("credits", arr);
+            }
+            return copy;
+        });
+        return e;
+    }
+
+    /**
+     * Make albumId the only album of the selected songs: their tracks are removed from every
+     * other album of discography and appended to albumId (numbered after its last numeric
+     * track_no) unless already there, and each song's "albums" becomes that album's title.
+     */
+    public static BulkEdit reassignAlbum(Collection<String> musicIds, String albumId, String albumTitle) {
+        Set<String> sel = Set.copyOf(musicIds);
+        BulkEdit e = new BulkEdit("move " + sel.size() + " music to " + albumId);
+        Map<String, String> titles = new LinkedHashMap<>(); // selected songs in catalog order, filled by the music pass
+        e.byKind.put("music", item -> {
+            String id = Items.idOf(item);
+            if (!sel.contains(id)) return item;
+            titles.put(id, item.text("title"));
+            List<String> albums = List.of(albumTitle);
+            if (item instanceof Music m && albums.equals(m.getAlbums())) return item;
+            Music copy = (Music) item.copy();
+            copy.setAlbums(albums);
+            return copy;
+        });
+        e.byKind.put("discography", item -> {
+            // tracks not held as records (some element is not an object) are left alone
+            if (!(item instanceof Album album) || (album.getTracks() == null && album.has("tracks"))) return item;
+            List<Track> tracks = album.getTracks() == null ? List.of() : album.getTracks();
+            boolean target = Items.idOf(album).equals(albumId);
+            List<Track> out = new ArrayList<>(tracks.size());
+            Set<String> present = new HashSet<>();
+            int lastNo = 0;
+            for (Track t : tracks) {
+                String mid = t.getMusicId();
+                if (!target && mid != null && sel.contains(mid)) continue;
+                if (mid != null) present.add(mid);
+                if (t.getTrackNo() != null && t.getTrackNo().canConvertToInt()) lastNo = Math.max(lastNo, t.getTrackNo().asInt());
+                out.add(t);
+            }
+            if (target) {
+                for (Map.Entry<String, String> s : titles.entrySet()) {
+                    if (present.contains(s.getKey())) continue;
+                    Track t = new Track();
+                    t.setTrackNo(IntNode.valueOf(++lastNo));
+                    t.setTitle(s.getValue());
+                    t.setMusicId(s.getKey());
+                    out.add(t);
+                }
+            }
+            if (out.equals(tracks)) return item;
+            Album copy = album.copy();
+            copy.setTracks(out);
+            return copy;
+        });
+        return e;
+    }
+}
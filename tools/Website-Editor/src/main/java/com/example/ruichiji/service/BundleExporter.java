@@ -0,0 +1,300 @@
+package com.example.ruichiji.service;
+
+import com.example.ruichiji.model.CatalogItem;
+import com.example.ruichiji.model.JsonRecord;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Writes one pre-joined JSON bundle per detail page, so the website fetches a single small
+ * file instead of several whole catalogs:
+ *
+ *   track/<id>.json  { "item": music, "lyrics": "...", "movies": [...], "discography": [...] }
+ *   movie/<id>.json  { "item": movie, "music": [...] }
+ *   album/<id>.json  { "item": album, "music": [...] }
+ *   live/<id>.json   { "item": live event, "music": [...] }
+ *
+ * The arrays hold the related items in their catalog form, pre-filtered with the same (loose)
+ * matching main.js applies, so the page code runs its usual joins on a handful of items.
+ * Items are embedded as records (POJONode) and serialized straight from DataService's cache.
+ * Bundles are built and written in parallel on a fork-join pool; bundles of ids that no
+ * longer exist are removed. Ids that cannot be used as a file name are skipped.
+ *
+ * Last, a manifest (bundles.json) records what the bundles were built from:
+ *
+ *   { "catalogs" : { "music" : "<sha-256>", ... }, "stale" : [ ] }
+ *
+ * main.js only looks for bundles while the manifest exists and none of the kinds a page is
+ * built from is listed in "stale"; otherwise it reads the catalogs, without probing for
+ * bundles. DataService adds a kind (or "lyrics") to "stale" when it changes it, and
+ * validate() also compares the fingerprints, for edits made outside the editor.
+ */
+public final class BundleExporter {
+    public static final String MANIFEST = "bundles.json";
+
+    /** @param written bundles written, @param removed stale bundles deleted, @param skipped unusable ids */
+    public record Result(int written, int removed, int skipped, long millis) {}
+
+    private record Job(String dir, String id, ObjectNode bundle) {}
+
+    private final DataService ds;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public BundleExporter(DataService ds) {
+        this.ds = ds;
+    }
+
+    /** Export into outDir (normally DataService.getDataDir()). */
+    public Result export(Path outDir) throws IOException {
+        return export(outDir, ForkJoinPool.commonPool());
+    }
+
+    public Result export(Path outDir, ForkJoinPool pool) throws IOException {
+        long start = System.nanoTime();
+        List<CatalogItem> music = ds.readItems("music");
+        List<CatalogItem> movies = ds.readItems("movies");
+        List<CatalogItem> discography = ds.readItems("discography");
+        List<CatalogItem> live = ds.readItems("live");
+
+        Map<String, CatalogItem> musicById = new HashMap<>();
+        for (CatalogItem m : music) musicById.putIfAbsent(key(Catalog.idOf(m)), m);
+
+        // reverse links, so a track bundle only looks at the items that mention it
+        Map<String, List<CatalogItem>> moviesByMusic = new HashMap<>();
+        for (CatalogItem mv : movies) {
+            for (String k : musicIdsOfMovie(mv)) moviesByMusic.computeIfAbsent(k, x -> new ArrayList<>()).add(mv);
+        }
+        Map<String, List<CatalogItem>> albumsByMusic = new HashMap<>();
+        for (CatalogItem al : discography) {
+            for (String k : musicIdsOfAlbum(al)) albumsByMusic.computeIfAbsent(k, x -> new ArrayList<>()).add(al);
+        }
+
+        List<Runnable> builds = new ArrayList<>();
+        List<Job> jobs = Collections.synchronizedList(new ArrayList<>());
+        for (CatalogItem m : music) builds.add(() -> jobs.add(trackBundle(m, moviesByMusic, albumsByMusic)));
+        for (CatalogItem mv : movies) builds.add(() -> jobs.add(withMusic("movie", mv, musicIdsOfMovie(mv), musicById)));
+        for (CatalogItem al : discography) builds.add(() -> jobs.add(withMusic("album", al, musicIdsOfAlbum(al), musicById)));
+        for (CatalogItem ev : live) builds.add(() -> jobs.add(liveBundle(ev, music)));
+
+        AtomicInteger skipped = new AtomicInteger();
+        Map<String, Set<String>> expected = new HashMap<>();
+        for (String dir : List.of("track", "movie", "album", "live")) expected.put(dir, new HashSet<>());
+        try {
+            pool.submit(() -> builds.parallelStream().forEach(Runnable::run)).get();
+            List<Job> usable = new ArrayList<>();
+            for (Job j : jobs) {
+                if (isSafeFileName(j.id())) {
+                    usable.add(j);
+                    expected.get(j.dir()).add(j.id() + ".json");
+                } else {
+                    skipped.incrementAndGet();
+                }
+            }
+            pool.submit(() -> usable.parallelStream().forEach(j -> {
+                try {
+                    byte[] bytes = mapper.writeValueAsBytes(j.bundle());
+                    AtomicFiles.write(outDir.resolve(j.dir()).resolve(j.id() + ".json"), bytes);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            })).get();
+            int removed = 0;
+            for (Map.Entry<String, Set<String>> e : expected.entrySet()) {
+                removed += removeStale(outDir.resolve(e.getKey()), e.getValue());
+            }
+            ObjectNode manifest = mapper.createObjectNode();
+            ObjectNode catalogs = manifest.putObject("catalogs");
+            catalogs.put("music", fingerprint(mapper, music));
+            catalogs.put("movies", fingerprint(mapper, movies));
+            catalogs.put("discography", fingerprint(mapper, discography));
+            catalogs.put("live", fingerprint(mapper, live));
+            manifest.putArray("stale");
+            // written last: until then a previous manifest still describes the old bundles
+            AtomicFiles.write(outDir.resolve(MANIFEST), mapper.writeValueAsBytes(manifest));
+            return new Result(usable.size(), removed, skipped.get(), (System.nanoTime() - start) / 1_000_000);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("export interrupted", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof UncheckedIOException u) throw u.getCause();
+            if (cause instanceof RuntimeException r) throw r;
+            throw new IOException(cause);
+        }
+    }
+
+    /** SHA-256 (hex) of the items as serialized; what the manifest compares a catalog by. */
+    static String fingerprint(ObjectMapper mapper, List<CatalogItem> items) throws IOException {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(mapper.writeValueAsBytes(items)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Add kind (a catalog kind or "lyrics") to the "stale" list of the manifest in dir, if
+     * there is one, and return that list; empty if there is no manifest.
+     */
+    static Set<String> markStale(Path dir, String kind, ObjectMapper mapper) throws IOException {
+        Path file = dir.resolve(MANIFEST);
+        if (!Files.exists(file)) return Set.of();
+        JsonNode manifest = mapper.readTree(file.toFile());
+        Set<String> stale = staleKinds(manifest);
+        if (stale.add(kind)) {
+            ArrayNode arr = ((ObjectNode) manifest).putArray("stale");
+            for (String k : stale) arr.add(k);
+            AtomicFiles.write(file, mapper.writeValueAsBytes(manifest));
+        }
+        return stale;
+    }
+
+    static Set<String> staleKinds(JsonNode manifest) throws IOException {
+        if (!manifest.isObject()) throw new IOException(MANIFEST + " is not a JSON object");
+        Set<String> stale = new TreeSet<>();
+        for (JsonNode k : manifest.path("stale")) stale.add(k.asText());
+        return stale;
+    }
+
+    private Job trackBundle(CatalogItem m, Map<String, List<CatalogItem>> moviesByMusic, Map<String, List<CatalogItem>> albumsByMusic) {
+        String id = Catalog.idOf(m);
+        ObjectNode b = mapper.createObjectNode();
+        b.putPOJO("item", m);
+        String lyricsFile = m.text("lyricsFile");
+        if (!lyricsFile.isBlank()) {
+            try {
+                String text = ds.readLyricsFile(lyricsFile);
+                if (text != null) b.put("lyrics", text);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+        b.set("movies", array(moviesByMusic.getOrDefault(key(id), List.of())));
+        b.set("discography", array(albumsByMusic.getOrDefault(key(id), List.of())));
+        return new Job("track", id, b);
+    }
+
+    private Job withMusic(String dir, CatalogItem item, Set<String> musicIds, Map<String, CatalogItem> musicById) {
+        ObjectNode b = mapper.createObjectNode();
+        b.putPOJO("item", item);
+        ArrayNode arr = b.putArray("music");
+        for (String k : musicIds) {
+            CatalogItem m = musicById.get(k);
+            if (m != null) arr.addPOJO(m);
+        }
+        return new Job(dir, Catalog.idOf(item), b);
+    }
+
+    /** Setlist entries match by id or, as on the site, by exact title. */
+    private Job liveBundle(CatalogItem ev, List<CatalogItem> music) {
+        Set<String> ids = new HashSet<>();
+        Set<String> titles = new HashSet<>();
+        for (JsonNode s : path(ev, "setlist")) {
+            if (s.hasNonNull("id")) ids.add(key(s.get("id").asText()));
+            if (s.hasNonNull("title")) titles.add(s.get("title").asText());
+        }
+        ObjectNode b = mapper.createObjectNode();
+        b.putPOJO("item", ev);
+        b.set("music", filter(music, m -> ids.contains(key(Catalog.idOf(m))) || titles.contains(m.getTitle())));
+        return new Job("live", Catalog.idOf(ev), b);
+    }
+
+    private ArrayNode array(List<CatalogItem> items) {
+        ArrayNode arr = mapper.createArrayNode();
+        for (CatalogItem n : items) arr.addPOJO(n);
+        return arr;
+    }
+
+    private ArrayNode filter(List<CatalogItem> items, Predicate<CatalogItem> p) {
+        ArrayNode arr = mapper.createArrayNode();
+        for (CatalogItem n : items) if (p.test(n)) arr.addPOJO(n);
+        return arr;
+    }
+
+    /** musicID, musicIDs[], tracks[].musicID and the legacy track/track_id/tracks[].id (see findMoviesByMusicId). */
+    static Set<String> musicIdsOfMovie(CatalogItem mv) {
+        Set<String> out = new HashSet<>();
+        addText(out, mv.get("musicID"));
+        addText(out, mv.get("track"));
+        addText(out, mv.get("track_id"));
+        for (JsonNode x : path(mv, "musicIDs")) addText(out, x);
+        for (JsonNode t : path(mv, "tracks")) {
+            addText(out, t.get("musicID"));
+            addText(out, t.get("id"));
+        }
+        return out;
+    }
+
+    /** Track entries may be plain ids or objects with any of the keys renderAlbumPage accepts. */
+    static Set<String> musicIdsOfAlbum(CatalogItem al) {
+        Set<String> out = new HashSet<>();
+        for (JsonNode t : path(al, "tracks")) {
+            if (t.isTextual()) {
+                addText(out, t);
+                continue;
+            }
+            for (String k : new String[]{"musicID", "musicId", "music_id", "id", "track", "track_id"}) {
+                addText(out, t.get(k));
+            }
+        }
+        return out;
+    }
+
+    /** Like JsonNode.path: a missing member reads as an empty MissingNode. */
+    private static JsonNode path(JsonRecord r, String name) {
+        JsonNode n = r.get(name);
+        return n != null ? n : MissingNode.getInstance();
+    }
+
+    private static void addText(Set<String> out, JsonNode v) {
+        if (v != null && v.isValueNode() && !v.asText().isBlank()) out.add(key(v.asText()));
+    }
+
+    /** The site compares ids trimmed and case-insensitively; bundles are a superset of that. */
+    private static String key(String id) {
+        return id.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isSafeFileName(String id) {
+        return !id.isBlank() && !id.startsWith(".") && id.chars().noneMatch(c -> c == '/' || c == '\\' || c == ':' || c < 0x20);
+    }
+
+    private static int removeStale(Path dir, Set<String> keep) throws IOException {
+        if (!Files.isDirectory(dir)) return 0;
+        int removed = 0;
+        try (DirectoryStream<Path> s = Files.newDirectoryStream(dir, "*.json")) {
+            for (Path p : s) {
+                if (!keep.contains(p.getFileName().toString())) {
+                    Files.deleteIfExists(p);
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+}
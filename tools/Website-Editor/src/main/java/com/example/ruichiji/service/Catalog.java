@@ -0,0 +1,287 @@
+package com.example.ruichiji.service;
+
+import com.example.ruichiji.model.CatalogItem;
+import com.example.ruichiji.model.Items;
+
+import java.io.IOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory copy of one catalog file (dataDir/<kind>.json), as typed records (see
+ * com.example.ruichiji.model.Items for the class of each kind).
+ *
+ * The items are loaded once and kept until the file on disk no longer matches the
+ * stamp (mtime + size) recorded at load/write time. All access goes through DataService,
+ * which synchronizes on the Catalog instance.
+ *
+ * An id -> position index answers get/upsert/delete without scanning. Positions are stored
+ * relative to an offset, so an insert or delete rewrites only the entries on the shorter side
+ * of it (an insert at the top, the usual case, none at all). Duplicate ids found while
+ * building the index are recorded (the first occurrence wins, as the old linear scan did);
+ * validate() reports them. While there are any, edits rebuild the index instead.
+ *
+ * Single-item edits are appended to the catalog's journal; the in-memory items are
+ * "catalog file + journal replayed". Freshness therefore checks both files.
+ * {@link #fileLock} serialises whole-file writes (writeList, compaction) and is always taken
+ * before the Catalog monitor; {@link #lock}, the lock shared with other processes, is only
+ * taken while holding the monitor.
+ *
+ * Records in the cache are the stored items: storing one clears its baseVersion, so copies
+ * made from it are based on it (see CatalogItem.copy). A reload does not touch the records it
+ * drops; it only remembers them, by identity and weakly held (see isRetired), because callers
+ * may still pass them to a whole-list write.
+ */
+final class Catalog {
+    final String kind;
+    final Path file;
+    final CatalogJournal journal;
+    final CatalogLock lock;
+    final Object fileLock = new Object();
+
+    private List<CatalogItem> items = new ArrayList<>();
+    private FileStamp stamp;   // null until loaded
+    private FileStamp journalStamp = FileStamp.MISSING;
+    boolean compactionScheduled;
+    RepairReport repairedOnLoad;   // the last repair a load had to make (see DataService.validate)
+
+    private final Map<String, Integer> index = new HashMap<>();   // id -> position - offset
+    private int offset;
+    private boolean indexStale = true;
+    private Set<String> duplicateIds = Set.of();
+    private final Retired retired = new Retired();
+
+    Catalog(String kind, Path file, CatalogJournal journal, CatalogLock lock) {
+        this.kind = kind;
+        this.file = file;
+        this.journal = journal;
+        this.lock = lock;
+    }
+
+    boolean isLoaded() {
+        return stamp != null;
+    }
+
+    /** True if the catalog file and journal on disk still match what we loaded or last wrote. */
+    boolean isFresh() throws IOException {
+        return stamp != null && stamp.equals(FileStamp.of(file)) && journalStamp.equals(FileStamp.of(journal.file));
+    }
+
+    void replace(List<CatalogItem> newItems, FileStamp newStamp) {
+        for (CatalogItem n : newItems) n.setBaseVersion(null);
+        this.items = newItems;
+        this.stamp = newStamp;
+        this.indexStale = true;
+    }
+
+    /** Remember the current items as dropped by a reload; call before replace. */
+    void retireItems() {
+        retired.addAll(items);
+    }
+
+    /** True if a reload dropped this very record (an unchanged version of what was stored then). */
+    boolean isRetired(CatalogItem item) {
+        return retired.contains(item);
+    }
+
+    void setStamp(FileStamp newStamp) {
+        this.stamp = newStamp;
+    }
+
+    /** Size of the catalog file as last loaded or written (0 if missing/unknown). */
+    long fileSize() {
+        return stamp == null ? 0L : Math.max(0L, stamp.size());
+    }
+
+    void setJournalStamp(FileStamp newStamp) {
+        this.journalStamp = newStamp;
+    }
+
+    List<CatalogItem> items() {
+        return items;
+    }
+
+    CatalogItem get(String id) {
+        Integer pos = position(id);
+        return pos == null ? null : items.get(pos);
+    }
+
+    /**
+     * Replace the item with the same id in place, or insert it at the top (newest first).
+     * Returns the replaced item, or null for an insert.
+     */
+    CatalogItem upsert(String id, CatalogItem item) {
+        item.setBaseVersion(null);
+        Integer pos = position(id);
+        if (pos != null) {
+            return items.set(pos, item);
+        }
+        items.add(0, item);
+        indexAdded(0, id);
+        return null;
+    }
+
+    /** Insert a new item at index (clamped to the list), e.g. to put a deleted item back where it was. */
+    void insert(int index, CatalogItem item) {
+        item.setBaseVersion(null);
+        int pos = Math.max(0, Math.min(index, items.size()));
+        items.add(pos, item);
+        indexAdded(pos, idOf(item));
+    }
+
+    /** Position of the item with this id, or -1. */
+    int indexOf(String id) {
+        Integer pos = position(id);
+        return pos == null ? -1 : pos;
+    }
+
+    /**
+     * Remove the item with this id. If the id was reported as duplicate, every copy is removed
+     * (matching the old removeIf behaviour). Returns the removed item, or null if absent.
+     */
+    CatalogItem delete(String id) {
+        Integer pos = position(id);
+        if (pos == null) return null;
+        CatalogItem removed = items.remove((int) pos);
+        if (!duplicateIds.isEmpty()) {
+            if (duplicateIds.contains(id)) items.removeIf(n -> id.equals(idOf(n)));
+            indexStale = true;
+        } else {
+            index.remove(id);
+            shift(pos, -1);
+        }
+        return removed;
+    }
+
+    Set<String> duplicateIds() {
+        rebuildIndexIfStale();
+        return duplicateIds;
+    }
+
+    private Integer position(String id) {
+        if (id == null) return null;
+        rebuildIndexIfStale();
+        Integer k = index.get(id);
+        return k == null ? null : k + offset;
+    }
+
+    /** Index an item just added at pos. */
+    private void indexAdded(int pos, String id) {
+        if (indexStale) return;
+        if (!duplicateIds.isEmpty() || index.containsKey(id)) {
+            indexStale = true;
+            return;
+        }
+        shift(pos, 1);
+        index.put(id, pos - offset);
+    }
+
+    /**
+     * The items after an insert (d = 1) or delete (d = -1) at pos have moved by d. Rewrites
+     * whichever side is shorter: the moved items, or the ones before pos while the offset
+     * moves everything by d.
+     */
+    private void shift(int pos, int d) {
+        int from = d > 0 ? pos + 1 : pos;   // first moved item
+        if (pos < items.size() - from) {
+            offset += d;
+            for (int i = 0; i < pos; i++) index.merge(idOf(items.get(i)), -d, Integer::sum);
+        } else {
+            for (int i = from; i < items.size(); i++) index.merge(idOf(items.get(i)), d, Integer::sum);
+        }
+    }
+
+    private void rebuildIndexIfStale() {
+        if (!indexStale) return;
+        index.clear();
+        offset = 0;
+        Set<String> dups = new LinkedHashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            String id = idOf(items.get(i));
+            if (index.putIfAbsent(id, i) != null) dups.add(id);
+        }
+        duplicateIds = dups.isEmpty() ? Set.of() : dups;
+        indexStale = false;
+    }
+
+    /**
+     * Identity set of records that only the garbage collector removes: one weak reference per
+     * record, found by identity hash code, so adding a whole catalog hashes no content.
+     */
+    private static final class Retired {
+        private final ReferenceQueue<CatalogItem> queue = new ReferenceQueue<>();
+        private final Map<Integer, List<Ref>> byHash = new HashMap<>();
+
+        private static final class Ref extends WeakReference<CatalogItem> {
+            final int hash;
+
+            Ref(CatalogItem item, ReferenceQueue<CatalogItem> queue) {
+                super(item, queue);
+                this.hash = System.identityHashCode(item);
+            }
+        }
+
+        void addAll(List<CatalogItem> items) {
+            expunge();
+            for (CatalogItem n : items) {
+                Ref r = new Ref(n, queue);
+                byHash.computeIfAbsent(r.hash, k -> new ArrayList<>(1)).add(r);
+            }
+        }
+
+        boolean contains(CatalogItem item) {
+            expunge();
+            List<Ref> refs = byHash.get(System.identityHashCode(item));
+            if (refs == null) return false;
+            for (Ref r : refs) {
+                if (r.get() == item) return true;
+            }
+            return false;
+        }
+
+        private void expunge() {
+            Ref r;
+            while ((r = (Ref) queue.poll()) != null) {
+                List<Ref> refs = byHash.get(r.hash);
+                if (refs != null && refs.remove(r) && refs.isEmpty()) byHash.remove(r.hash);
+            }
+        }
+    }
+
+    static String idOf(CatalogItem n) {
+        return Items.idOf(n);
+    }
+
+    /** Shallow copy: callers may reorder/add/remove freely without touching the cache. */
+    List<CatalogItem> snapshot() {
+        return new ArrayList<>(items);
+    }
+
+    /**
+     * Last-modified time, size and file key (the inode, where the platform has one) of a file;
+     * MISSING when the file does not exist. The key tells a file renamed into place by another
+     * process from the one we read even if time and size happen to match.
+     */
+    record FileStamp(long modifiedMillis, long size, Object key) {
+        static final FileStamp MISSING = new FileStamp(-1L, -1L, null);
+
+        static FileStamp of(Path p) throws IOException {
+            try {
+                BasicFileAttributes a = Files.readAttributes(p, BasicFileAttributes.class);
+                return new FileStamp(a.lastModifiedTime().toMillis(), a.size(), a.fileKey());
+            } catch (NoSuchFileException ex) {
+                return MISSING;
+            }
+        }
+    }
+}
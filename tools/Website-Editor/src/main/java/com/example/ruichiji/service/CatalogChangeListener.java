@@ -0,0 +1,17 @@
+package com.example.ruichiji.service;
+
+import java.util.Set;
+
+/**
+ * Notified when files under assets/data change on disk behind the editor's back
+ * (git pull, scripts, another editor). Called on the watcher thread; UI code must hop to its
+ * own thread. See DataService.startWatching().
+ */
+public interface CatalogChangeListener {
+
+    /** A loaded catalog was reloaded; delta holds only what actually changed. */
+    void catalogChanged(CatalogDelta delta);
+
+    /** Lyrics files (names under assets/data/lyrics) were created, modified or deleted. */
+    default void lyricsChanged(Set<String> fileNames) {}
+}
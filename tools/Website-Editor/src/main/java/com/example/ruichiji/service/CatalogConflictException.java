@@ -0,0 +1,31 @@
+package com.example.ruichiji.service;
+
+import java.util.List;
+
+/**
+ * Thrown by a save that would overwrite changes another editor committed since the items
+ * were read. Nothing of the save was written; the cache has been brought up to date, so the
+ * items can be read again and the edit redone on top of them.
+ */
+public class CatalogConflictException extends IllegalStateException {
+    private static final long serialVersionUID = 1L;
+
+    private final transient List<ItemConflict> conflicts;   // the message keeps them in text form
+
+    public CatalogConflictException(List<ItemConflict> conflicts) {
+        super(message(conflicts));
+        this.conflicts = List.copyOf(conflicts);
+    }
+
+    /** Every conflicting item, in catalog order. */
+    public List<ItemConflict> conflicts() {
+        return conflicts;
+    }
+
+    private static String message(List<ItemConflict> conflicts) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(conflicts.size() == 1 ? "1 item was not saved:" : conflicts.size() + " items were not saved:");
+        for (ItemConflict c : conflicts) sb.append('\n').append(c);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.ruichiji.service;
+
+import com.example.ruichiji.model.CatalogItem;
+
+import java.util.List;
+
+/**
+ * Difference between two versions of a catalog, by item id.
+ *
+ * @param added   items whose id was not present before (in catalog order)
+ * @param removed ids that are no longer present
+ * @param changed items whose id existed before but whose content differs
+ */
+public record CatalogDelta(String kind, List<CatalogItem> added, List<String> removed, List<CatalogItem> changed) {
+
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.ruichiji.service;
+
+import com.example.ruichiji.model.CatalogItem;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only edit log for one catalog (dataDir/.journal/<kind>.journal).
+ *
+ * One compact JSON record per line:
+ *   { "op" : "upsert", "item" : { ... } }
+ *   { "op" : "upsert", "item" : { ... }, "index" : 12 }   // a new item goes to index, not the top
+ *   { "op" : "delete", "id" : "..." }
+ *
+ * Records are idempotent, so replaying a journal on top of a catalog file that already
+ * contains some of its edits (crash between compaction and truncation) is harmless.
+ * A torn last line from an interrupted append is ignored on replay, and the next append
+ * starts a new line after it; the lines skipped by the last read are kept for
+ * DataService.validate (see {@link #skippedLines()}).
+ *
+ * The directory starts with '.', so Jekyll does not publish it.
+ *
+ * DataService replays the journal on load and compacts it back into <kind>.json on a
+ * background thread once it grows past a quarter of the catalog size (at least
+ * MIN_COMPACT_BYTES), and for every kind on close(). Until then <kind>.json does not show the
+ * journaled edits.
+ *
+ * Appends go to the OS immediately and are fsynced in groups (leader/follower): appends are
+ * numbered, and a writer calls {@link #awaitSynced(long)}, holding no other lock, with the
+ * number of its own append. If no force() is running it leads one at once, covering every
+ * append made so far; writers that arrive while it runs wait and the first of them leads the
+ * next one for all of them. A lone writer therefore pays one fsync per edit and no delay, and
+ * concurrent writers share the flushes. An edit is only reported done once it is on disk.
+ */
+final class CatalogJournal {
+    static final String OP_UPSERT = "upsert";
+    static final String OP_DELETE = "delete";
+    private static final long COPY_CHUNK = 1 << 20;
+
+    final Path file;
+    private final ObjectMapper mapper;
+    private volatile FileChannel channel;   // opened lazily in append mode; read by sync leaders
+    // guarded by this:
+    private long appended;         // appends through this instance, numbering them
+    private long attempted;        // appends covered by a finished force()
+    private long durable;          // appends covered by a successful force()
+    private boolean flushing;      // a leader is running force()
+    private IOException syncFailure;   // of the last failed force()
+    private List<Integer> skipped = List.of();   // unreadable lines of the last readRecords
+
+    CatalogJournal(Path file, ObjectMapper mapper) {
+        this.file = file;
+        this.mapper = mapper;
+    }
+
+    ObjectNode upsertRecord(CatalogItem item) {
+        ObjectNode rec = mapper.createObjectNode();
+        rec.put("op", OP_UPSERT);
+        rec.putPOJO("item", item); // serialized member by member, like the catalog file
+        return rec;
+    }
+
+    /** An upsert that inserts the item at index if it does not exist yet (undo of a delete). */
+    ObjectNode upsertRecord(CatalogItem item, int index) {
+        return upsertRecord(item).put("index", index);
+    }
+
+    ObjectNode deleteRecord(String id) {
+        ObjectNode rec = mapper.createObjectNode();
+        rec.put("op", OP_DELETE);
+        rec.put("id", id);
+        return rec;
+    }
+
+    void append(ObjectNode record) throws IOException {
+        byte[] body = mapper.writeValueAsBytes(record);
+        ByteBuffer buf = ByteBuffer.allocate(body.length + 1);
+        buf.put(body).put((byte) '\n').flip();
+        FileChannel ch = channel();
+        while (buf.hasRemaining()) ch.write(buf);
+        synchronized (this) {
+            appended++;
+        }
+    }
+
+    /** Number of the last append (0: none yet); pass it to awaitSynced. */
+    synchronized long appended() {
+        return appended;
+    }
+
+    /** fsync everything appended so far now (close, flush). Caller holds the Catalog monitor. */
+    void sync() throws IOException {
+        long through;
+        synchronized (this) {
+            through = appended;
+            if (durable >= through) return;
+        }
+        FileChannel ch = channel;
+        try {
+            if (ch != null && ch.isOpen()) ch.force(false);
+        } catch (IOException ex) {
+            synced(through, ex, false);
+            throw ex;
+        }
+        synced(through, null, false);
+    }
+
+    /**
+     * Return once a force() has covered append number n, leading one if none is running;
+     * throws if the force() covering it failed. Called without the Catalog monitor.
+     */
+    void awaitSynced(long n) throws IOException {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                long through;
+                synchronized (this) {
+                    while (flushing && attempted < n) {
+                        try {
+                            wait();
+                        } catch (InterruptedException ex) {
+                            interrupted = true; // the record is written; only its fsync is pending
+                        }
+                    }
+                    if (attempted >= n) {
+                        if (durable < n) throw new IOException("could not sync " + file.getFileName(), syncFailure);
+                        return;
+                    }
+                    flushing = true;   // lead: one force() for everything appended so far
+                    through = appended;
+                }
+                FileChannel ch = channel;
+                try {
+                    if (ch != null) ch.force(false);
+                    synced(through, null, true);
+                } catch (IOException ex) {
+                    // a channel closeChannel closed meanwhile was synced by it first: durable
+                    // already covers it, so this is no failure (see synced)
+                    synced(through, ex, true);
+                }
+            }
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized void synced(long through, IOException failure, boolean leader) {
+        if (leader) flushing = false;
+        attempted = Math.max(attempted, through);
+        if (failure == null) durable = Math.max(durable, through);
+        else if (durable < through) syncFailure = failure;
+        notifyAll();
+    }
+
+    /** All complete records in file order; empty if there is no journal. */
+    List<JsonNode> readRecords() throws IOException {
+        List<JsonNode> out = new ArrayList<>();
+        List<Integer> bad = new ArrayList<>();
+        skipped = List.of();
+        if (!Files.exists(file)) return out;
+        try (BufferedReader r = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNo = 0;
+            while ((line = r.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) continue;
+                try {
+                    out.add(mapper.readTree(line));
+                } catch (IOException ex) {
+                    // most likely a torn append at the end; skip rather than refuse to load
+                    bad.add(lineNo);
+                }
+            }
+        }
+        skipped = List.copyOf(bad);
+        return out;
+    }
+
+    /** 1-based numbers of the lines the last readRecords could not parse and skipped. */
+    List<Integer> skippedLines() {
+        return skipped;
+    }
+
+    long size() throws IOException {
+        return Files.exists(file) ? Files.size(file) : 0L;
+    }
+
+    /**
+     * Drop the first {@code offset} bytes (already folded into the catalog file) and keep
+     * anything appended after them. The tail is copied in COPY_CHUNK pieces into the file
+     * that replaces the journal, so its size does not matter.
+     */
+    void dropHead(long offset) throws IOException {
+        closeChannel();
+        skipped = List.of();   // line numbers change; the next read finds what is left
+        long size = size();
+        if (offset >= size) {
+            Files.deleteIfExists(file);
+            return;
+        }
+        AtomicFiles.write(file, os -> {
+            try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+                WritableByteChannel out = Channels.newChannel(os);   // not closed: prepare() owns os
+                for (long pos = offset; pos < size; ) {
+                    long n = in.transferTo(pos, Math.min(COPY_CHUNK, size - pos), out);
+                    if (n <= 0) throw new EOFException(file + " ended at " + pos + " instead of " + size);
+                    pos += n;
+                }
+            }
+        });
+    }
+
+    void clear() throws IOException {
+        closeChannel();
+        skipped = List.of();
+        Files.deleteIfExists(file);
+    }
+
+    void closeChannel() throws IOException {
+        if (channel != null) {
+            sync();
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            Files.createDirectories(file.getParent());
+            boolean torn = endsTorn();
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            // otherwise the next record would be glued to the torn one and skipped with it
+            if (torn) channel.write(ByteBuffer.wrap(new byte[] {'\n'}));
+        }
+        return channel;
+    }
+
+    /** True if the journal ends in the middle of a line (an append was interrupted). */
+    private boolean endsTorn() throws IOException {
+        if (!Files.exists(file)) return false;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size == 0) return false;
+            ByteBuffer last = ByteBuffer.allocate(1);
+            ch.read(last, size - 1);
+            return last.get(0) != '\n';
+        }
+    }
+}
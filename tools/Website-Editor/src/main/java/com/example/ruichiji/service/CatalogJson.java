@@ -0,0 +1,141 @@
+package com.example.ruichiji.service;
+
+import com.example.ruichiji.model.CatalogItem;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.JsonEOFException;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Streaming reader/writer for catalog files.
+ *
+ * Reading walks the token stream and binds one item object at a time straight into its typed
+ * record (see com.example.ruichiji.model), so no trees are built except for members the
+ * record does not know. Writing emits { "items": [ ... ] } directly from the list with the
+ * same pretty printer that ObjectMapper.writerWithDefaultPrettyPrinter() uses; records keep
+ * their member order, so output is byte-identical to writing the original trees.
+ *
+ * Accepted input:
+ *   - top-level array: [ {...}, {...} ]
+ *   - object with "items" array: { "items": [ {...}, {...} ] } (other members are skipped)
+ * Anything else yields an empty list, as the tree-based reader did. A UTF-8 BOM is handled
+ * by Jackson's encoding detection.
+ */
+final class CatalogJson {
+    private final ObjectMapper mapper;
+    private final ObjectWriter itemWriter;   // no flush per item; the generator is flushed once at the end
+
+    CatalogJson(ObjectMapper mapper) {
+        this.mapper = mapper;
+        this.itemWriter = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    List<CatalogItem> read(Path p, Class<? extends CatalogItem> type) throws IOException {
+        return read(p, type, LoadMonitor.NONE);
+    }
+
+    List<CatalogItem> read(Path p, Class<? extends CatalogItem> type, LoadMonitor monitor) throws IOException {
+        long total = Files.size(p);
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(p), 64 * 1024)) {
+            return read(in, type, total, monitor);
+        }
+    }
+
+    List<CatalogItem> read(InputStream in, Class<? extends CatalogItem> type) throws IOException {
+        return read(in, type, -1L, LoadMonitor.NONE);
+    }
+
+    private List<CatalogItem> read(InputStream in, Class<? extends CatalogItem> type, long total, LoadMonitor monitor) throws IOException {
+        List<CatalogItem> out = new ArrayList<>();
+        try (JsonParser jp = mapper.getFactory().createParser(in)) {
+            JsonToken t = jp.nextToken();
+            if (t == JsonToken.START_ARRAY) {
+                readItems(jp, type, out, total, monitor);
+            } else if (t == JsonToken.START_OBJECT) {
+                while (jp.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = jp.getCurrentName();
+                    JsonToken v = jp.nextToken();
+                    if ("items".equals(name) && v == JsonToken.START_ARRAY) {
+                        out.clear(); // a repeated "items" member replaces the earlier one, as with readTree
+                        readItems(jp, type, out, total, monitor);
+                    } else {
+                        jp.skipChildren();
+                    }
+                }
+            }
+        }
+        return out;
+    }
+
+    /** Parser is positioned on START_ARRAY; consumes up to and including END_ARRAY. */
+    private void readItems(JsonParser jp, Class<? extends CatalogItem> type, List<CatalogItem> out, long total, LoadMonitor monitor) throws IOException {
+        JsonToken t;
+        while ((t = jp.nextToken()) != JsonToken.END_ARRAY) {
+            if (t == null) throw new JsonEOFException(jp, null, "unexpected end of items array");
+            if (monitor.isCancelled()) throw new CancellationException("load cancelled");
+            if (t == JsonToken.START_OBJECT) {
+                out.add(mapper.readValue(jp, type));
+            } else {
+                jp.skipChildren(); // non-object entries are ignored
+            }
+            if ((out.size() & 0xFF) == 0) monitor.progress(jp.getCurrentLocation().getByteOffset(), total);
+        }
+        monitor.progress(total, total);
+    }
+
+    /** Replace p atomically (temp file + fsync + rename, see AtomicFiles). */
+    void write(Path p, List<? extends CatalogItem> items) throws IOException {
+        write(p, items, LoadMonitor.NONE);
+    }
+
+    /** write with progress as items written out of items.size() (cancellation is not polled). */
+    void write(Path p, List<? extends CatalogItem> items, LoadMonitor monitor) throws IOException {
+        AtomicFiles.write(p, os -> write(os, items, monitor));
+    }
+
+    /**
+     * First half of write(): the catalog in an fsynced temp file next to p, for
+     * AtomicFiles.publish. The caller must publish or delete it.
+     */
+    Path prepare(Path p, List<? extends CatalogItem> items, LoadMonitor monitor) throws IOException {
+        return AtomicFiles.prepare(p, os -> write(os, items, monitor));
+    }
+
+    /** Writes the catalog to os; os is flushed but left open. */
+    void write(OutputStream os, List<? extends CatalogItem> items) throws IOException {
+        write(os, items, LoadMonitor.NONE);
+    }
+
+    private void write(OutputStream os, List<? extends CatalogItem> items, LoadMonitor monitor) throws IOException {
+        try (JsonGenerator g = mapper.getFactory().createGenerator(os, JsonEncoding.UTF8)) {
+            g.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            g.setPrettyPrinter(new DefaultPrettyPrinter());
+            g.writeStartObject();
+            g.writeFieldName("items");
+            g.writeStartArray();
+            int n = 0;
+            for (CatalogItem item : items) {
+                itemWriter.writeValue(g, item);
+                if ((++n & 0xFF) == 0) monitor.progress(n, items.size());
+            }
+            g.writeEndArray();
+            g.writeEndObject();
+        }
+        monitor.progress(items.size(), items.size());
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.ruichiji.service;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Inter-process lock of one catalog: an exclusive FileChannel lock on
+ * dataDir/.journal/<kind>.lock, so editors running on the same checkout take turns at
+ * committing to <kind>.json and its journal.
+ *
+ * It is held for the commit window only: checking the files for what other editors
+ * committed, merging, appending to the journal or renaming a prepared file into place.
+ * Loading and formatting happen outside it. In the window DataService first reloads what
+ * the others committed and then merges the save instead of applying it blindly (see
+ * CatalogMerge); items changed on both sides are reported in a CatalogConflictException and
+ * nothing is written.
+ *
+ * OS file locks belong to the whole JVM (a second channel on the same file in the same
+ * process would fail or, on close, drop the first one's lock), so there is one instance per
+ * file, shared by every DataService of the process, with a ReentrantLock for the threads of
+ * this process. acquire() may be nested; the file lock is taken by the outermost call.
+ */
+final class CatalogLock {
+    private static final Map<Path, CatalogLock> LOCKS = new ConcurrentHashMap<>();
+
+    private final Path file;
+    private final ReentrantLock local = new ReentrantLock();
+    private FileChannel channel;   // opened on first use and kept open; guarded by local
+    private FileLock lock;
+
+    private CatalogLock(Path file) {
+        this.file = file;
+    }
+
+    static CatalogLock of(Path file) {
+        return LOCKS.computeIfAbsent(file.toAbsolutePath().normalize(), CatalogLock::new);
+    }
+
+    /** Wait until no other thread or process holds the lock and take it. */
+    void acquire() throws IOException {
+        local.lock();
+        if (local.getHoldCount() > 1) return;
+        try {
+            if (channel == null || !channel.isOpen()) {
+                Files.createDirectories(file.getParent());
+                channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            }
+            lock = channel.lock();
+        } catch (IOException | RuntimeException ex) {
+            local.unlock();
+            throw ex;
+        }
+    }
+
+    void release() throws IOException {
+        try {
+            if (local.getHoldCount() == 1 && lock != null) {
+                FileLock l = lock;
+                lock = null;
+                l.release();
+            }
+        } finally {
+            local.unlock();
+        }
+    }
+}
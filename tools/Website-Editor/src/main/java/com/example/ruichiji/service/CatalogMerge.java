@@ -0,0 +1,133 @@
+package com.example.ruichiji.service;
+
+import com.example.ruichiji.model.CatalogItem;
+import com.example.ruichiji.model.Items;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Three-way merge of one catalog, item by item (by id), for saves that find that another
+ * editor committed since the catalog was loaded:
+ *
+ *   view   - the items as this process last loaded them (what the caller read)
+ *   ours   - what the caller wants stored
+ *   theirs - the items on disk now
+ *
+ * The base of an item of ours is the version it was copied from (CatalogItem.baseVersion)
+ * or, for records that are not copies, the view's item with the same id. A record a reload
+ * dropped (Catalog.isRetired: the caller read it before that reload) is an unchanged version
+ * of what was stored then, so theirs is taken for it without hashing either. An item changed
+ * on one side only takes that side (including a deletion); the same change on both sides is
+ * no conflict; anything else is an ItemConflict. Items only in theirs that the view did not
+ * have were added by the other editor and are kept, after the item they follow there.
+ *
+ * When nobody else committed, theirs is the view: items of ours that are the cached records
+ * themselves are taken as they are without comparing anything, and only copies are checked
+ * against their base version.
+ *
+ * Single-item saves go through resolve: upsert of a copy is refused if the stored item is no
+ * longer the version it was copied from (a content hash); patch relies on its test ops
+ * instead (JsonPatch.checkedDiff). Whole-list writes (writeItems, writeList, applyBulk) are
+ * merged against the catalog as this process last loaded it, so callers build the list from
+ * readItems right before: items another editor added before a later reload (any call may
+ * reload) are part of that view, and a list without them deletes them.
+ */
+final class CatalogMerge {
+
+    private CatalogMerge() {}
+
+    /** The merged items; conflicts are added to conflicts (the result is then not to be stored). */
+    static List<CatalogItem> merge(String kind, List<CatalogItem> view, List<? extends CatalogItem> ours,
+                                   List<CatalogItem> theirs, Predicate<CatalogItem> retired,
+                                   List<ItemConflict> conflicts) {
+        Map<String, CatalogItem> viewById = byId(view);
+        Map<String, CatalogItem> theirsById = view == theirs ? viewById : byId(theirs);
+        Set<String> oursIds = new HashSet<>(ours.size() * 2);
+        List<CatalogItem> out = new ArrayList<>(ours.size());
+        for (CatalogItem x : ours) {
+            String id = Catalog.idOf(x);
+            if (!oursIds.add(id)) {
+                out.add(x); // a repeated id is written as given, as before
+                continue;
+            }
+            CatalogItem t = theirsById.get(id);
+            CatalogItem r = x == t ? x : resolve(kind, x, viewById.get(id), t, retired, conflicts);
+            if (r != null) out.add(r);
+        }
+        if (view == theirs) return out; // every item not in ours was dropped by ours
+
+        // items only in theirs: added there (kept) or deleted here (dropped unless changed there)
+        Map<String, List<CatalogItem>> after = new HashMap<>();
+        List<CatalogItem> head = new ArrayList<>();
+        Set<String> outIds = new HashSet<>(out.size() * 2);
+        for (CatalogItem n : out) outIds.add(Catalog.idOf(n));
+        String anchor = null;
+        Set<String> seen = new HashSet<>(theirs.size() * 2);
+        for (CatalogItem t : theirs) {
+            String id = Catalog.idOf(t);
+            if (!seen.add(id)) continue;
+            if (outIds.contains(id)) {
+                anchor = id;
+                continue;
+            }
+            if (oursIds.contains(id)) continue; // ours took their deletion
+            CatalogItem v = viewById.get(id);
+            if (v != null) {
+                if (t != v && !t.equals(v)) conflicts.add(new ItemConflict(kind, id, "removed"));
+                continue;
+            }
+            (anchor == null ? head : after.computeIfAbsent(anchor, k -> new ArrayList<>())).add(t);
+        }
+        if (head.isEmpty() && after.isEmpty()) return out;
+        List<CatalogItem> merged = new ArrayList<>(out.size() + head.size() + after.size());
+        merged.addAll(head);
+        for (CatalogItem n : out) {
+            merged.add(n);
+            List<CatalogItem> follow = after.remove(Catalog.idOf(n));
+            if (follow != null) merged.addAll(follow);
+        }
+        return merged;
+    }
+
+    /**
+     * What to store for one id: ours x, theirs t (null: absent on disk) or null for neither.
+     * v is the view's item (null: absent when loaded). Adds a conflict if both sides changed it.
+     */
+    static CatalogItem resolve(String kind, CatalogItem x, CatalogItem v, CatalogItem t,
+                               Predicate<CatalogItem> retired, List<ItemConflict> conflicts) {
+        if (t != null && x.equals(t)) return x;
+        String base = x.baseVersion();
+        if (base == null && x != v && retired.test(x)) return t;
+        boolean oursChanged;
+        boolean theirsChanged;
+        if (base == null) {
+            // not a copy: based on the view
+            oursChanged = x != v && (v == null || !x.equals(v));
+            theirsChanged = t != v && (t == null || v == null || !t.equals(v));
+        } else if (base.equals(Items.NEW)) {
+            oursChanged = true;
+            theirsChanged = t != null;
+        } else {
+            theirsChanged = t == null || !base.equals(Items.version(t));
+            // x is only hashed when it matters
+            oursChanged = theirsChanged && !base.equals(Items.version(x));
+        }
+        if (!theirsChanged) return x;
+        if (!oursChanged) return t;
+        String code = t == null ? "deleted" : (base == null && v == null) || Items.NEW.equals(base) ? "exists" : "changed";
+        conflicts.add(new ItemConflict(kind, Catalog.idOf(x), code));
+        return t;
+    }
+
+    private static Map<String, CatalogItem> byId(List<CatalogItem> items) {
+        Map<String, CatalogItem> m = new HashMap<>(items.size() * 2);
+        for (CatalogItem n : items) m.putIfAbsent(Catalog.idOf(n), n);
+        return m;
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.ruichiji.service;
+
+import com.example.ruichiji.model.CatalogItem;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recovers the complete item objects of a damaged catalog file.
+ *
+ * One forward pass over the bytes finds the items array ({ "items": [...] } or a top-level
+ * array) and the extent of each item object, tracking brace depth and string/escape state;
+ * each extent is then parsed on its own, so one bad item costs only its own bytes. When an
+ * item is cut off or does not parse (e.g. a lost quote that made the scan run on into the
+ * following items), scanning resumes at the next position that looks like the start of an
+ * item: a '{' after "}," where that '}' sits at the items' indentation (learnt from the first
+ * good item, CatalogJson writes 2), or a '{' whose first member is "id". Everything skipped is
+ * reported as a byte range.
+ *
+ * Multi-byte UTF-8 sequences never contain ASCII bytes, so working on raw bytes is safe.
+ */
+final class CatalogSalvage {
+
+    /** @param complete the items array (and object around it) was closed properly */
+    record Result(List<CatalogItem> items, List<RepairReport.Dropped> dropped, boolean complete) {
+
+        /** Nothing dropped and nothing missing: the file did not need repairing. */
+        boolean intact() {
+            return complete && dropped.isEmpty();
+        }
+    }
+
+    private static final byte[] ID_KEY = ascii("\"id\"");
+    private static final byte[] ITEMS_KEY = ascii("\"items\"");
+
+    private final byte[] b;
+    private final ObjectReader reader;
+    private final List<CatalogItem> items = new ArrayList<>();
+    private final List<RepairReport.Dropped> dropped = new ArrayList<>();
+    private int itemIndent = 2;
+    private boolean complete;
+
+    private CatalogSalvage(byte[] b, ObjectReader reader) {
+        this.b = b;
+        this.reader = reader;
+    }
+
+    /** reader binds one item of the catalog's kind (ObjectMapper.readerFor(Items.typeOf(kind))). */
+    static Result salvage(byte[] content, ObjectReader reader) {
+        CatalogSalvage s = new CatalogSalvage(content, reader);
+        s.run();
+        return new Result(s.items, s.dropped, s.complete);
+    }
+
+    private void run() {
+        int start = hasBom() ? 3 : 0;
+        int arr = findItemsArray(start);
+        if (arr < 0) {
+            if (skipWs(start) < b.length) drop(start, b.length, "no items array");
+            return;
+        }
+        int p = arr + 1;
+        while (true) {
+            p = skipWs(p);
+            while (p < b.length && b[p] == ',') p = skipWs(p + 1);
+            if (p >= b.length) return; // truncated between items
+            if (b[p] == ']') {
+                complete = isClosedAfter(p + 1);
+                return;
+            }
+            if (b[p] != '{') {
+                int next = nextItemStart(p);
+                drop(p, next < 0 ? b.length : next, "unexpected data");
+                if (next < 0) return;
+                p = next;
+                continue;
+            }
+            int end = scanValue(p);
+            if (end < 0) { // cut off, or a lost quote/brace made the scan run to the end
+                int next = nextItemStart(p + 1);
+                drop(p, next < 0 ? b.length : next, next < 0 ? "truncated item" : "damaged item");
+                if (next < 0) return;
+                p = next;
+                continue;
+            }
+            CatalogItem item = parseObject(p, end);
+            if (item != null) {
+                items.add(item);
+                learnIndent(end - 1);
+                p = end;
+                continue;
+            }
+            int next = nextItemStart(p + 1);
+            if (next >= 0 && next < end) { // the scan ran past the real end of this item
+                drop(p, next, "damaged item");
+                p = next;
+            } else {
+                drop(p, end, "damaged item");
+                p = end;
+            }
+        }
+    }
+
+    private void drop(int start, int end, String reason) {
+        if (end > start) dropped.add(new RepairReport.Dropped(start, end, reason));
+    }
+
+    private CatalogItem parseObject(int start, int end) {
+        try {
+            return reader.readValue(b, start, end - start);
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    /** Only whitespace (and the root object's '}' if the array was a member) follows p. */
+    private boolean isClosedAfter(int p) {
+        p = skipWs(p);
+        if (b[skipWs(hasBom() ? 3 : 0)] == '{') {
+            if (p >= b.length || b[p] != '}') return false;
+            p = skipWs(p + 1);
+        }
+        return p == b.length;
+    }
+
+    // ---- locating the array ----
+
+    /** Index of the '[' of the items array, or -1. */
+    private int findItemsArray(int start) {
+        int p = skipWs(start);
+        if (p >= b.length) return -1;
+        if (b[p] == '[') return p;
+        if (b[p] == '{') {
+            int found = findMember(p + 1, ITEMS_KEY);
+            if (found >= 0) return found;
+        }
+        // root structure damaged: fall back to the first "items" key, then the first '['
+        int key = indexOf(ITEMS_KEY, start);
+        int from = key < 0 ? start : key;
+        for (int i = from; i < b.length; i++) if (b[i] == '[') return i;
+        return -1;
+    }
+
+    /** Walks the members of an object; returns the index of the '[' value of key (quoted), or -1. */
+    private int findMember(int p, byte[] key) {
+        while (true) {
+            p = skipWs(p);
+            if (p >= b.length || b[p] != '"') return -1;
+            int keyEnd = scanString(p);
+            if (keyEnd < 0) return -1;
+            boolean match = keyEnd - p == key.length && regionMatches(p, key);
+            p = skipWs(keyEnd);
+            if (p >= b.length || b[p] != ':') return -1;
+            p = skipWs(p + 1);
+            if (p >= b.length) return -1;
+            if (match && b[p] == '[') return p;
+            p = scanValue(p);
+            if (p < 0) return -1;
+            p = skipWs(p);
+            if (p >= b.length || b[p] != ',') return -1;
+            p++;
+        }
+    }
+
+    // ---- scanning ----
+
+    /** End (exclusive) of the value starting at p, or -1 if the input ends first. */
+    private int scanValue(int p) {
+        byte c = b[p];
+        if (c == '"') return scanString(p);
+        if (c != '{' && c != '[') {
+            while (p < b.length && b[p] != ',' && b[p] != '}' && b[p] != ']' && !isWs(b[p])) p++;
+            return p;
+        }
+        int depth = 0;
+        for (int i = p; i < b.length; i++) {
+            c = b[i];
+            if (c == '"') {
+                i = scanString(i) - 1;
+                if (i < 0) return -1;
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                if (--depth == 0) return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /** p is on an opening quote; returns the index after the closing quote, or -1. */
+    private int scanString(int p) {
+        for (int i = p + 1; i < b.length; i++) {
+            if (b[i] == '\\') i++;
+            else if (b[i] == '"') return i + 1;
+        }
+        return -1;
+    }
+
+    /** Next '{' at or after from that looks like the start of an item, or -1. */
+    private int nextItemStart(int from) {
+        for (int i = from; i < b.length; i++) {
+            if (b[i] != '{') continue;
+            int q = skipWsBack(i - 1);
+            if (q >= 0 && (b[q] == ',' || b[q] == '[')) {
+                int r = skipWsBack(q - 1);
+                if (b[q] == ',' && r >= 0 && b[r] == '}' && indentOf(r) == itemIndent) return i;
+                if (startsWithIdMember(i)) return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean startsWithIdMember(int brace) {
+        return regionMatches(skipWs(brace + 1), ID_KEY);
+    }
+
+    private void learnIndent(int closingBrace) {
+        int indent = indentOf(closingBrace);
+        if (indent >= 0) itemIndent = indent;
+    }
+
+    /** Number of spaces between the previous newline and pos, or -1 if pos is not first on its line. */
+    private int indentOf(int pos) {
+        int i = pos - 1;
+        while (i >= 0 && b[i] == ' ') i--;
+        if (i >= 0 && b[i] != '\n' && b[i] != '\r') return -1;
+        return pos - 1 - i;
+    }
+
+    private int skipWs(int p) {
+        while (p < b.length && isWs(b[p])) p++;
+        return p;
+    }
+
+    private int skipWsBack(int p) {
+        while (p >= 0 && isWs(b[p])) p--;
+        return p;
+    }
+
+    private static boolean isWs(byte c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+
+    private boolean regionMatches(int p, byte[] s) {
+        if (p < 0 || p + s.length > b.length) return false;
+        for (int i = 0; i < s.length; i++) if (b[p + i] != s[i]) return false;
+        return true;
+    }
+
+    private int indexOf(byte[] s, int from) {
+        for (int i = from; i + s.length <= b.length; i++) if (regionMatches(i, s)) return i;
+        return -1;
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private boolean hasBom() {
+        return b.length >= 3 && (b[0] & 0xFF) == 0xEF && (b[1] & 0xFF) == 0xBB && (b[2] & 0xFF) == 0xBF;
+    }
+}
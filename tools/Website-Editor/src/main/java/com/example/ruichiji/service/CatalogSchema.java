@@ -0,0 +1,282 @@
+package com.example.ruichiji.service;
+
+import com.example.ruichiji.model.CatalogItem;
+import com.example.ruichiji.model.Items;
+import com.example.ruichiji.model.JsonRecord;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * What an item of one catalog kind may contain, declared in /schema/catalogs.json:
+ *
+ *   "music" : {
+ *     "body" : "description",                       // member edited in the main text area
+ *     "members" : { "duration" : { "type" : "text", "pattern" : "^(\\d+:)?\\d{1,2}:\\d{2}$" }, ... },
+ *     "unused" : [ "lyrics" ]                       // removed on save, reported as warnings
+ *   }
+ *
+ * Member types: text, date (yyyy-MM-dd), texts (array of text), number-or-text, variants
+ * ([{ "width" : n, "src" : "..." }]), lyrics (a lyricsFile path) and records (array of objects
+ * with their own "members"). A member may be "required" (present and not blank) and text
+ * may have a "pattern" (found anywhere in the value, use ^...$ to match all of it). Members
+ * that are neither declared nor unused are reported as unknown unless the kind is "open".
+ * "*" applies to kinds without an entry of their own.
+ *
+ * Each schema is compiled once into one Rule per member, so validating an item is a walk
+ * over its members with no lookups beyond the record's own. The editor uses the same
+ * schemas to decide what to write on save (see EditorController.onSave).
+ */
+public final class CatalogSchema {
+
+    public enum Type { TEXT, DATE, TEXTS, NUMBER_OR_TEXT, VARIANTS, LYRICS, RECORDS }
+
+    /** A declared member. records is the schema of the elements for RECORDS, else null. */
+    public record Member(String name, Type type, boolean required, Pattern pattern, CatalogSchema records) {}
+
+    private static final String RESOURCE = "/schema/catalogs.json";
+    private static final String DEFAULT = "*";
+
+    private final String kind;
+    private final String body;
+    private final Map<String, Member> members;
+    private final Set<String> unused;
+    private final boolean open;
+    private final Map<String, Rule> rules = new HashMap<>();
+
+    private CatalogSchema(String kind, JsonNode spec) {
+        this.kind = kind;
+        this.body = spec.path("body").asText("description");
+        this.open = spec.path("open").asBoolean(false);
+        Map<String, Member> ms = new LinkedHashMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> it = spec.path("members").fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> e = it.next();
+            Member m = member(kind, e.getKey(), e.getValue());
+            ms.put(m.name(), m);
+            rules.put(m.name(), compile(m));
+        }
+        this.members = Collections.unmodifiableMap(ms);
+        Set<String> un = new LinkedHashSet<>();
+        for (JsonNode n : spec.path("unused")) un.add(n.asText());
+        this.unused = Collections.unmodifiableSet(un);
+    }
+
+    private static Member member(String kind, String name, JsonNode spec) {
+        String type = spec.path("type").asText("");
+        Type t = switch (type) {
+            case "text" -> Type.TEXT;
+            case "date" -> Type.DATE;
+            case "texts" -> Type.TEXTS;
+            case "number-or-text" -> Type.NUMBER_OR_TEXT;
+            case "variants" -> Type.VARIANTS;
+            case "lyrics" -> Type.LYRICS;
+            case "records" -> Type.RECORDS;
+            default -> throw new IllegalStateException(RESOURCE + ": " + kind + "." + name + " has unknown type \"" + type + "\"");
+        };
+        Pattern p = spec.hasNonNull("pattern") ? Pattern.compile(spec.get("pattern").asText()) : null;
+        CatalogSchema records = t == Type.RECORDS ? new CatalogSchema(kind, spec) : null;
+        return new Member(name, t, spec.path("required").asBoolean(false), p, records);
+    }
+
+    private static final class Holder {
+        static final Map<String, CatalogSchema> SCHEMAS = load();
+
+        private static Map<String, CatalogSchema> load() {
+            try (InputStream in = CatalogSchema.class.getResourceAsStream(RESOURCE)) {
+                if (in == null) throw new IllegalStateException(RESOURCE + " is missing from the class path");
+                JsonNode root = new ObjectMapper().readTree(in);
+                Map<String, CatalogSchema> out = new HashMap<>();
+                for (Iterator<Map.Entry<String, JsonNode>> it = root.fields(); it.hasNext(); ) {
+                    Map.Entry<String, JsonNode> e = it.next();
+                    out.put(e.getKey(), new CatalogSchema(e.getKey(), e.getValue()));
+                }
+                if (!out.containsKey(DEFAULT)) throw new IllegalStateException(RESOURCE + " has no \"" + DEFAULT + "\" entry");
+                return Collections.unmodifiableMap(out);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+
+    /** The schema of a kind ("*" for kinds without their own). */
+    public static CatalogSchema of(String kind) {
+        CatalogSchema s = Holder.SCHEMAS.get(kind);
+        return s != null ? s : Holder.SCHEMAS.get(DEFAULT);
+    }
+
+    public String kind() {
+        return kind;
+    }
+
+    /** The member edited in the editor's main text area ("description", "content", "note"). */
+    public String body() {
+        return body;
+    }
+
+    /** Declared members, in declaration order. */
+    public Collection<Member> members() {
+        return members.values();
+    }
+
+    public Member member(String name) {
+        return members.get(name);
+    }
+
+    /** Members this kind does not use; the editor removes them on save. */
+    public Set<String> unused() {
+        return unused;
+    }
+
+    /** Issues of one item against this schema. Checks only the item itself (no files, no other items). */
+    public List<ValidationIssue> validate(CatalogItem item) {
+        List<ValidationIssue> out = new ArrayList<>(0);
+        check(item, new Sink(kind, Items.idOf(item), out), "");
+        return out;
+    }
+
+    private void check(JsonRecord r, Sink sink, String prefix) {
+        for (Member m : members.values()) {
+            Object v = r.value(m.name());
+            if (v == null) {
+                if (m.required()) sink.error(prefix + m.name(), "required", "is required");
+                continue;
+            }
+            rules.get(m.name()).check(v, sink, prefix + m.name());
+        }
+        for (String name : r.names()) {
+            if (members.containsKey(name)) continue;
+            if (unused.contains(name)) {
+                sink.warning(prefix + name, "unused", "is not used by " + kind + " and is removed when the item is saved");
+            } else if (!open) {
+                sink.warning(prefix + name, "unknown", "is not a member of " + kind);
+            }
+        }
+    }
+
+    // ---- compiled rules ----
+
+    @FunctionalInterface
+    private interface Rule {
+        /** v is the member's value as held by the record (see JsonRecord.value), never null. */
+        void check(Object v, Sink sink, String path);
+    }
+
+    private static Rule compile(Member m) {
+        Rule text = textRule(m);
+        return switch (m.type()) {
+            case TEXT, LYRICS -> text;
+            case DATE -> (v, sink, path) -> {
+                String s = textOf(v, sink, path);
+                if (s == null || s.isBlank()) return;
+                if (!isDate(s)) sink.error(path, "format", "\"" + s + "\" is not a date (yyyy-MM-dd)");
+            };
+            case TEXTS -> (v, sink, path) -> {
+                if (v instanceof List<?> list) {
+                    for (int i = 0; i < list.size(); i++) text.check(list.get(i), sink, path + "[" + i + "]");
+                } else if (v instanceof JsonNode n && n.isArray()) {
+                    for (int i = 0; i < n.size(); i++) text.check(n.get(i), sink, path + "[" + i + "]");
+                } else {
+                    sink.typeError(path, "an array of text", v);
+                }
+            };
+            case NUMBER_OR_TEXT -> (v, sink, path) -> {
+                if (v instanceof String) return;
+                if (v instanceof JsonNode n && (n.isNumber() || n.isTextual())) return;
+                sink.typeError(path, "a number or text", v);
+            };
+            case VARIANTS -> (v, sink, path) -> {
+                if (!(v instanceof JsonNode n) || !n.isArray()) {
+                    sink.typeError(path, "an array of {width, src}", v);
+                    return;
+                }
+                for (int i = 0; i < n.size(); i++) {
+                    JsonNode e = n.get(i);
+                    if (!e.path("width").canConvertToInt() || e.path("width").asInt() <= 0 || !e.path("src").isTextual()
+                            || e.path("src").asText().isBlank()) {
+                        sink.error(path + "[" + i + "]", "type", "needs a positive width and a src");
+                    }
+                }
+            };
+            case RECORDS -> (v, sink, path) -> {
+                if (!(v instanceof List<?> list)) {
+                    // not bound to records: some element is not an object
+                    if (!(v instanceof JsonNode n) || !n.isArray()) {
+                        sink.typeError(path, "an array of objects", v);
+                        return;
+                    }
+                    for (int i = 0; i < n.size(); i++) {
+                        if (!n.get(i).isObject()) sink.typeError(path + "[" + i + "]", "an object", n.get(i));
+                    }
+                    return;
+                }
+                for (int i = 0; i < list.size(); i++) {
+                    m.records().check((JsonRecord) list.get(i), sink, path + "[" + i + "].");
+                }
+            };
+        };
+    }
+
+    private static Rule textRule(Member m) {
+        Pattern p = m.pattern();
+        boolean required = m.required();
+        return (v, sink, path) -> {
+            String s = textOf(v, sink, path);
+            if (s == null) return;
+            if (s.isBlank()) {
+                if (required) sink.error(path, "required", "must not be blank");
+            } else if (p != null && !p.matcher(s).find()) {
+                sink.error(path, "format", "\"" + s + "\" does not match " + p.pattern());
+            }
+        };
+    }
+
+    /** The text of v, or null (after reporting it) if v is not text. */
+    private static String textOf(Object v, Sink sink, String path) {
+        if (v instanceof String s) return s;
+        if (v instanceof JsonNode n && n.isTextual()) return n.textValue();
+        sink.typeError(path, "text", v);
+        return null;
+    }
+
+    private static boolean isDate(String s) {
+        if (s.length() != 10 || s.charAt(4) != '-' || s.charAt(7) != '-') return false;
+        try {
+            LocalDate.parse(s);
+            return true;
+        } catch (DateTimeParseException ex) {
+            return false;
+        }
+    }
+
+    /** Collects the issues of one item. */
+    private record Sink(String kind, String id, List<ValidationIssue> out) {
+        void error(String path, String code, String message) {
+            out.add(new ValidationIssue(ValidationIssue.Severity.ERROR, kind, id, path, code, message));
+        }
+
+        void warning(String path, String code, String message) {
+            out.add(new ValidationIssue(ValidationIssue.Severity.WARNING, kind, id, path, code, message));
+        }
+
+        void typeError(String path, String expected, Object found) {
+            String what = found instanceof JsonNode n ? n.getNodeType().name().toLowerCase() : found.getClass().getSimpleName();
+            error(path, "type", "should be " + expected + ", not " + what);
+        }
+    }
+}
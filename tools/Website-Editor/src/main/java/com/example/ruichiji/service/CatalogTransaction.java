@@ -0,0 +1,108 @@
+package com.example.ruichiji.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * All-or-nothing replacement of several files under dataDir (catalogs, lyrics, journals).
+ *
+ * commit() works in three steps:
+ *   1. every new file is written to an fsynced temp file (AtomicFiles.prepare);
+ *   2. an intent record listing the renames and deletions is written atomically to
+ *      dataDir/.journal/pending.tx;
+ *   3. the renames and deletions are carried out and the intent record is removed.
+ * A failure in step 1 removes the temp files and leaves everything as it was. A crash after
+ * step 2 is rolled forward by {@link #recover} when the next DataService starts, before any
+ * catalog is read; DataService.validate reports the files it completed.
+ */
+final class CatalogTransaction {
+    static final String INTENT_FILE = "pending.tx";
+
+    private final Path dataDir;
+    private final Path intent;
+    private final ObjectMapper mapper;
+    private final Map<Path, AtomicFiles.Body> writes = new LinkedHashMap<>();
+    private final List<Path> deletes = new ArrayList<>();
+
+    CatalogTransaction(Path dataDir, Path journalDir, ObjectMapper mapper) {
+        this.dataDir = dataDir;
+        this.intent = journalDir.resolve(INTENT_FILE);
+        this.mapper = mapper;
+    }
+
+    /** Replace (or create) target with body's output. Each target is written once. */
+    void write(Path target, AtomicFiles.Body body) {
+        writes.put(target, body);
+    }
+
+    /** Remove target after all writes are in place. */
+    void delete(Path target) {
+        deletes.add(target);
+    }
+
+    void commit() throws IOException {
+        Map<Path, Path> staged = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<Path, AtomicFiles.Body> e : writes.entrySet()) {
+                staged.put(AtomicFiles.prepare(e.getKey(), e.getValue()), e.getKey());
+            }
+            ObjectNode rec = mapper.createObjectNode();
+            ArrayNode moves = rec.putArray("moves");
+            for (Map.Entry<Path, Path> e : staged.entrySet()) {
+                moves.addObject().put("from", relative(e.getKey())).put("to", relative(e.getValue()));
+            }
+            ArrayNode dels = rec.putArray("deletes");
+            for (Path d : deletes) dels.add(relative(d));
+            AtomicFiles.write(intent, mapper.writeValueAsBytes(rec));
+        } catch (IOException | RuntimeException ex) {
+            for (Path tmp : staged.keySet()) Files.deleteIfExists(tmp);
+            throw ex;
+        }
+        // point of no return: from here on a crash is completed by recover()
+        apply(staged, deletes);
+        Files.deleteIfExists(intent);
+    }
+
+    /**
+     * Finish a transaction interrupted after its intent record was written. Returns the files
+     * it replaced or deleted (empty if there was nothing to finish).
+     */
+    static List<Path> recover(Path dataDir, Path journalDir, ObjectMapper mapper) throws IOException {
+        Path intent = journalDir.resolve(INTENT_FILE);
+        if (!Files.exists(intent)) return List.of();
+        JsonNode rec = mapper.readTree(intent.toFile());
+        Map<Path, Path> moves = new LinkedHashMap<>();
+        for (JsonNode m : rec.path("moves")) {
+            Path from = dataDir.resolve(m.path("from").asText());
+            if (Files.exists(from)) moves.put(from, dataDir.resolve(m.path("to").asText()));
+        }
+        List<Path> deletes = new ArrayList<>();
+        for (JsonNode d : rec.path("deletes")) deletes.add(dataDir.resolve(d.asText()));
+        apply(moves, deletes);
+        Files.deleteIfExists(intent);
+        List<Path> done = new ArrayList<>(moves.values());
+        for (Path d : deletes) if (!done.contains(d)) done.add(d);
+        return done;
+    }
+
+    private static void apply(Map<Path, Path> moves, List<Path> deletes) throws IOException {
+        for (Map.Entry<Path, Path> e : moves.entrySet()) AtomicFiles.publish(e.getKey(), e.getValue());
+        for (Path d : deletes) {
+            if (!moves.containsValue(d)) Files.deleteIfExists(d);
+        }
+    }
+
+    private String relative(Path p) {
+        return dataDir.relativize(p.toAbsolutePath()).toString().replace('\\', '/');
+    }
+}
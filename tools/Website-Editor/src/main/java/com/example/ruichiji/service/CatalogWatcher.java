@@ -0,0 +1,150 @@
+package com.example.ruichiji.service;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Watches dataDir, dataDir/lyrics and dataDir/.journal and reports changed file names in
+ * debounced batches.
+ *
+ * Events are collected until nothing new arrives for DEBOUNCE_MILLIS, so a git checkout
+ * touching every file, or an editor saving through a temp file, yields one batch.
+ * A change to .journal/<kind>.journal (another editor appended an edit) is reported as a
+ * change of <kind>.json. Dot-files (atomic-write temp files), the locks and other files in
+ * .journal, and the .min.json/.gz copies written by DerivedOutputs are ignored.
+ *
+ * A directory that could not be watched, or the watch itself ending on an unexpected error,
+ * is kept in {@link #failures()} (DataService.validate reports them).
+ */
+final class CatalogWatcher implements Runnable {
+    private static final long DEBOUNCE_MILLIS = 300;
+
+    private final Path dataDir;
+    private final Path lyricsDir;
+    private final Path journalDir;
+    private final Consumer<Set<String>> onCatalogFiles;
+    private final Consumer<Set<String>> onLyricsFiles;
+    private final WatchService watch;
+    private WatchKey lyricsKey;
+    private WatchKey journalKey;
+    private final Map<Path, String> failures = new ConcurrentHashMap<>();   // directory -> error
+
+    CatalogWatcher(Path dataDir, Consumer<Set<String>> onCatalogFiles, Consumer<Set<String>> onLyricsFiles) throws IOException {
+        this.dataDir = dataDir;
+        this.lyricsDir = dataDir.resolve("lyrics");
+        this.journalDir = dataDir.resolve(DataService.JOURNAL_DIR);
+        this.onCatalogFiles = onCatalogFiles;
+        this.onLyricsFiles = onLyricsFiles;
+        this.watch = FileSystems.getDefault().newWatchService();
+        register(dataDir);
+        registerLyricsDir();
+        registerJournalDir();
+    }
+
+    private WatchKey register(Path dir) throws IOException {
+        return dir.register(watch, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+    }
+
+    private void registerLyricsDir() throws IOException {
+        if (lyricsKey == null && Files.isDirectory(lyricsDir)) lyricsKey = register(lyricsDir);
+    }
+
+    private void registerJournalDir() throws IOException {
+        if (journalKey == null && Files.isDirectory(journalDir)) journalKey = register(journalDir);
+    }
+
+    /** Directories whose changes are not seen, with the reason. */
+    Map<Path, String> failures() {
+        return Map.copyOf(failures);
+    }
+
+    void start() {
+        Thread t = new Thread(this, "catalog-watcher");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    void stop() throws IOException {
+        watch.close();
+    }
+
+    @Override
+    public void run() {
+        Set<String> catalogFiles = new HashSet<>();
+        Set<String> lyricsFiles = new HashSet<>();
+        try {
+            while (true) {
+                // block for the first event, then keep collecting until it is quiet
+                WatchKey key = watch.take();
+                do {
+                    collect(key, catalogFiles, lyricsFiles);
+                } while ((key = watch.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null);
+
+                if (!catalogFiles.isEmpty()) onCatalogFiles.accept(Set.copyOf(catalogFiles));
+                if (!lyricsFiles.isEmpty()) onLyricsFiles.accept(Set.copyOf(lyricsFiles));
+                catalogFiles.clear();
+                lyricsFiles.clear();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ex) {
+            // stopped
+        } catch (RuntimeException ex) {
+            failures.put(dataDir, "stopped watching: " + ex);
+        }
+    }
+
+    private void collect(WatchKey key, Set<String> catalogFiles, Set<String> lyricsFiles) {
+        boolean isLyrics = key == lyricsKey;
+        boolean isJournal = key == journalKey;
+        for (WatchEvent<?> ev : key.pollEvents()) {
+            if (ev.kind() == StandardWatchEventKinds.OVERFLOW) continue;
+            String name = ev.context().toString();
+            if (isJournal) {
+                if (!name.startsWith(".") && name.endsWith(DataService.JOURNAL_SUFFIX)) {
+                    catalogFiles.add(name.substring(0, name.length() - DataService.JOURNAL_SUFFIX.length()) + ".json");
+                }
+                continue;
+            }
+            if (name.equals(DataService.JOURNAL_DIR)) {
+                try {
+                    registerJournalDir(); // created by the first edit
+                    failures.remove(journalDir);
+                } catch (IOException ex) {
+                    failures.put(journalDir, String.valueOf(ex));
+                }
+                continue;
+            }
+            if (name.startsWith(".") || DerivedOutputs.isDerived(name)) continue;
+            if (isLyrics) {
+                lyricsFiles.add(name);
+            } else if (name.endsWith(".json")) {
+                catalogFiles.add(name);
+            } else if (name.equals("lyrics")) {
+                try {
+                    registerLyricsDir(); // created after we started
+                    failures.remove(lyricsDir);
+                } catch (IOException ex) {
+                    failures.put(lyricsDir, String.valueOf(ex));
+                }
+            }
+        }
+        if (!key.reset()) {
+            // directory deleted
+            if (isLyrics) lyricsKey = null;
+            if (isJournal) journalKey = null;
+        }
+    }
+}
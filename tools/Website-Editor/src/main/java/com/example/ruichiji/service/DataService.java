@@ -1,16 +1,40 @@
 package com.example.ruichiji.service;
 
+import com.example.ruichiji.model.CatalogItem;
+import com.example.ruichiji.model.Items;
+import com.example.ruichiji.model.StringTable;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * JSON-backed data service.
@@ -28,17 +52,79 @@ import java.util.List;
  * Writing:
  * - Writes object form { "items": [ ... ] } to preserve repository format.
  *
- * BOM removal and a lenient repair attempt are included for common corruptions.
+ * Each kind is parsed once, streamed (see CatalogJson), and cached as typed records (see
+ * Catalog, Items); a file that does not parse is repaired from what can be salvaged (see
+ * CatalogSalvage). Single-item edits are appended to a journal that is compacted back into
+ * <kind>.json in the background and on close() (see CatalogJournal), so call close() (the GUI
+ * does on exit) before committing or publishing. Whole files are replaced atomically (see
+ * AtomicFiles; renameId commits several through a CatalogTransaction). Editors on the same
+ * checkout take turns through CatalogLock and have their saves merged (see CatalogMerge).
+ *
+ * Optional, off until asked for: undo/redo (history(), see EditHistory), search and music
+ * reference indexes (buildSearchIndex, buildReferenceIndex), watching for external edits
+ * (startWatching, see CatalogWatcher), published .min.json/.gz copies (setDerivedOutputs, see
+ * DerivedOutputs). importImage stores images by content hash (see ImageStore); validate()
+ * checks every catalog against its CatalogSchema.
  */
-public class DataService {
+public class DataService implements Closeable {
+    private static final long MIN_COMPACT_BYTES = 256 * 1024;
+    static final String JOURNAL_DIR = ".journal";
+    static final String JOURNAL_SUFFIX = ".journal";
+    private static final String LOCK_SUFFIX = ".lock";
+    private static final long LYRICS_CACHE_CHARS = 2_000_000;
+    private static final int STRING_TABLE_SLOTS = 16 * 1024;
+    private static final int STRING_TABLE_MAX_CHARS = 64;
+
+    /** The catalogs under assets/data that the editor manages. */
+    public static final List<String> KINDS = List.of("topics", "music", "movies", "discography", "live");
+
     private final Path execRoot;     // current working dir (where app was started)
     private final Path repoRoot;     // detected repository root (parent of assets/)
     private final Path dataDir;      // resolved assets/data (preferred)
     private final Path imagesDir;    // resolved assets/images (preferred)
+    private final List<Path> recovered;   // files an interrupted rename completed at startup
+    private final StringTable strings = new StringTable(STRING_TABLE_SLOTS, STRING_TABLE_MAX_CHARS);
     private final ObjectMapper mapper = new ObjectMapper();
+    private final CatalogJson json = new CatalogJson(mapper);
+    private final Map<String, Catalog> catalogs = new ConcurrentHashMap<>();
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "catalog-compactor");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AsyncDataService async = new AsyncDataService(this);
+    private final List<CatalogChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private CatalogWatcher watcher;
+    private final DerivedOutputs derived = new DerivedOutputs(mapper);
+    private volatile boolean derivedOutputs = Boolean.getBoolean("ruichiji.derivedOutputs");
+    private final ImageStore images;
+    private final LyricsCache lyricsCache = new LyricsCache(LYRICS_CACHE_CHARS);
+    private final SearchIndex searchIndex = new SearchIndex();
+    private final Set<String> indexedKinds = ConcurrentHashMap.newKeySet();
+    private final Map<String, String> unindexedLyrics = new ConcurrentHashMap<>();   // lyricsFile -> error
+    // failures of background work, until it succeeds again (validate reports them):
+    private final Map<Path, String> compactionFailures = new ConcurrentHashMap<>();   // catalog file -> error
+    private final Map<Path, String> reloadFailures = new ConcurrentHashMap<>();       // changed file -> error
+    private final ReferenceIndex references = new ReferenceIndex();
+    private final EditHistory history = new EditHistory();
+    private final Set<String> referenceKinds = ConcurrentHashMap.newKeySet();
+    // the exported page bundles (see BundleExporter); guarded by bundleLock
+    private final Object bundleLock = new Object();
+    private Catalog.FileStamp bundleStamp = Catalog.FileStamp.MISSING;   // of the manifest as last marked
+    private Set<String> bundleStale = Set.of();
+    private String bundleFailure;   // the manifest could be neither marked nor removed
 
     public DataService() throws IOException {
-        this.execRoot = Paths.get(System.getProperty("user.dir")).toAbsolutePath();
+        this(Paths.get(System.getProperty("user.dir")));
+    }
+
+    /**
+     * Like the no-argument constructor, but searches for assets/data upwards from start
+     * instead of the working directory (used by the command line tool's --root option).
+     */
+    public DataService(Path start) throws IOException {
+        this.execRoot = start.toAbsolutePath();
+        strings.install(mapper);
 
         Path foundAssetsData = findAssetsDataUpwards(execRoot);
         if (foundAssetsData != null) {
@@ -59,6 +145,10 @@ public class DataService {
         // Ensure directories exist (create if missing)
         Files.createDirectories(this.dataDir);
         Files.createDirectories(this.imagesDir);
+        this.images = new ImageStore(this.imagesDir, mapper);
+
+        // a rename interrupted by a crash is finished before anything is read
+        this.recovered = CatalogTransaction.recover(dataDir, dataDir.resolve(JOURNAL_DIR), mapper);
     }
 
     /**
@@ -76,132 +166,1396 @@ public class DataService {
         return null;
     }
 
-    private byte[] stripUtf8Bom(byte[] b) {
-        if (b.length >= 3 && (b[0] & 0xFF) == 0xEF && (b[1] & 0xFF) == 0xBB && (b[2] & 0xFF) == 0xBF) {
-            byte[] nb = new byte[b.length - 3];
-            System.arraycopy(b, 3, nb, 0, nb.length);
-            return nb;
+    private Catalog catalog(String kind) {
+        return catalogs.computeIfAbsent(kind, k -> new Catalog(k, dataDir.resolve(k + ".json"),
+                new CatalogJournal(dataDir.resolve(JOURNAL_DIR).resolve(k + JOURNAL_SUFFIX), mapper),
+                CatalogLock.of(dataDir.resolve(JOURNAL_DIR).resolve(k + LOCK_SUFFIX))));
+    }
+
+    /**
+     * (Re)load the catalog from disk unless the cached copy still matches the file and journal.
+     * Caller holds the Catalog monitor.
+     */
+    private void ensureLoaded(Catalog c) throws IOException {
+        ensureLoaded(c, LoadMonitor.NONE);
+    }
+
+    private void ensureLoaded(Catalog c, LoadMonitor monitor) throws IOException {
+        if (c.isLoaded() && c.isFresh()) return;
+        // another editor's compaction replaces the journal: appends must go to the new file
+        c.journal.closeChannel();
+        // stamps taken before reading, so files another editor replaces meanwhile are read again
+        // next time (a repair rewrite of our own costs one extra read)
+        Catalog.FileStamp stamp = Catalog.FileStamp.of(c.file);
+        List<CatalogItem> loaded = loadFromDisk(c, monitor);
+        // callers may still hold lists of the records being dropped (see CatalogMerge)
+        if (c.isLoaded()) c.retireItems();
+        c.replace(loaded, stamp);
+        Catalog.FileStamp journalStamp = Catalog.FileStamp.of(c.journal.file);
+        for (JsonNode rec : c.journal.readRecords()) applyRecord(c, rec);
+        c.setJournalStamp(journalStamp);
+        indexReplaced(c.kind, c.items());
+        maybeScheduleCompaction(c);
+    }
+
+    private void applyRecord(Catalog c, JsonNode rec) {
+        String op = rec.path("op").asText("");
+        if (CatalogJournal.OP_UPSERT.equals(op) && rec.path("item").isObject()) {
+            CatalogItem item = Items.fromTree(c.kind, (ObjectNode) rec.get("item"));
+            String id = Catalog.idOf(item);
+            if (rec.has("index") && c.get(id) == null) c.insert(rec.get("index").asInt(), item);
+            else c.upsert(id, item);
+        } else if (CatalogJournal.OP_DELETE.equals(op)) {
+            c.delete(rec.path("id").asText(""));
+        }
+    }
+
+    /** Append a record to the journal and schedule compaction if it grew large. Caller holds the lock. */
+    private void appendJournal(Catalog c, ObjectNode record) throws IOException {
+        c.journal.append(record);
+        c.setJournalStamp(Catalog.FileStamp.of(c.journal.file));
+        maybeScheduleCompaction(c);
+        bundlesOutdated(c.kind);
+    }
+
+    /**
+     * kind (or "lyrics") was changed here: mark it stale in the bundle manifest, so the site
+     * stops using bundles built from it until the next export. Remembers what it marked, so
+     * an edit costs one stat of the manifest. Reloads of files changed by others do not mark
+     * anything (a git pull may bring a fresh export along); validate compares fingerprints.
+     */
+    private void bundlesOutdated(String kind) {
+        synchronized (bundleLock) {
+            Path manifest = dataDir.resolve(BundleExporter.MANIFEST);
+            try {
+                Catalog.FileStamp stamp = Catalog.FileStamp.of(manifest);
+                if (stamp.equals(Catalog.FileStamp.MISSING) || stamp.equals(bundleStamp) && bundleStale.contains(kind)) return;
+                bundleStale = BundleExporter.markStale(dataDir, kind, mapper);
+                bundleStamp = Catalog.FileStamp.of(manifest);
+                bundleFailure = null;
+            } catch (IOException ex) {
+                // without a manifest the site reads the catalogs
+                try {
+                    Files.deleteIfExists(manifest);
+                    bundleFailure = null;
+                } catch (IOException again) {
+                    bundleFailure = String.valueOf(ex);
+                }
+            }
+        }
+    }
+
+    private void syncJournal(Catalog c) {
+        synchronized (c) {
+            try {
+                c.journal.sync();
+            } catch (IOException ex) {
+                // recorded for the writers whose records it covered (see CatalogJournal.awaitSynced)
+            }
+        }
+    }
+
+    /**
+     * Force journal appends not synced yet to disk now. Edits already wait for the sync of
+     * their own record (see CatalogJournal), so this only matters after a failed one.
+     */
+    public void flush() {
+        for (Catalog c : catalogs.values()) syncJournal(c);
+    }
+
+    private void maybeScheduleCompaction(Catalog c) throws IOException {
+        if (c.compactionScheduled || compactor.isShutdown()) return;
+        long threshold = Math.max(MIN_COMPACT_BYTES, c.fileSize() / 4);
+        if (c.journal.size() < threshold) return;
+        c.compactionScheduled = true;
+        compactor.execute(() -> {
+            try {
+                compact(c);
+                compactionFailures.remove(c.file);
+            } catch (IOException | RuntimeException ex) {
+                // the journal keeps the edits; the next append schedules another attempt
+                compactionFailures.put(c.file, String.valueOf(ex));
+            }
+        });
+    }
+
+    /**
+     * Fold the journal into <kind>.json. The catalog file is formatted from a snapshot taken
+     * together with the journal length, outside the Catalog monitor, so edits keep flowing
+     * into the journal meanwhile; in the commit window it replaces <kind>.json and only the
+     * folded head of the journal is dropped. If another editor committed in between, the
+     * snapshot is stale and nothing is replaced (later appends schedule a new compaction).
+     */
+    private void compact(Catalog c) throws IOException {
+        synchronized (c.fileLock) {
+            List<CatalogItem> snap;
+            long offset;
+            synchronized (c) {
+                c.compactionScheduled = false;
+                ensureLoaded(c);
+                offset = c.journal.size();
+                if (offset == 0) return;
+                snap = c.snapshot();
+            }
+            Path tmp = json.prepare(c.file, snap, LoadMonitor.NONE);
+            try {
+                synchronized (c) {
+                    c.lock.acquire();
+                    try {
+                        if (!c.isFresh()) return;
+                        AtomicFiles.publish(tmp, c.file);
+                        c.setStamp(Catalog.FileStamp.of(c.file));
+                        c.journal.dropHead(offset);
+                        c.setJournalStamp(Catalog.FileStamp.of(c.journal.file));
+                    } finally {
+                        c.lock.release();
+                    }
+                }
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            publishDerived(c.file);
+        }
+    }
+
+    /**
+     * Compact every catalog that has a journal so <kind>.json reflects all edits.
+     */
+    public void compactAll() throws IOException {
+        Path journalDir = dataDir.resolve(JOURNAL_DIR);
+        if (Files.isDirectory(journalDir)) {
+            try (DirectoryStream<Path> ds = Files.newDirectoryStream(journalDir, "*" + JOURNAL_SUFFIX)) {
+                for (Path j : ds) {
+                    String name = j.getFileName().toString();
+                    catalog(name.substring(0, name.length() - JOURNAL_SUFFIX.length()));
+                }
+            }
+        }
+        for (Catalog c : catalogs.values()) compact(c);
+    }
+
+    /**
+     * Start watching assets/data for external edits (idempotent). Listeners are called on the
+     * watcher thread after a debounced burst of file events.
+     */
+    public synchronized void startWatching() throws IOException {
+        if (watcher != null) return;
+        watcher = new CatalogWatcher(dataDir, this::onCatalogFilesChanged, this::onLyricsFilesChanged);
+        watcher.start();
+    }
+
+    public void addChangeListener(CatalogChangeListener l) {
+        listeners.add(l);
+    }
+
+    public void removeChangeListener(CatalogChangeListener l) {
+        listeners.remove(l);
+    }
+
+    private void onCatalogFilesChanged(Set<String> fileNames) {
+        for (String name : fileNames) {
+            String kind = name.substring(0, name.length() - ".json".length());
+            Path file = dataDir.resolve(name);
+            try {
+                CatalogDelta d = reloadIfChanged(kind);
+                reloadFailures.remove(file);
+                if (d == null || d.isEmpty()) continue;
+                for (CatalogChangeListener l : listeners) l.catalogChanged(d);
+            } catch (IOException | RuntimeException ex) {
+                reloadFailures.put(file, String.valueOf(ex));
+            }
+        }
+    }
+
+    private void onLyricsFilesChanged(Set<String> fileNames) {
+        Path lyricsDir = dataDir.resolve("lyrics");
+        for (String name : fileNames) {
+            Path file = lyricsDir.resolve(name);
+            try {
+                lyricsCache.invalidateIfStale(file);
+                reloadFailures.remove(file);
+            } catch (IOException ex) {
+                reloadFailures.put(file, String.valueOf(ex));
+            }
+        }
+        if (indexedKinds.contains("music")) {
+            try {
+                reindexLyrics(fileNames);
+                reloadFailures.remove(lyricsDir);
+            } catch (IOException | RuntimeException ex) {
+                reloadFailures.put(lyricsDir, "the search index misses the change: " + ex);
+            }
+        }
+        for (CatalogChangeListener l : listeners) l.lyricsChanged(fileNames);
+    }
+
+    /**
+     * Reload a kind if its file or journal no longer match what we loaded/wrote, and return
+     * what changed. Returns null if the kind was never loaded or is unchanged (e.g. the event
+     * was caused by our own write).
+     */
+    public CatalogDelta reloadIfChanged(String kind) throws IOException {
+        Catalog c = catalogs.get(kind);
+        if (c == null) return null;
+        synchronized (c) {
+            if (!c.isLoaded() || c.isFresh()) return null;
+            List<CatalogItem> before = c.snapshot();
+            ensureLoaded(c);
+            return diff(kind, before, c.items());
+        }
+    }
+
+    static CatalogDelta diff(String kind, List<CatalogItem> before, List<CatalogItem> after) {
+        Map<String, CatalogItem> old = new HashMap<>(before.size() * 2);
+        for (CatalogItem n : before) old.putIfAbsent(Catalog.idOf(n), n);
+        List<CatalogItem> added = new ArrayList<>();
+        List<CatalogItem> changed = new ArrayList<>();
+        Set<String> seen = new HashSet<>(after.size() * 2);
+        for (CatalogItem n : after) {
+            String id = Catalog.idOf(n);
+            if (!seen.add(id)) continue;
+            CatalogItem prev = old.get(id);
+            if (prev == null) added.add(n);
+            else if (!prev.equals(n)) changed.add(n);
         }
-        return b;
+        List<String> removed = new ArrayList<>();
+        for (String id : old.keySet()) if (!seen.contains(id)) removed.add(id);
+        return new CatalogDelta(kind, added, removed, changed);
     }
 
-    private JsonNode tryParse(String text) {
+    /**
+     * Index the given kinds for search(). Kinds are read and tokenised in parallel (lyrics files
+     * too); afterwards every write keeps the index current. Calling it again rebuilds.
+     */
+    public void buildSearchIndex(Collection<String> kinds) throws IOException {
         try {
-            return mapper.readTree(text);
-        } catch (Exception ex) {
-            return null;
+            kinds.parallelStream().forEach(kind -> {
+                try {
+                    indexKind(kind);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private void indexKind(String kind) throws IOException {
+        Map<String, String> lyrics = "music".equals(kind) ? readAllLyrics(readItems(kind)) : Map.of();
+        Catalog c = catalog(kind);
+        synchronized (c) {
+            ensureLoaded(c);
+            searchIndex.replaceKind(kind, c.items(), lyrics);
+            indexedKinds.add(kind);
+        }
+    }
+
+    private Map<String, String> readAllLyrics(List<CatalogItem> music) {
+        Map<String, String> out = new ConcurrentHashMap<>();
+        music.parallelStream().forEach(n -> {
+            String path = n.text("lyricsFile");
+            if (path.isBlank()) return;
+            try {
+                String text = readLyricsFile(path);
+                if (text != null) out.put(Catalog.idOf(n), text);
+                unindexedLyrics.remove(path);
+            } catch (IOException ex) {
+                unindexedLyrics.put(path, String.valueOf(ex.getMessage()));
+            }
+        });
+        return out;
+    }
+
+    /** Re-read lyrics files changed on disk and update the music items that reference them. */
+    private void reindexLyrics(Set<String> fileNames) throws IOException {
+        for (CatalogItem n : readItems("music")) {
+            String path = n.text("lyricsFile");
+            String name = path.substring(path.lastIndexOf('/') + 1);
+            if (name.isEmpty() || !fileNames.contains(name)) continue;
+            String text = readLyricsFile(path);
+            searchIndex.indexLyrics(Catalog.idOf(n), text == null ? "" : text);
         }
     }
 
-    private String lenientRepair(String text) {
-        if (text == null) return null;
-        String t = text.trim();
+    /** True once buildSearchIndex() has covered this kind. */
+    public boolean isIndexed(String kind) {
+        return indexedKinds.contains(kind);
+    }
+
+    /**
+     * Items whose indexed text contains every word of the query (CJK text matches by
+     * substring of two or more characters, or by a single character; the last word also as a
+     * prefix from two characters on). kind may be null to search every indexed kind. Results
+     * are in kind/id order, at most limit of them.
+     */
+    public List<SearchHit> search(String query, String kind, int limit) {
+        return searchIndex.search(query, kind, limit);
+    }
+
+    /** Documents (items) in the search index; each music item's lyrics count with it. */
+    public int searchDocumentCount() {
+        return searchIndex.documentCount();
+    }
 
-        // Extract from first [ to last ] if possible
-        int firstBracket = t.indexOf('[');
-        int lastBracket = t.lastIndexOf(']');
-        if (firstBracket >= 0 && lastBracket > firstBracket) {
-            t = t.substring(firstBracket, lastBracket + 1);
+    /**
+     * Build the music reference index (see ReferenceIndex) in one parallel pass over music,
+     * movies, discography and live. Afterwards every write keeps it current.
+     */
+    public void buildReferenceIndex() throws IOException {
+        try {
+            ReferenceIndex.KINDS.parallelStream().forEach(kind -> {
+                try {
+                    Catalog c = catalog(kind);
+                    synchronized (c) {
+                        ensureLoaded(c);
+                        references.replaceKind(kind, c.items());
+                        referenceKinds.add(kind);
+                    }
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
         }
+    }
+
+    /** True once buildReferenceIndex() has run. */
+    public boolean isReferenceIndexReady() {
+        return referenceKinds.size() == ReferenceIndex.KINDS.size();
+    }
+
+    /** Items that link to the given music id (empty until the reference index is built). */
+    public List<MusicReference> referencesTo(String musicId) {
+        return references.referencesTo(musicId);
+    }
+
+    /** Links from the given item to music ids that do not exist. */
+    public List<MusicReference> unresolvedReferences(String kind, String id) {
+        return references.unresolved(kind, id);
+    }
+
+    /** Dangling and duplicate music links across all catalogs, from the index (no file reads). */
+    public ReferenceReport checkReferences() throws IOException {
+        if (!isReferenceIndexReady()) buildReferenceIndex();
+        return references.check();
+    }
+
+    /**
+     * Validate all catalogs: every item against its kind's schema, duplicate ids, every
+     * lyricsFile (must exist; lyrics files nothing refers to are warnings) and music links
+     * (see checkReferences). Repairs made while loading, journal records that could not be
+     * replayed, files that an interrupted rename completed at startup, failed minified/gzip
+     * copies and lyrics files the search index could not read are warnings too. Reads through
+     * the cache, so it is cheap to repeat.
+     */
+    public ValidationReport validate() throws IOException {
+        long start = System.nanoTime();
+        Map<String, List<ValidationIssue>> byKind = new ConcurrentHashMap<>();
+        Map<String, Integer> counts = new ConcurrentHashMap<>();
+        KINDS.parallelStream().forEach(kind -> {
+            List<ValidationIssue> out = new ArrayList<>();
+            try {
+                List<CatalogItem> items = readItems(kind);
+                CatalogSchema schema = CatalogSchema.of(kind);
+                items.parallelStream().map(schema::validate).forEachOrdered(out::addAll);
+                for (String id : getDuplicateIds(kind)) {
+                    out.add(new ValidationIssue(ValidationIssue.Severity.ERROR, kind, id, "", "duplicate-id",
+                            "id is used by more than one item; only the first is editable"));
+                }
+                Catalog c = catalog(kind);
+                List<Integer> skipped;
+                RepairReport repaired;
+                synchronized (c) {
+                    skipped = c.journal.skippedLines();
+                    repaired = c.repairedOnLoad;
+                }
+                if (repaired != null) {
+                    out.add(new ValidationIssue(ValidationIssue.Severity.WARNING, kind, "", "", "repaired",
+                            "the file did not parse and was repaired when loaded: kept " + repaired.salvaged() + " items, dropped "
+                                    + (repaired.dropped().isEmpty() ? "nothing" : repaired.dropped()) + "; damaged copy in "
+                                    + dataDir.relativize(repaired.backup())));
+                }
+                for (int line : skipped) {
+                    out.add(new ValidationIssue(ValidationIssue.Severity.WARNING, kind, "", "", "journal-record",
+                            "line " + line + " of " + dataDir.relativize(c.journal.file) + " could not be read and was skipped"));
+                }
+                counts.put(kind, items.size());
+            } catch (IOException | RuntimeException ex) {
+                out.add(new ValidationIssue(ValidationIssue.Severity.ERROR, kind, "", "", "unreadable", String.valueOf(ex.getMessage())));
+            }
+            byKind.put(kind, out);
+        });
 
-        if (!t.endsWith("]")) {
-            t = t + "]";
+        List<ValidationIssue> issues = new ArrayList<>();
+        for (String kind : KINDS) issues.addAll(byKind.get(kind));
+        for (Path p : recovered) {
+            issues.add(fileWarning(p, "rename-recovered", dataDir.relativize(p) + " was completed from a rename interrupted by a crash"));
+        }
+        for (Map.Entry<Path, String> e : derived.failures().entrySet()) {
+            issues.add(fileWarning(e.getKey(), "derived-output", "minified/gzip copies could not be written: " + e.getValue()));
+        }
+        for (Map.Entry<Path, String> e : compactionFailures.entrySet()) {
+            issues.add(fileWarning(e.getKey(), "compaction", "the journal could not be folded into "
+                    + dataDir.relativize(e.getKey()) + " (the edits are kept in the journal): " + e.getValue()));
+        }
+        for (Map.Entry<Path, String> e : reloadFailures.entrySet()) {
+            issues.add(fileWarning(e.getKey(), "reload", dataDir.relativize(e.getKey())
+                    + " changed on disk but could not be reloaded: " + e.getValue()));
+        }
+        CatalogWatcher w;
+        synchronized (this) {
+            w = watcher;
+        }
+        if (w != null) {
+            for (Map.Entry<Path, String> e : w.failures().entrySet()) {
+                issues.add(new ValidationIssue(ValidationIssue.Severity.WARNING, "watcher", "", "", "watcher",
+                        "changes in " + e.getKey().getFileName() + "/ are not picked up: " + e.getValue()));
+            }
+        }
+        checkBundles(issues);
+        int lyricsFiles = counts.containsKey("music") ? checkLyricsFiles(readItems("music"), issues) : 0;
+        for (Map.Entry<String, String> e : new TreeMap<>(unindexedLyrics).entrySet()) {
+            issues.add(new ValidationIssue(ValidationIssue.Severity.WARNING, "lyrics", e.getKey(), "", "unreadable",
+                    "could not be read for the search index: " + e.getValue()));
+        }
+        ReferenceReport refs = checkReferences();
+        for (MusicReference r : refs.dangling()) {
+            issues.add(new ValidationIssue(ValidationIssue.Severity.ERROR, r.kind(), r.id(), r.field(), "dangling-ref",
+                    "refers to music " + r.musicId() + ", which does not exist"));
+        }
+        for (MusicReference r : refs.duplicates()) {
+            issues.add(new ValidationIssue(ValidationIssue.Severity.ERROR, r.kind(), r.id(), r.field(), "duplicate-ref",
+                    "refers to music " + r.musicId() + " again"));
         }
+        Map<String, Integer> items = new LinkedHashMap<>();
+        for (String kind : KINDS) if (counts.containsKey(kind)) items.put(kind, counts.get(kind));
+        return ValidationReport.of(issues, Collections.unmodifiableMap(items), lyricsFiles, (System.nanoTime() - start) / 1_000_000);
+    }
 
-        long quoteCount = t.chars().filter(ch -> ch == '"').count();
-        if ((quoteCount % 2) == 1) {
-            int lastCloseBrace = t.lastIndexOf('}');
-            int insertPos = lastCloseBrace >= 0 ? lastCloseBrace : t.lastIndexOf(']');
-            if (insertPos <= 0) insertPos = t.length() - 1;
-            t = t.substring(0, insertPos) + "\"" + t.substring(insertPos);
+    /** A warning about a file under dataDir: a catalog's (<kind>.json, its journal) or a lyrics file's. */
+    /** Warns about kinds the exported page bundles no longer match (see BundleExporter). */
+    private void checkBundles(List<ValidationIssue> issues) {
+        Path file = dataDir.resolve(BundleExporter.MANIFEST);
+        String failure;
+        synchronized (bundleLock) {
+            failure = bundleFailure;
         }
-        return t;
+        if (failure != null) {
+            issues.add(new ValidationIssue(ValidationIssue.Severity.WARNING, "bundles", "", "", "bundles-stale",
+                    BundleExporter.MANIFEST + " could not be updated, so the site may show outdated bundles: " + failure));
+        }
+        if (!Files.exists(file)) return;
+        try {
+            JsonNode manifest = mapper.readTree(file.toFile());
+            Set<String> stale = BundleExporter.staleKinds(manifest);
+            Iterator<Map.Entry<String, JsonNode>> it = manifest.path("catalogs").fields();
+            while (it.hasNext()) {
+                Map.Entry<String, JsonNode> e = it.next();
+                if (!stale.contains(e.getKey()) && KINDS.contains(e.getKey())
+                        && !e.getValue().asText().equals(BundleExporter.fingerprint(mapper, readItems(e.getKey())))) {
+                    // changed outside the editor, so nothing told the site
+                    issues.add(new ValidationIssue(ValidationIssue.Severity.WARNING, e.getKey(), "", "", "bundles-stale",
+                            "differs from what the page bundles were exported from, and the site still uses them; export again"));
+                }
+            }
+            for (String kind : stale) {
+                issues.add(new ValidationIssue(ValidationIssue.Severity.WARNING, kind, "", "", "bundles-stale",
+                        "changed since the page bundles were exported; the site reads the catalogs until the next export"));
+            }
+        } catch (IOException | RuntimeException ex) {
+            issues.add(new ValidationIssue(ValidationIssue.Severity.WARNING, "bundles", "", "", "bundles-stale",
+                    BundleExporter.MANIFEST + " could not be read: " + ex.getMessage()));
+        }
+    }
+
+    private static ValidationIssue fileWarning(Path p, String code, String message) {
+        String name = p.getFileName().toString();
+        String kind = name.substring(0, Math.max(0, name.indexOf('.')));
+        boolean catalog = KINDS.contains(kind);
+        return new ValidationIssue(ValidationIssue.Severity.WARNING, catalog ? kind : "lyrics", catalog ? "" : name, "", code, message);
+    }
+
+    /** Adds missing and orphaned lyrics files to issues; returns the number of references checked. */
+    private int checkLyricsFiles(List<CatalogItem> music, List<ValidationIssue> issues) throws IOException {
+        List<CatalogItem> referring = new ArrayList<>();
+        for (CatalogItem n : music) if (!n.text("lyricsFile").isBlank()) referring.add(n);
+        // each distinct path is resolved once (one or two stats), in parallel
+        Map<String, Optional<Path>> resolved = new ConcurrentHashMap<>();
+        referring.stream().map(n -> n.text("lyricsFile")).distinct().toList().parallelStream().forEach(path -> {
+            Path p = resolveLyricsPath(path);
+            resolved.put(path, Optional.ofNullable(p).map(f -> f.toAbsolutePath().normalize()));
+        });
+        Set<Path> used = new HashSet<>();
+        for (CatalogItem n : referring) {
+            Optional<Path> p = resolved.get(n.text("lyricsFile"));
+            if (p.isPresent()) {
+                used.add(p.get());
+            } else {
+                issues.add(new ValidationIssue(ValidationIssue.Severity.ERROR, "music", Catalog.idOf(n), "lyricsFile",
+                        "lyrics-missing", n.text("lyricsFile") + " does not exist"));
+            }
+        }
+        Path dir = dataDir.resolve("lyrics");
+        if (Files.isDirectory(dir)) {
+            List<Path> files;
+            try (var s = Files.list(dir)) {
+                files = s.filter(f -> f.getFileName().toString().endsWith(".txt")).sorted().toList();
+            }
+            for (Path f : files) {
+                if (!used.contains(f.toAbsolutePath().normalize())) {
+                    issues.add(new ValidationIssue(ValidationIssue.Severity.WARNING, "lyrics", f.getFileName().toString(), "",
+                            "lyrics-orphan", "no music item refers to this file"));
+                }
+            }
+        }
+        return referring.size();
+    }
+
+    @FunctionalInterface
+    private interface IoAction {
+        void run() throws IOException;
     }
 
     /**
-     * Read list for given kind. Data files are expected under dataDir/<kind>.json
-     * Supports both top-level array and { "items": [...] } formats.
+     * Change an item's id. For music the links in movies, discography and live, the lyrics
+     * file name and lyricsFile follow in the same transaction (see CatalogTransaction): every
+     * affected catalog file and the lyrics file are written exactly once, and a failure
+     * leaves all of them as they were. The referring items come from the reference index.
+     *
+     * Throws IllegalArgumentException if oldId does not exist or newId is already taken.
      */
-    public List<ObjectNode> readList(String kind) throws IOException {
-        Path p = dataDir.resolve(kind + ".json");
-        if (!Files.exists(p)) return new ArrayList<>();
+    public void renameId(String kind, String oldId, String newId) throws IOException {
+        if (newId == null || newId.isBlank()) throw new IllegalArgumentException("id is required");
+        if (newId.equals(oldId)) return;
+        boolean music = ReferenceIndex.MUSIC.equals(kind);
+        if (music && !isReferenceIndexReady()) buildReferenceIndex();
+        // a fixed order, so two renames cannot deadlock
+        List<Catalog> locked = music
+                ? ReferenceIndex.KINDS.stream().sorted().map(this::catalog).toList()
+                : List.of(catalog(kind));
+        withLocks(locked, 0, () -> committing(locked, 0, () -> renameLocked(kind, oldId, newId, locked)));
+    }
 
+    private void withLocks(List<Catalog> cs, int i, IoAction action) throws IOException {
+        if (i == cs.size()) {
+            action.run();
+            return;
+        }
+        Catalog c = cs.get(i);
+        synchronized (c.fileLock) {
+            synchronized (c) {
+                withLocks(cs, i + 1, action);
+            }
+        }
+    }
+
+    /**
+     * Run action in the commit window of the catalogs, holding their inter-process locks (see
+     * CatalogLock), taken in list order. Caller holds the monitor of every catalog.
+     */
+    private void committing(List<Catalog> cs, int i, IoAction action) throws IOException {
+        if (i == cs.size()) {
+            action.run();
+            return;
+        }
+        Catalog c = cs.get(i);
+        c.lock.acquire();
         try {
-            JsonNode root = mapper.readTree(p.toFile());
-            JsonNode arrNode = extractItemsArray(root);
-            List<ObjectNode> out = new ArrayList<>();
-            if (arrNode != null && arrNode.isArray()) {
-                for (var elem : arrNode) {
-                    if (elem.isObject()) out.add((ObjectNode) elem);
+            committing(cs, i + 1, action);
+        } finally {
+            c.lock.release();
+        }
+    }
+
+    /** Caller holds the file lock, monitor and inter-process lock of every catalog in locked. */
+    private void renameLocked(String kind, String oldId, String newId, List<Catalog> locked) throws IOException {
+        for (Catalog c : locked) ensureLoaded(c);
+        Catalog self = catalog(kind);
+        CatalogItem item = self.get(oldId);
+        if (item == null) throw new IllegalArgumentException("no such id: " + oldId);
+        if (self.get(newId) != null) throw new IllegalArgumentException("id already exists: " + newId);
+        if (self.duplicateIds().contains(oldId)) throw new IllegalArgumentException("id is not unique: " + oldId);
+
+        CatalogTransaction tx = new CatalogTransaction(dataDir, dataDir.resolve(JOURNAL_DIR), mapper);
+        Map<Catalog, List<CatalogItem>> next = new LinkedHashMap<>();
+
+        CatalogItem renamed = item.copy();
+        renamed.setId(newId);
+        String lyrics = null;
+        Path newLyrics = null;
+        String lyricsFile = item.text("lyricsFile");
+        Path oldLyrics = lyricsFile.isBlank() ? null : resolveLyricsPath(lyricsFile);
+        if (oldLyrics != null) {
+            lyrics = Files.readString(oldLyrics, StandardCharsets.UTF_8);
+            newLyrics = dataDir.resolve("lyrics").resolve(newId + ".txt");
+            if (Files.exists(newLyrics)) throw new IllegalArgumentException("lyrics file already exists: " + newLyrics.getFileName());
+            byte[] bytes = lyrics.getBytes(StandardCharsets.UTF_8);
+            tx.write(newLyrics, os -> os.write(bytes));
+            tx.delete(oldLyrics);
+            tx.delete(oldLyrics.resolveSibling(oldLyrics.getFileName() + DerivedOutputs.GZ_SUFFIX));
+            renamed.set("lyricsFile", lyricsJsonPath(newLyrics));
+        }
+        next.put(self, replaceItem(self.items(), item, renamed));
+
+        if (ReferenceIndex.MUSIC.equals(kind)) {
+            Map<String, Set<String>> referrers = new HashMap<>();
+            for (MusicReference r : references.referencesTo(oldId)) {
+                referrers.computeIfAbsent(r.kind(), k -> new HashSet<>()).add(r.id());
+            }
+            for (Map.Entry<String, Set<String>> e : referrers.entrySet()) {
+                Catalog c = catalog(e.getKey());
+                List<CatalogItem> items = new ArrayList<>(c.items());
+                for (int i = 0; i < items.size(); i++) {
+                    if (!e.getValue().contains(Catalog.idOf(items.get(i)))) continue;
+                    CatalogItem copy = items.get(i).copy(); // cached items are never mutated
+                    if (ReferenceIndex.relink(copy, oldId, newId)) items.set(i, copy);
                 }
+                next.put(c, items);
             }
-            return out;
+        }
+
+        for (Map.Entry<Catalog, List<CatalogItem>> e : next.entrySet()) {
+            Catalog c = e.getKey();
+            List<CatalogItem> items = e.getValue();
+            tx.write(c.file, os -> json.write(os, items));
+            // the rewritten file contains every journaled edit; replaying the journal on top
+            // of it would bring the old id back
+            c.journal.closeChannel();
+            tx.delete(c.journal.file);
+        }
+        tx.commit();
+        for (Catalog c : next.keySet()) publishDerived(c.file);
+        if (newLyrics != null) publishDerived(newLyrics);
+        for (Catalog c : next.keySet()) bundlesOutdated(c.kind);
+        if (newLyrics != null) bundlesOutdated("lyrics");
+
+        List<EditHistory.Change> changes = new ArrayList<>();
+        for (Map.Entry<Catalog, List<CatalogItem>> e : next.entrySet()) {
+            Catalog c = e.getKey();
+            if (history.isEnabled()) changes.addAll(changes(c.kind, c.items(), e.getValue()));
+            c.replace(e.getValue(), Catalog.FileStamp.of(c.file));
+            c.setJournalStamp(Catalog.FileStamp.MISSING);
+            indexReplaced(c.kind, c.items());
+        }
+        if (newLyrics != null) {
+            lyricsCache.put(newLyrics, lyrics, Catalog.FileStamp.of(newLyrics));
+            lyricsCache.putResolvedPath(renamed.text("lyricsFile"), newLyrics);
+            if (indexedKinds.contains(kind)) searchIndex.indexLyrics(newId, lyrics);
+        }
+        // one step: the item under both ids, the relinked referrers and the moved lyrics file
+        history.record("rename " + kind + "/" + oldId + " to " + newId, changes, newLyrics == null ? List.of() : List.of(
+                new EditHistory.FileChange(oldLyrics, oldId, lyrics, null),
+                new EditHistory.FileChange(newLyrics, newId, null, lyrics)));
+    }
+
+    private static List<CatalogItem> replaceItem(List<CatalogItem> items, CatalogItem old, CatalogItem replacement) {
+        List<CatalogItem> out = new ArrayList<>(items);
+        for (int i = 0; i < out.size(); i++) {
+            if (out.get(i) == old) {
+                out.set(i, replacement);
+                break;
+            }
+        }
+        return out;
+    }
+
+    // Derived indexes follow every change to a catalog. Caller holds the Catalog lock.
+
+    private void indexUpserted(String kind, CatalogItem item) {
+        if (indexedKinds.contains(kind)) {
+            searchIndex.index(kind, item, "music".equals(kind) && item.text("lyricsFile").isBlank());
+        }
+        if (referenceKinds.contains(kind)) references.update(kind, item);
+    }
+
+    private void indexDeleted(String kind, String id) {
+        if (indexedKinds.contains(kind)) searchIndex.remove(kind, id);
+        if (referenceKinds.contains(kind)) references.remove(kind, id);
+    }
+
+    private void indexReplaced(String kind, List<CatalogItem> items) {
+        if (indexedKinds.contains(kind)) searchIndex.replaceKind(kind, items, null);
+        if (referenceKinds.contains(kind)) references.replaceKind(kind, items);
+    }
+
+    /**
+     * Also write minified and gzip copies of catalogs and lyrics after each rewrite (see
+     * DerivedOutputs). Takes effect for the next write.
+     */
+    public void setDerivedOutputs(boolean enabled) {
+        this.derivedOutputs = enabled;
+    }
+
+    private void publishDerived(Path source) {
+        if (derivedOutputs) derived.submit(source);
+    }
+
+    /**
+     * Asynchronous view of this service (CompletableFuture based, runs on background threads).
+     */
+    public AsyncDataService async() {
+        return async;
+    }
+
+    /**
+     * Stop background compaction and fold all journals into their catalog files.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (watcher != null) watcher.stop();
+            watcher = null;
+        }
+        async.shutdown();
+        flush();
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        compactAll();
+        derived.shutdown();
+        for (Catalog c : catalogs.values()) {
+            synchronized (c) {
+                c.journal.closeChannel();
+            }
+        }
+    }
+
+    /**
+     * Read the items of a kind. Data files are expected under dataDir/<kind>.json
+     * Supports both top-level array and { "items": [...] } formats.
+     *
+     * Served from the in-memory cache when the file is unchanged; the returned list is a
+     * fresh shallow copy, so adding/removing entries does not affect the cache. The items
+     * themselves are the cached records: treat them as read-only and upsert() a copy().
+     */
+    public List<CatalogItem> readItems(String kind) throws IOException {
+        return readItems(kind, LoadMonitor.NONE);
+    }
+
+    /**
+     * readItems with progress reporting and cancellation for long (re)loads; see LoadMonitor.
+     */
+    public List<CatalogItem> readItems(String kind, LoadMonitor monitor) throws IOException {
+        Catalog c = catalog(kind);
+        synchronized (c) {
+            ensureLoaded(c, monitor);
+            return c.snapshot();
+        }
+    }
+
+    /**
+     * readItems for callers that know the record class of the kind (see Items.typeOf), e.g.
+     * readItems("music", Music.class).
+     */
+    public <T extends CatalogItem> List<T> readItems(String kind, Class<T> type) throws IOException {
+        if (!type.isAssignableFrom(Items.typeOf(kind))) {
+            throw new IllegalArgumentException(kind + " items are " + Items.typeOf(kind).getSimpleName() + ", not " + type.getSimpleName());
+        }
+        @SuppressWarnings("unchecked")
+        List<T> items = (List<T>) (List<?>) readItems(kind);
+        return items;
+    }
+
+    /**
+     * The items of a kind as independent trees (converted on every call; readItems is cheaper).
+     */
+    public List<ObjectNode> readList(String kind) throws IOException {
+        return readList(kind, LoadMonitor.NONE);
+    }
+
+    public List<ObjectNode> readList(String kind, LoadMonitor monitor) throws IOException {
+        List<CatalogItem> items = readItems(kind, monitor);
+        List<ObjectNode> out = new ArrayList<>(items.size());
+        for (CatalogItem item : items) out.add(item.toTree());
+        return out;
+    }
+
+    /** Lookups, hits and estimated bytes saved by interning short text values while reading. */
+    public StringTable.Stats stringStats() {
+        return strings.stats();
+    }
+
+    private List<CatalogItem> loadFromDisk(Catalog c, LoadMonitor monitor) throws IOException {
+        if (!Files.exists(c.file)) return new ArrayList<>();
+
+        try {
+            return json.read(c.file, Items.typeOf(c.kind), monitor);
         } catch (IOException ioe) {
-            // attempt lenient repair: read raw, try to repair and parse
-            try {
-                String raw = Files.readString(p, StandardCharsets.UTF_8);
-                raw = new String(stripUtf8Bom(raw.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
-                String repaired = lenientRepair(raw);
-                JsonNode repairedRoot = tryParse(repaired);
-                JsonNode arrNode = extractItemsArray(repairedRoot);
-                if (arrNode != null && arrNode.isArray()) {
-                    // overwrite file with repaired canonical form (object with items array)
-                    ObjectNode outRoot = mapper.createObjectNode();
-                    outRoot.set("items", mapper.valueToTree(arrNode));
-                    Files.writeString(p, mapper.writerWithDefaultPrettyPrinter().writeValueAsString(outRoot), StandardCharsets.UTF_8, StandardOpenOption.TRUNCATE_EXISTING);
-                    List<ObjectNode> res = new ArrayList<>();
-                    for (var elem : arrNode) if (elem.isObject()) res.add((ObjectNode) elem);
-                    return res;
+            CatalogSalvage.Result res = repairFile(c);
+            if (res == null) throw ioe;
+            return res.items();
+        }
+    }
+
+    /**
+     * Salvage every complete item of a damaged file (see CatalogSalvage), keep a copy of the
+     * damaged bytes as .journal/<name>.damaged and overwrite the file with the salvaged items.
+     * Returns null, leaving the file alone, if no item could be recovered from it.
+     */
+    private CatalogSalvage.Result repairFile(Catalog c) throws IOException {
+        byte[] raw = Files.readAllBytes(c.file);
+        CatalogSalvage.Result res = CatalogSalvage.salvage(raw, itemReader(c));
+        if (!isRecoverable(res)) return null;
+        c.repairedOnLoad = writeRepaired(c.file, raw, res);
+        return res;
+    }
+
+    private ObjectReader itemReader(Catalog c) {
+        return mapper.readerFor(Items.typeOf(c.kind));
+    }
+
+    private static boolean isRecoverable(CatalogSalvage.Result res) {
+        return !res.items().isEmpty() || res.dropped().isEmpty();
+    }
+
+    private RepairReport writeRepaired(Path p, byte[] raw, CatalogSalvage.Result res) throws IOException {
+        Path backup = damagedCopy(p);
+        Files.createDirectories(backup.getParent());
+        AtomicFiles.write(backup, raw);
+        json.write(p, res.items());
+        publishDerived(p);
+        return new RepairReport(res.items().size(), res.dropped(), backup);
+    }
+
+    /** Token-level syntax check (no trees are built); throws the parse error if malformed. */
+    private boolean isWellFormed(byte[] raw) throws IOException {
+        try (JsonParser jp = mapper.getFactory().createParser(raw)) {
+            while (jp.nextToken() != null) {
+                // tokens only
+            }
+        }
+        return true;
+    }
+
+    private Path damagedCopy(Path catalogFile) {
+        return dataDir.resolve(JOURNAL_DIR).resolve(catalogFile.getFileName() + ".damaged");
+    }
+
+    /**
+     * Check that <kind>.json parses and repair it in place if it does not. Returns
+     * RepairReport.NOT_NEEDED if the file was fine (or missing), otherwise what was kept and
+     * which byte ranges were dropped; throws the parse error if no item could be recovered.
+     */
+    public RepairReport repair(String kind) throws IOException {
+        Catalog c = catalog(kind);
+        synchronized (c.fileLock) {
+            synchronized (c) {
+                c.lock.acquire();
+                try {
+                    return repairLocked(c);
+                } finally {
+                    c.lock.release();
                 }
-            } catch (Exception ex) {
-                // fallthrough to throw original
             }
-            throw ioe;
         }
     }
 
-    private JsonNode extractItemsArray(JsonNode root) {
-        if (root == null) return null;
-        if (root.isArray()) return root;
-        if (root.isObject() && root.has("items") && root.get("items").isArray()) return root.get("items");
-        return null;
+    /** Caller holds c's file lock, monitor and inter-process lock. */
+    private RepairReport repairLocked(Catalog c) throws IOException {
+        if (!Files.exists(c.file)) return RepairReport.NOT_NEEDED;
+        // the salvage pass doubles as the check, so a damaged file is read only once
+        byte[] raw = Files.readAllBytes(c.file);
+        CatalogSalvage.Result res = CatalogSalvage.salvage(raw, itemReader(c));
+        if (res.intact()) return RepairReport.NOT_NEEDED;
+        try {
+            // valid, just laid out differently (e.g. members after "items")?
+            if (isWellFormed(raw)) return RepairReport.NOT_NEEDED;
+        } catch (IOException ioe) {
+            if (!isRecoverable(res)) throw ioe;
+        }
+        RepairReport report = writeRepaired(c.file, raw, res);
+        c.replace(res.items(), Catalog.FileStamp.of(c.file));
+        for (JsonNode rec : c.journal.readRecords()) applyRecord(c, rec);
+        c.setJournalStamp(Catalog.FileStamp.of(c.journal.file));
+        indexReplaced(c.kind, c.items());
+        bundlesOutdated(c.kind);
+        return report;
     }
 
     /**
      * Write list for given kind. Writes object { "items": [ ... ] } to dataDir/<kind>.json
+     * and replaces the cached items (write-through). The trees are converted to records (see
+     * Items.fromTree), which share their values: do not change them afterwards.
+     *
+     * The list is merged with what other editors committed since the catalog was loaded (see
+     * CatalogMerge): items they added or changed that the list leaves as loaded are kept.
+     * Throws CatalogConflictException, writing nothing, for items changed on both sides.
      */
     public void writeList(String kind, List<ObjectNode> list) throws IOException {
-        Path p = dataDir.resolve(kind + ".json");
-        ArrayNode arr = mapper.createArrayNode();
-        for (var n : list) arr.add(n);
-        ObjectNode root = mapper.createObjectNode();
-        root.set("items", arr);
-        mapper.writerWithDefaultPrettyPrinter().writeValue(p.toFile(), root);
+        List<CatalogItem> items = new ArrayList<>(list.size());
+        for (ObjectNode n : list) items.add(Items.fromTree(kind, n));
+        writeItems(kind, items);
     }
 
     /**
-     * Copy image into the repo assets/images directory and return the path relative to repo root.
-     * If repoRoot is not set, returns a path relative to execRoot.
+     * writeList for records; the list's items become the cached items, so do not change
+     * them afterwards.
      */
-    public Path importImage(File src) throws IOException {
-        if (src == null) throw new IllegalArgumentException("src is null");
-        String fileName = src.getName();
-        Path dest = imagesDir.resolve(fileName);
-        int i = 1;
-        String base = fileName.contains(".") ? fileName.substring(0, fileName.lastIndexOf('.')) : fileName;
-        String ext = fileName.contains(".") ? fileName.substring(fileName.lastIndexOf('.')) : "";
-        while (Files.exists(dest)) {
-            dest = imagesDir.resolve(base + "-" + i + ext);
-            i++;
-        }
-        Files.copy(src.toPath(), dest, StandardCopyOption.REPLACE_EXISTING);
-        // return path relative to repoRoot if possible; otherwise relative to execRoot
-        Path baseForRel = (repoRoot != null) ? repoRoot : execRoot;
+    public void writeItems(String kind, List<? extends CatalogItem> list) throws IOException {
+        Catalog c = catalog(kind);
+        synchronized (c.fileLock) {
+            synchronized (c) {
+                // the view is the catalog as last loaded, which the list was made from; if it is
+                // stale, writeLocked reloads and merges in the commit window
+                if (!c.isLoaded()) ensureLoaded(c);
+                List<EditHistory.Change> changes = writeLocked(List.of(new ListWrite(c, c.items(), list)), LoadMonitor.NONE);
+                history.record("write " + kind + " (" + changes.size() + (changes.size() == 1 ? " item)" : " items)"), changes);
+            }
+        }
+    }
+
+    /** A whole-list write of one catalog: items, derived from view (the cached items as read). */
+    private record ListWrite(Catalog c, List<CatalogItem> view, List<? extends CatalogItem> items) {}
+
+    /**
+     * Replace the files and cached items of the catalogs with the lists merged against what is
+     * stored (see CatalogMerge). The merged lists are formatted into temp files first; in the
+     * commit window only a catalog that changed since its view (another editor committed, or
+     * it was reloaded) is reloaded, merged and formatted again before every temp file is
+     * renamed into place. A conflict in any catalog throws CatalogConflictException before
+     * anything is renamed.
+     *
+     * Returns the history changes from the stored items to the written ones (none while the
+     * history is off). Caller holds the file lock and monitor of every catalog.
+     */
+    private List<EditHistory.Change> writeLocked(List<ListWrite> writes, LoadMonitor monitor) throws IOException {
+        Map<Catalog, List<CatalogItem>> out = new HashMap<>();
+        Map<Catalog, Path> staged = new HashMap<>();
+        List<EditHistory.Change> changes = new ArrayList<>();
         try {
-            return baseForRel.relativize(dest);
-        } catch (Exception ex) {
-            return dest;
+            List<ItemConflict> conflicts = new ArrayList<>();
+            for (ListWrite w : writes) out.put(w.c(), CatalogMerge.merge(w.c().kind, w.view(), w.items(), w.view(), w.c()::isRetired, conflicts));
+            if (!conflicts.isEmpty()) throw new CatalogConflictException(conflicts);
+            long total = 0;
+            for (List<CatalogItem> items : out.values()) total += items.size();
+            long done = 0;
+            for (ListWrite w : writes) {
+                staged.put(w.c(), json.prepare(w.c().file, out.get(w.c()), offset(monitor, done, total)));
+                done += out.get(w.c()).size();
+            }
+            List<Catalog> locked = writes.stream().map(ListWrite::c).sorted(Comparator.comparing(c -> c.kind)).toList();
+            committing(locked, 0, () -> {
+                for (ListWrite w : writes) {
+                    Catalog c = w.c();
+                    if (c.isFresh() && c.items() == w.view()) continue;
+                    ensureLoaded(c);
+                    out.put(c, CatalogMerge.merge(c.kind, w.view(), w.items(), c.items(), c::isRetired, conflicts));
+                    Files.deleteIfExists(staged.remove(c));
+                    staged.put(c, json.prepare(c.file, out.get(c), LoadMonitor.NONE));
+                }
+                if (!conflicts.isEmpty()) throw new CatalogConflictException(conflicts);
+                for (ListWrite w : writes) {
+                    Catalog c = w.c();
+                    if (history.isEnabled()) changes.addAll(changes(c.kind, c.items(), out.get(c)));
+                    AtomicFiles.publish(staged.remove(c), c.file);
+                    c.replace(out.get(c), Catalog.FileStamp.of(c.file));
+                    // the full file now contains every edit, so the journal is obsolete
+                    c.journal.clear();
+                    c.setJournalStamp(Catalog.FileStamp.MISSING);
+                    indexReplaced(c.kind, c.items());
+                }
+            });
+        } finally {
+            for (Path tmp : staged.values()) Files.deleteIfExists(tmp);
+        }
+        for (ListWrite w : writes) {
+            publishDerived(w.c().file);
+            bundlesOutdated(w.c().kind);
         }
+        return changes;
+    }
+
+    /** monitor for a part of a longer count: done..done+t of total. */
+    private static LoadMonitor offset(LoadMonitor monitor, long done, long total) {
+        return new LoadMonitor() {
+            @Override
+            public void progress(long d, long t) {
+                monitor.progress(done + d, total);
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return monitor.isCancelled();
+            }
+        };
+    }
+
+    /**
+     * Apply a bulk edit (see BulkEdit): one pass over each affected catalog, then exactly one
+     * writeItems-style rewrite per catalog that changed, all recorded as a single undo step.
+     * Returns the number of changed (or deleted) items per kind; kinds without changes are
+     * not written and not listed. The rewrites are merged with other editors' commits like
+     * writeItems, and committed together: a conflict in one kind writes none.
+     *
+     * monitor sees the pass and the writes as one count of items (passed + written). Cancelling
+     * is honoured until the files are formatted; nothing has changed then.
+     */
+    public Map<String, Integer> applyBulk(BulkEdit edit, LoadMonitor monitor) throws IOException {
+        Map<String, Integer> changed = new LinkedHashMap<>();
+        List<Catalog> locked = edit.kinds().stream().sorted().map(this::catalog).toList();
+        withLocks(locked, 0, () -> {
+            for (Catalog c : locked) ensureLoaded(c);
+            long passTotal = 0;
+            for (Catalog c : locked) passTotal += c.items().size();
+            long done = 0;
+            List<ListWrite> writes = new ArrayList<>();
+            for (String kind : edit.kinds()) {
+                Catalog c = catalog(kind);
+                List<CatalogItem> items = c.items();
+                List<CatalogItem> out = new ArrayList<>(items.size());
+                int n = 0;
+                for (CatalogItem item : items) {
+                    if (monitor.isCancelled()) throw new CancellationException("bulk edit cancelled");
+                    CatalogItem r = edit.apply(kind, item);
+                    if (r != item) n++;
+                    if (r != null) out.add(r);
+                    // about as many items are written as passed; the exact count is known after the pass
+                    if ((++done & 0xFF) == 0) monitor.progress(done, passTotal * 2);
+                }
+                if (n == 0) continue;
+                writes.add(new ListWrite(c, items, out));
+                changed.put(kind, n);
+            }
+            if (monitor.isCancelled()) throw new CancellationException("bulk edit cancelled");
+            if (writes.isEmpty()) return;
+            long passed = passTotal;
+            history.record(edit.label(), writeLocked(writes, new LoadMonitor() {
+                @Override
+                public void progress(long d, long t) {
+                    monitor.progress(passed + d, passed + t);
+                }
+
+                @Override
+                public boolean isCancelled() {
+                    return false;
+                }
+            }));
+        });
+        return changed;
+    }
+
+    /**
+     * Return the cached item with the given id, or null. The record is shared with the cache:
+     * treat it as read-only and upsert() a copy() to change it.
+     */
+    public CatalogItem getItem(String kind, String id) throws IOException {
+        Catalog c = catalog(kind);
+        synchronized (c) {
+            ensureLoaded(c);
+            return c.get(id);
+        }
+    }
+
+    /**
+     * The item with the given id as an independent tree, or null.
+     */
+    public ObjectNode get(String kind, String id) throws IOException {
+        CatalogItem item = getItem(kind, id);
+        return item == null ? null : item.toTree();
+    }
+
+    /**
+     * Insert or replace an item by its "id" field. Existing items keep their position;
+     * new items are placed at the top of the list (same as the editor always did).
+     * The record becomes the cached item: do not change it afterwards.
+     *
+     * Throws CatalogConflictException, writing nothing, if another editor committed a
+     * different version of the item first: for a copy, the stored item is no longer the one
+     * it was copied from (or is gone); for an item made with Items.create, the id exists.
+     */
+    public void upsert(String kind, CatalogItem item) throws IOException {
+        String id = Catalog.idOf(item);
+        if (id.isBlank()) throw new IllegalArgumentException("id is required");
+        Catalog c = catalog(kind);
+        journaled(c, () -> {
+            ensureLoaded(c);
+            CatalogItem seen = c.get(id);
+            c.lock.acquire();
+            try {
+                ensureLoaded(c); // with what other editors committed meanwhile
+                CatalogItem old = c.get(id);
+                List<ItemConflict> conflicts = new ArrayList<>(0);
+                CatalogItem keep = CatalogMerge.resolve(kind, item, seen, old, c::isRetired, conflicts);
+                if (!conflicts.isEmpty()) throw new CatalogConflictException(conflicts);
+                if (keep != item) return null; // an unchanged copy of an older version: the stored one stays
+                putItem(c, item, -1);
+                record((old == null ? "add " : "save ") + kind + "/" + id, c, id, old, item);
+                return null;
+            } finally {
+                c.lock.release();
+            }
+        });
+    }
+
+    /**
+     * Apply an RFC 6902 patch (see JsonPatch) to the item with the given id and return the
+     * item as cached afterwards. The patched item is journaled like an upsert; a patch that
+     * leaves the item as it was (empty, or only values it already has) writes nothing and
+     * returns the cached item unchanged. The id cannot be patched (see renameId).
+     *
+     * The patch is applied to the item as stored at commit time, so changes other editors
+     * made to other members are kept. CatalogConflictException is thrown instead if one of its
+     * test ops fails (see JsonPatch.checkedDiff) or the item was deleted by another editor;
+     * IllegalArgumentException if there is no such item or the patch does not apply.
+     * Nothing is changed in either case.
+     */
+    public CatalogItem patch(String kind, String id, JsonNode patch) throws IOException {
+        Catalog c = catalog(kind);
+        return journaled(c, () -> {
+            ensureLoaded(c);
+            boolean seen = c.get(id) != null;
+            c.lock.acquire();
+            try {
+                ensureLoaded(c); // with what other editors committed meanwhile
+                CatalogItem item = c.get(id);
+                if (item == null && seen) throw new CatalogConflictException(List.of(new ItemConflict(kind, id, "deleted")));
+                if (item == null) throw new IllegalArgumentException("no such id: " + id);
+                if (patch.isArray() && patch.isEmpty()) return item;
+                JsonNode patched;
+                try {
+                    patched = JsonPatch.apply(item.toTree(), patch);
+                } catch (JsonPatch.TestFailedException ex) {
+                    throw new CatalogConflictException(List.of(new ItemConflict(kind, id, "changed")));
+                }
+                if (!patched.isObject()) throw new IllegalArgumentException("the patch does not leave an object");
+                CatalogItem next = Items.fromTree(kind, (ObjectNode) patched);
+                if (!id.equals(Catalog.idOf(next))) throw new IllegalArgumentException("the id cannot be patched; use renameId");
+                if (next.equals(item)) return item;
+                putItem(c, next, -1);
+                record("patch " + kind + "/" + id, c, id, item, next);
+                return next;
+            } finally {
+                c.lock.release();
+            }
+        });
+    }
+
+    /** upsert for a tree (converted with Items.fromTree, sharing its values). */
+    public void upsert(String kind, ObjectNode node) throws IOException {
+        upsert(kind, Items.fromTree(kind, node));
+    }
+
+    /**
+     * Delete the item with the given id. Returns false (and writes nothing) if no such item exists.
+     */
+    public boolean delete(String kind, String id) throws IOException {
+        Catalog c = catalog(kind);
+        return journaled(c, () -> {
+            ensureLoaded(c);
+            c.lock.acquire();
+            try {
+                ensureLoaded(c); // with what other editors committed meanwhile
+                CatalogItem old = c.get(id);
+                if (old == null) return false;
+                int index = c.indexOf(id);
+                removeItem(c, id);
+                if (history.isEnabled()) {
+                    history.record("delete " + kind + "/" + id,
+                            List.of(EditHistory.change(kind, id, old.toTree(), EditHistory.absent(), index)));
+                }
+                return true;
+            } finally {
+                c.lock.release();
+            }
+        });
+    }
+
+    /** Journal and cache one item; a new one goes to index (-1: the top). Caller holds the monitor and inter-process lock. */
+    private void putItem(Catalog c, CatalogItem item, int index) throws IOException {
+        String id = Catalog.idOf(item);
+        boolean insertAt = index >= 0 && c.get(id) == null;
+        appendJournal(c, insertAt ? c.journal.upsertRecord(item, index) : c.journal.upsertRecord(item));
+        if (insertAt) c.insert(index, item);
+        else c.upsert(id, item);
+        indexUpserted(c.kind, item);
+    }
+
+    /** Journal and uncache one item. Caller holds the monitor and inter-process lock. */
+    private void removeItem(Catalog c, String id) throws IOException {
+        appendJournal(c, c.journal.deleteRecord(id));
+        c.delete(id);
+        indexDeleted(c.kind, id);
+    }
+
+    private interface IoCall<T> {
+        T call() throws IOException;
+    }
+
+    /**
+     * Run body holding c's monitor, then wait for the group sync that covers what it appended
+     * to the journal. The wait holds no lock, so other writers join the same group meanwhile.
+     */
+    private <T> T journaled(Catalog c, IoCall<T> body) throws IOException {
+        long before;
+        long after;
+        T result;
+        synchronized (c) {
+            before = c.journal.appended();
+            result = body.call();
+            after = c.journal.appended();
+        }
+        if (after != before) c.journal.awaitSynced(after);
+        return result;
+    }
+
+    /** Record an item going from before (null: absent) to after, now cached. Caller holds the lock. */
+    private void record(String label, Catalog c, String id, CatalogItem before, CatalogItem after) {
+        if (!history.isEnabled() || after.equals(before)) return;
+        JsonNode from = before == null ? EditHistory.absent() : before.toTree();
+        history.record(label, List.of(EditHistory.change(c.kind, id, from, after.toTree(), c.indexOf(id))));
+    }
+
+    /** Per-item changes from one list of a kind to another, by id (first occurrence of each). */
+    private static List<EditHistory.Change> changes(String kind, List<? extends CatalogItem> before, List<? extends CatalogItem> after) {
+        Map<String, Integer> oldPos = new HashMap<>(before.size() * 2);
+        for (int i = 0; i < before.size(); i++) oldPos.putIfAbsent(Catalog.idOf(before.get(i)), i);
+        Set<String> seen = new HashSet<>(after.size() * 2);
+        List<EditHistory.Change> out = new ArrayList<>();
+        for (int i = 0; i < after.size(); i++) {
+            CatalogItem n = after.get(i);
+            String id = Catalog.idOf(n);
+            if (!seen.add(id)) continue;
+            Integer pos = oldPos.get(id);
+            CatalogItem prev = pos == null ? null : before.get(pos);
+            if (prev == null) out.add(EditHistory.change(kind, id, EditHistory.absent(), n.toTree(), i));
+            else if (!prev.equals(n)) out.add(EditHistory.change(kind, id, prev.toTree(), n.toTree(), i));
+        }
+        for (Map.Entry<String, Integer> e : oldPos.entrySet()) {
+            if (seen.contains(e.getKey())) continue;
+            out.add(EditHistory.change(kind, e.getKey(), before.get(e.getValue()).toTree(), EditHistory.absent(), e.getValue()));
+        }
+        return out;
+    }
+
+    /** The session's undo/redo history (off until setLimit is called). */
+    public EditHistory history() {
+        return history;
+    }
+
+    /**
+     * Revert the latest recorded step and return it (null if there is none). The step's items
+     * are written like any edit (journal, cache, indexes). If an item was changed since, the
+     * step is dropped from the history and IllegalStateException is thrown; nothing is written.
+     */
+    public EditHistory.Step undo() throws IOException {
+        EditHistory.Step s = history.popUndo();
+        if (s == null) return null;
+        applyStep(s, true);
+        history.pushRedo(s);
+        return s;
+    }
+
+    /** Reapply the latest undone step; see undo(). */
+    public EditHistory.Step redo() throws IOException {
+        EditHistory.Step s = history.popRedo();
+        if (s == null) return null;
+        applyStep(s, false);
+        history.pushUndo(s);
+        return s;
+    }
+
+    private void applyStep(EditHistory.Step s, boolean undo) throws IOException {
+        List<Catalog> locked = s.kinds().stream().sorted().map(this::catalog).toList();
+        long[] appended = new long[locked.size()];
+        withLocks(locked, 0, () -> committing(locked, 0, () -> {
+            for (Catalog c : locked) ensureLoaded(c);
+            // every patch is applied before anything is written, so a failed test changes nothing
+            List<JsonNode> results = new ArrayList<>(s.changes.size());
+            for (EditHistory.Change ch : s.changes) {
+                CatalogItem cur = catalog(ch.kind()).get(ch.id());
+                JsonNode doc = cur == null ? EditHistory.absent() : cur.toTree();
+                try {
+                    results.add(JsonPatch.apply(doc, undo ? ch.undo() : ch.redo()));
+                } catch (IllegalArgumentException ex) {
+                    throw new IllegalStateException((undo ? "cannot undo \"" : "cannot redo \"") + s.label() + "\": "
+                            + ch.kind() + "/" + ch.id() + " was changed since", ex);
+                }
+            }
+            for (EditHistory.FileChange f : s.files) {
+                String expected = undo ? f.after() : f.before();
+                String actual = Files.exists(f.file()) ? Files.readString(f.file(), StandardCharsets.UTF_8) : null;
+                if (!Objects.equals(expected, actual)) {
+                    throw new IllegalStateException((undo ? "cannot undo \"" : "cannot redo \"") + s.label() + "\": "
+                            + dataDir.relativize(f.file()) + " was changed since");
+                }
+            }
+            // deletes, then updates, then inserts from the top down, so each lands at its index
+            List<Integer> inserts = new ArrayList<>();
+            for (int pass = 0; pass < 2; pass++) {
+                for (int i = 0; i < results.size(); i++) {
+                    EditHistory.Change ch = s.changes.get(i);
+                    Catalog c = catalog(ch.kind());
+                    boolean exists = c.get(ch.id()) != null;
+                    JsonNode r = results.get(i);
+                    if (pass == 0 && exists && !r.isObject()) removeItem(c, ch.id());
+                    else if (pass == 1 && exists && r.isObject()) putItem(c, Items.fromTree(c.kind, (ObjectNode) r), -1);
+                    else if (pass == 1 && !exists && r.isObject()) inserts.add(i);
+                }
+            }
+            inserts.sort(Comparator.comparingInt(i -> s.changes.get(i).index()));
+            for (int i : inserts) {
+                Catalog c = catalog(s.changes.get(i).kind());
+                putItem(c, Items.fromTree(c.kind, (ObjectNode) results.get(i)), Math.max(0, s.changes.get(i).index()));
+            }
+            // files after the items, so the search index gets the lyrics of the item now stored
+            for (EditHistory.FileChange f : s.files) restoreFile(f.file(), f.musicId(), undo ? f.before() : f.after());
+            for (int i = 0; i < appended.length; i++) appended[i] = locked.get(i).journal.appended();
+        }));
+        // like journaled: the step is durable before undo/redo return
+        for (int i = 0; i < appended.length; i++) locked.get(i).journal.awaitSynced(appended[i]);
+    }
+
+    /** Put a lyrics file back to text (null: delete it) with its derived copy, cache and index entries. */
+    private void restoreFile(Path file, String musicId, String text) throws IOException {
+        bundlesOutdated("lyrics");
+        if (text == null) {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(file.resolveSibling(file.getFileName() + DerivedOutputs.GZ_SUFFIX));
+            lyricsCache.invalidateIfStale(file);
+            return;
+        }
+        AtomicFiles.write(file, text.getBytes(StandardCharsets.UTF_8));
+        publishDerived(file);
+        lyricsCache.put(file, text, Catalog.FileStamp.of(file));
+        if (indexedKinds.contains("music")) searchIndex.indexLyrics(musicId, text);
+    }
+
+    /**
+     * Ids that occur more than once in the given kind (only the first occurrence is reachable
+     * through get/upsert). Empty when the catalog is consistent.
+     */
+    public Set<String> getDuplicateIds(String kind) throws IOException {
+        Catalog c = catalog(kind);
+        synchronized (c) {
+            ensureLoaded(c);
+            return Set.copyOf(c.duplicateIds());
+        }
+    }
+
+    /**
+     * Copy image into the repo assets/images directory (content-addressed, see ImageStore) and
+     * return its path relative to repo root, plus downscaled variants for srcset. Importing the
+     * same image again returns the existing file without writing anything.
+     * If repoRoot is not set, paths are relative to execRoot.
+     */
+    public ImportedImage importImage(File src) throws IOException {
+        if (src == null) throw new IllegalArgumentException("src is null");
+        return images.importImage(src.toPath(), dest -> {
+            // path relative to repoRoot if possible; otherwise relative to execRoot
+            Path baseForRel = (repoRoot != null) ? repoRoot : execRoot;
+            Path rel;
+            try {
+                rel = baseForRel.relativize(dest);
+            } catch (Exception ex) {
+                rel = dest;
+            }
+            return rel.toString().replace('\\', '/');
+        });
     }
 
     /**
@@ -219,7 +1573,20 @@ public class DataService {
         Files.createDirectories(lyricsDir);
         String fileName = musicId + ".txt";
         Path file = lyricsDir.resolve(fileName);
-        Files.writeString(file, lyrics == null ? "" : lyrics, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        String text = lyrics == null ? "" : lyrics;
+        AtomicFiles.write(file, text.getBytes(StandardCharsets.UTF_8));
+        publishDerived(file);
+        bundlesOutdated("lyrics");
+        if (indexedKinds.contains("music")) searchIndex.indexLyrics(musicId, lyrics);
+        String relStr = lyricsJsonPath(file);
+        // a reopen right after saving is then served from memory
+        lyricsCache.put(file, text, Catalog.FileStamp.of(file));
+        lyricsCache.putResolvedPath(relStr, file);
+        return relStr;
+    }
+
+    /** The lyricsFile value for a file under assets/data/lyrics, e.g. "data/lyrics/ID.txt". */
+    private String lyricsJsonPath(Path file) {
         Path baseForRel = (repoRoot != null) ? repoRoot : execRoot;
         Path rel;
         try {
@@ -229,8 +1596,7 @@ public class DataService {
         }
         String relStr = rel.toString().replace('\\', '/');
         // Remove leading 'assets/' so JSON contains 'data/lyrics/...' which the website expects.
-        relStr = relStr.replaceFirst("^assets/", "");
-        return relStr;
+        return relStr.replaceFirst("^assets/", "");
     }
 
     /**
@@ -241,25 +1607,47 @@ public class DataService {
      *  - repoRoot.resolve(lyricsFilePath)
      *  - repoRoot.resolve("assets").resolve(lyricsFilePath)
      * This allows JSON to contain "data/lyrics/..." while the actual file resides under assets/data/lyrics.
+     *
+     * Both the resolved path and the text are cached; see LyricsCache.
      */
     public String readLyricsFile(String lyricsFilePath) throws IOException {
         if (lyricsFilePath == null || lyricsFilePath.isBlank()) return null;
+        Path file = lyricsCache.resolvedPath(lyricsFilePath);
+        if (file != null) {
+            String cached = lyricsCache.get(file, !isWatched(file));
+            if (cached != null) return cached;
+        }
+        if (file == null || !Files.exists(file)) {
+            file = resolveLyricsPath(lyricsFilePath);
+            if (file == null) {
+                lyricsCache.forgetResolvedPath(lyricsFilePath);
+                return null;
+            }
+            lyricsCache.putResolvedPath(lyricsFilePath, file);
+        }
+        // stamp before reading: a write racing with the read then fails validation later
+        Catalog.FileStamp stamp = Catalog.FileStamp.of(file);
+        String s = Files.readString(file, StandardCharsets.UTF_8);
+        lyricsCache.put(file, s, stamp);
+        return s;
+    }
+
+    private Path resolveLyricsPath(String lyricsFilePath) {
         Path baseForRel = (repoRoot != null) ? repoRoot : execRoot;
         Path file = baseForRel.resolve(lyricsFilePath).normalize();
-        if (Files.exists(file)) {
-            String s = Files.readString(file, StandardCharsets.UTF_8);
-            return s;
-        }
+        if (Files.exists(file)) return file;
         // If the JSON path is "data/lyrics/..." but actual files are stored under assets/data/lyrics,
         // try resolving under assets/ as a fallback.
         Path assetsCandidate = baseForRel.resolve("assets").resolve(lyricsFilePath).normalize();
-        if (Files.exists(assetsCandidate)) {
-            String s = Files.readString(assetsCandidate, StandardCharsets.UTF_8);
-            return s;
-        }
+        if (Files.exists(assetsCandidate)) return assetsCandidate;
         return null;
     }
 
+    /** True if changes to this file reach onLyricsFilesChanged (so cached text needs no stat). */
+    private synchronized boolean isWatched(Path file) {
+        return watcher != null && dataDir.resolve("lyrics").equals(file.getParent());
+    }
+
     // Expose for debugging
     public Path getExecRoot() { return execRoot; }
     public Path getRepoRoot() { return repoRoot; }
@@ -0,0 +1,113 @@
+package com.example.ruichiji.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Publish-only copies written next to the pretty-printed source files:
+ *   <kind>.json  -> <kind>.min.json (no whitespace) and <kind>.json.gz
+ *   lyrics/x.txt -> lyrics/x.txt.gz
+ * The .gz files hold exactly the source bytes, so a server doing static gzip can serve them
+ * for the plain file. The pretty-printed files stay the source of truth; these are rebuilt
+ * from them.
+ *
+ * Work runs on one background thread. Requests for the same file are coalesced while queued,
+ * and a file whose SHA-256 matches the one its outputs were last built from (by this process)
+ * is skipped. A source whose outputs could not be built is kept in {@link #failures()} until a
+ * later build succeeds (DataService.validate reports them).
+ */
+final class DerivedOutputs {
+    static final String MIN_SUFFIX = ".min.json";
+    static final String GZ_SUFFIX = ".gz";
+
+    private final ObjectMapper mapper;
+    private final Map<Path, byte[]> builtFrom = new ConcurrentHashMap<>();
+    private final Set<Path> queued = ConcurrentHashMap.newKeySet();
+    private final Map<Path, String> failures = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "derived-outputs");
+        t.setDaemon(true);
+        return t;
+    });
+
+    DerivedOutputs(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    /** True for file names this class produces (the watcher ignores them). */
+    static boolean isDerived(String fileName) {
+        return fileName.endsWith(MIN_SUFFIX) || fileName.endsWith(GZ_SUFFIX);
+    }
+
+    /** Rebuild the outputs of source in the background (no-op if one is already queued). */
+    void submit(Path source) {
+        if (executor.isShutdown() || !queued.add(source)) return;
+        executor.execute(() -> {
+            queued.remove(source);
+            try {
+                build(source);
+                failures.remove(source);
+            } catch (IOException | RuntimeException ex) {
+                failures.put(source, String.valueOf(ex));
+            }
+        });
+    }
+
+    private void build(Path source) throws IOException {
+        if (!Files.exists(source)) return;
+        byte[] content = Files.readAllBytes(source);
+        byte[] hash = sha256(content);
+        if (Arrays.equals(hash, builtFrom.get(source))) return;
+
+        String name = source.getFileName().toString();
+        if (name.endsWith(".json")) {
+            byte[] min = mapper.writeValueAsBytes(mapper.readTree(content));
+            AtomicFiles.write(source.resolveSibling(name.substring(0, name.length() - 5) + MIN_SUFFIX), min);
+        }
+        AtomicFiles.write(source.resolveSibling(name + GZ_SUFFIX), os -> {
+            GZIPOutputStream gz = new GZIPOutputStream(os, 64 * 1024) {
+                { def.setLevel(Deflater.BEST_COMPRESSION); }
+            };
+            gz.write(content);
+            gz.finish();
+        });
+        builtFrom.put(source, hash);
+    }
+
+    /** Sources whose last build failed, with the error. */
+    Map<Path, String> failures() {
+        return Map.copyOf(failures);
+    }
+
+    /** Let queued work finish (called from DataService.close). */
+    void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static byte[] sha256(byte[] b) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(b);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.ruichiji.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.NullNode;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Session-wide undo/redo of the edits made through DataService (upsert, patch, delete,
+ * writeItems, applyBulk, renameId), across all kinds.
+ *
+ * A step holds, for each item it changed, the JSON Patch that redoes and the one that undoes
+ * the change (see JsonPatch), not copies of the item: editing one track of an album costs the
+ * few hundred bytes of that track's members, whatever the size of the album or catalog. The
+ * item is taken as JSON null where it does not exist, so an insert is "replace null with the
+ * item" and a delete the reverse; only then is the whole item kept.
+ *
+ * Each patch starts with test ops for the values the other direction left behind, so undoing
+ * or redoing a step whose items were changed since (by a later edit that was not undone, a
+ * rename or an external reload) fails instead of overwriting that change.
+ *
+ * A rename also moves the item's lyrics file; its step keeps that file's text as a FileChange
+ * on each side, checked the same way before anything is written.
+ *
+ * The history is bounded by the serialized size of its patches (setLimit, 0 = off, the
+ * default): the oldest steps are dropped to make room. A step larger than the limit cannot be
+ * kept, and since the steps before it would no longer line up with the catalog, it clears the
+ * history. A new step clears the redo stack.
+ */
+public final class EditHistory {
+
+    /** One item's change. index is where the item is put back when a patch re-creates it. */
+    record Change(String kind, String id, JsonNode redo, JsonNode undo, int index) {}
+
+    /** A lyrics file's text before and after the step (null where the file does not exist), for music musicId. */
+    record FileChange(Path file, String musicId, String before, String after) {}
+
+    /** One undoable edit: everything a single DataService call changed. */
+    public static final class Step {
+        private final String label;
+        final List<Change> changes;
+        final List<FileChange> files;
+        private final long bytes;
+
+        Step(String label, List<Change> changes, List<FileChange> files) {
+            this.label = label;
+            this.changes = List.copyOf(changes);
+            this.files = List.copyOf(files);
+            long b = 0;
+            for (Change c : changes) {
+                b += c.redo().toString().getBytes(StandardCharsets.UTF_8).length;
+                b += c.undo().toString().getBytes(StandardCharsets.UTF_8).length;
+            }
+            for (FileChange f : files) {
+                if (f.before() != null) b += f.before().getBytes(StandardCharsets.UTF_8).length;
+                if (f.after() != null) b += f.after().getBytes(StandardCharsets.UTF_8).length;
+            }
+            this.bytes = b;
+        }
+
+        /** e.g. "patch music/20250825-try_again", "write discography (3 items)". */
+        public String label() {
+            return label;
+        }
+
+        /** The kinds the step changes, in the order first changed. */
+        public Set<String> kinds() {
+            Set<String> out = new LinkedHashSet<>();
+            for (Change c : changes) out.add(c.kind());
+            return out;
+        }
+
+        /** Serialized size of the step's patches. */
+        public long bytes() {
+            return bytes;
+        }
+    }
+
+    private final Deque<Step> undo = new ArrayDeque<>();
+    private final Deque<Step> redo = new ArrayDeque<>();
+    private long bytes;
+    private long limit;
+
+    /** Maximum serialized size of all undo and redo steps; 0 turns the history off and clears it. */
+    public synchronized void setLimit(long limitBytes) {
+        this.limit = Math.max(0, limitBytes);
+        trim();
+    }
+
+    public synchronized boolean isEnabled() {
+        return limit > 0;
+    }
+
+    public synchronized boolean canUndo() {
+        return !undo.isEmpty();
+    }
+
+    public synchronized boolean canRedo() {
+        return !redo.isEmpty();
+    }
+
+    /** The step undo() would revert, or null. */
+    public synchronized Step nextUndo() {
+        return undo.peek();
+    }
+
+    /** The step redo() would reapply, or null. */
+    public synchronized Step nextRedo() {
+        return redo.peek();
+    }
+
+    /** Size of everything held, in serialized bytes. */
+    public synchronized long bytes() {
+        return bytes;
+    }
+
+    public synchronized void clear() {
+        undo.clear();
+        redo.clear();
+        bytes = 0;
+    }
+
+    /** The change of one item from before to after (trees, JSON null where the item does not exist). */
+    static Change change(String kind, String id, JsonNode before, JsonNode after, int index) {
+        ArrayNode redo = JsonPatch.diff(before, after);
+        ArrayNode undo = JsonPatch.diff(after, before);
+        return new Change(kind, id, guarded(undo, redo), guarded(redo, undo), index);
+    }
+
+    static JsonNode absent() {
+        return NullNode.getInstance();
+    }
+
+    /** ops, preceded by tests that the values set by the opposite patch are still there. */
+    private static ArrayNode guarded(ArrayNode opposite, ArrayNode ops) {
+        ArrayNode out = JsonNodeFactory.instance.arrayNode(opposite.size() + ops.size());
+        for (JsonNode op : opposite) {
+            String name = op.path("op").asText();
+            if (!name.equals("add") && !name.equals("replace")) continue;
+            out.addObject().put("op", "test").put("path", op.get("path").asText()).set("value", op.get("value"));
+        }
+        out.addAll(ops);
+        return out;
+    }
+
+    /** Record a new step (ignored while the history is off or when it changes nothing). */
+    synchronized void record(String label, List<Change> changes) {
+        record(label, changes, List.of());
+    }
+
+    /** record, for a step that also replaced whole files. */
+    synchronized void record(String label, List<Change> changes, List<FileChange> files) {
+        if (limit == 0 || (changes.isEmpty() && files.isEmpty())) return;
+        while (!redo.isEmpty()) bytes -= redo.pop().bytes();
+        Step s = new Step(label, changes, files);
+        if (s.bytes() > limit) {
+            clear();
+            return;
+        }
+        pushUndo(s);
+    }
+
+    synchronized Step popUndo() {
+        Step s = undo.poll();
+        if (s != null) bytes -= s.bytes();
+        return s;
+    }
+
+    synchronized Step popRedo() {
+        Step s = redo.poll();
+        if (s != null) bytes -= s.bytes();
+        return s;
+    }
+
+    synchronized void pushUndo(Step s) {
+        undo.push(s);
+        bytes += s.bytes();
+        trim();
+    }
+
+    synchronized void pushRedo(Step s) {
+        redo.push(s);
+        bytes += s.bytes();
+        trim();
+    }
+
+    /** Drop the oldest steps (of undo first, then of redo) until within the limit. */
+    private void trim() {
+        if (limit == 0) {
+            clear();
+            return;
+        }
+        while (bytes > limit && !undo.isEmpty()) bytes -= undo.removeLast().bytes();
+        while (bytes > limit && !redo.isEmpty()) bytes -= redo.removeLast().bytes();
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.ruichiji.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+
+/**
+ * Content-addressed image storage in assets/images.
+ *
+ * An imported file is stored as <first 16 hex digits of its SHA-256>.<ext>, so the name
+ * never collides with a different image and importing the same image again finds it in the
+ * index instead of writing a copy. The index (hash -> file and variants) is kept in
+ * images/.image-index.json; files found in the directory but missing from it (added by hand,
+ * or imported before the index existed) are hashed and adopted when the index is loaded.
+ *
+ * Raster images wider than a variant width also get downscaled copies
+ * (<name>-<width>w.<ext>, see WIDTHS), which are rendered in parallel from one decoded image.
+ */
+final class ImageStore {
+    static final String INDEX_FILE = ".image-index.json";
+    static final List<Integer> WIDTHS = List.of(320, 640, 1280);
+
+    private record Entry(String file, SortedMap<Integer, String> variants) {}
+
+    private final Path imagesDir;
+    private final Path index;
+    private final ObjectMapper mapper;
+    private Map<String, Entry> byHash; // loaded on first import
+
+    ImageStore(Path imagesDir, ObjectMapper mapper) {
+        this.imagesDir = imagesDir;
+        this.index = imagesDir.resolve(INDEX_FILE);
+        this.mapper = mapper;
+    }
+
+    /** Store src (if its content is new) and return its file name and variant names. */
+    synchronized ImportedImage importImage(Path src, Function<Path, String> toRef) throws IOException {
+        byte[] content = Files.readAllBytes(src);
+        String hash = sha256(content);
+        Map<String, Entry> known = entries();
+
+        Entry e = known.get(hash);
+        if (e != null && isComplete(e)) return toImported(e, toRef, true);
+
+        String ext = extension(src.getFileName().toString());
+        String name = hash.substring(0, 16);
+        String file = name + ext;
+        AtomicFiles.write(imagesDir.resolve(file), os -> os.write(content));
+        e = new Entry(file, writeVariants(content, name, ext));
+        known.put(hash, e);
+        saveIndex(known);
+        return toImported(e, toRef, false);
+    }
+
+    private boolean isComplete(Entry e) {
+        if (!Files.isRegularFile(imagesDir.resolve(e.file()))) return false;
+        for (String v : e.variants().values()) {
+            if (!Files.isRegularFile(imagesDir.resolve(v))) return false;
+        }
+        return true;
+    }
+
+    private ImportedImage toImported(Entry e, Function<Path, String> toRef, boolean reused) {
+        SortedMap<Integer, String> variants = new TreeMap<>();
+        e.variants().forEach((w, f) -> variants.put(w, toRef.apply(imagesDir.resolve(f))));
+        return new ImportedImage(toRef.apply(imagesDir.resolve(e.file())), variants, reused);
+    }
+
+    // ---- variants ----
+
+    /** Decode once, then scale and encode every applicable width in parallel. */
+    private SortedMap<Integer, String> writeVariants(byte[] content, String name, String ext) throws IOException {
+        BufferedImage img = ImageIO.read(new ByteArrayInputStream(content));
+        if (img == null) return new TreeMap<>(); // SVG, WebP, ...: served as is
+        boolean png = ".png".equals(ext) || ".gif".equals(ext) || img.getColorModel().hasAlpha();
+        String format = png ? "png" : "jpg";
+        String variantExt = png ? ".png" : ".jpg";
+
+        SortedMap<Integer, String> out = new ConcurrentSkipListMap<>();
+        try {
+            WIDTHS.parallelStream().filter(w -> w < img.getWidth()).forEach(w -> {
+                String file = name + "-" + w + "w" + variantExt;
+                BufferedImage scaled = scale(img, w, png ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+                try {
+                    AtomicFiles.write(imagesDir.resolve(file), os -> {
+                        if (!ImageIO.write(scaled, format, os)) throw new IOException("no ImageIO writer for " + format);
+                    });
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                out.put(w, file);
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        return new TreeMap<>(out);
+    }
+
+    /** Halve with bilinear filtering, the last step clamped to the target (sharper than one big step). */
+    private static BufferedImage scale(BufferedImage src, int width, int type) {
+        int height = Math.max(1, Math.round((float) src.getHeight() * width / src.getWidth()));
+        BufferedImage cur = src;
+        int w = src.getWidth();
+        int h = src.getHeight();
+        do {
+            w = Math.max(width, w / 2);
+            h = Math.max(height, h / 2);
+            BufferedImage next = new BufferedImage(w, h, type);
+            Graphics2D g = next.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(cur, 0, 0, w, h, null);
+            g.dispose();
+            cur = next;
+        } while (w != width || h != height);
+        return cur;
+    }
+
+    // ---- index ----
+
+    private Map<String, Entry> entries() throws IOException {
+        if (byHash != null) return byHash;
+        Map<String, Entry> m = new HashMap<>();
+        if (Files.exists(index)) {
+            JsonNode root = mapper.readTree(index.toFile());
+            for (Iterator<Map.Entry<String, JsonNode>> it = root.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> f = it.next();
+                SortedMap<Integer, String> variants = new TreeMap<>();
+                f.getValue().path("variants").fields().forEachRemaining(v ->
+                        variants.put(Integer.parseInt(v.getKey()), v.getValue().asText()));
+                m.put(f.getKey(), new Entry(f.getValue().path("file").asText(), variants));
+            }
+        }
+        if (adoptUnindexed(m)) saveIndex(m);
+        byHash = m;
+        return m;
+    }
+
+    /** Hash image files that the index does not mention yet; true if any were added. */
+    private boolean adoptUnindexed(Map<String, Entry> m) throws IOException {
+        Set<String> indexed = new HashSet<>();
+        for (Entry e : m.values()) {
+            indexed.add(e.file());
+            indexed.addAll(e.variants().values());
+        }
+        List<Path> unknown = new ArrayList<>();
+        try (DirectoryStream<Path> s = Files.newDirectoryStream(imagesDir)) {
+            for (Path p : s) {
+                String n = p.getFileName().toString();
+                if (!n.startsWith(".") && Files.isRegularFile(p) && !indexed.contains(n)) unknown.add(p);
+            }
+        }
+        if (unknown.isEmpty()) return false;
+        Map<String, String> hashes = new ConcurrentHashMap<>();
+        try {
+            unknown.parallelStream().forEach(p -> {
+                try {
+                    hashes.put(p.getFileName().toString(), sha256(Files.readAllBytes(p)));
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        // sorted, so the same name wins every time when a directory holds identical copies
+        new TreeMap<>(hashes).forEach((n, h) -> m.putIfAbsent(h, new Entry(n, new TreeMap<>())));
+        return true;
+    }
+
+    private void saveIndex(Map<String, Entry> m) throws IOException {
+        ObjectNode root = mapper.createObjectNode();
+        for (Map.Entry<String, Entry> e : new TreeMap<>(m).entrySet()) {
+            ObjectNode n = root.putObject(e.getKey());
+            n.put("file", e.getValue().file());
+            ObjectNode vs = n.putObject("variants");
+            e.getValue().variants().forEach((w, f) -> vs.put(Integer.toString(w), f));
+        }
+        AtomicFiles.write(index, mapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(root));
+    }
+
+    private static String extension(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        String ext = dot < 0 ? "" : fileName.substring(dot).toLowerCase(Locale.ROOT);
+        return ".jpeg".equals(ext) ? ".jpg" : ext;
+    }
+
+    private static String sha256(byte[] b) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(b));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.ruichiji.service;
+
+import java.util.SortedMap;
+
+/**
+ * Result of DataService.importImage. Paths are relative to the repository root with '/'
+ * separators, ready to be stored in an item (e.g. "assets/images/3f2a9c0d1e7b4a55.jpg").
+ *
+ * @param variants downscaled copies by pixel width, smallest first; empty when the image is
+ *                 already small or cannot be decoded (e.g. SVG)
+ * @param reused   true if the same content had been imported before and nothing was written
+ */
+public record ImportedImage(String path, SortedMap<Integer, String> variants, boolean reused) {}
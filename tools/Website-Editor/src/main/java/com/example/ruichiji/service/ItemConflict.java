@@ -0,0 +1,24 @@
+package com.example.ruichiji.service;
+
+/**
+ * An item that was not saved because another editor (another process on the same
+ * checkout) committed a different change to it first; see CatalogConflictException.
+ *
+ * @param kind catalog kind
+ * @param id   id of the item
+ * @param code changed (both sides changed the item), deleted (changed here, deleted there),
+ *             removed (deleted here, changed there), exists (created on both sides)
+ */
+public record ItemConflict(String kind, String id, String code) {
+
+    @Override
+    public String toString() {
+        String what = switch (code) {
+            case "deleted" -> "was deleted by another editor";
+            case "removed" -> "was changed by another editor and is not deleted";
+            case "exists" -> "already exists";
+            default -> "was changed by another editor since it was read";
+        };
+        return kind + "/" + id + " " + what;
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.ruichiji.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RFC 6902 JSON Patch: computing the patch between two trees and applying one.
+ *
+ *   [ { "op" : "replace", "path" : "/duration", "value" : "4:05" },
+ *     { "op" : "remove",  "path" : "/tracks/3" } ]
+ *
+ * diff() describes changed members with add/remove/replace only, recursing into objects and
+ * arrays so that an edited track becomes a change to that track, not a new tracks array.
+ * Arrays are compared after skipping their common head and tail, which turns a single
+ * inserted or removed element into one op. apply() understands all six ops (add, remove,
+ * replace, move, copy, test) with JSON Pointer paths (RFC 6901, "~1" for '/', "~0" for '~').
+ */
+public final class JsonPatch {
+
+    private JsonPatch() {}
+
+    /** Thrown by apply() when a test op does not hold: the document is not the one the patch expects. */
+    public static final class TestFailedException extends IllegalArgumentException {
+        private static final long serialVersionUID = 1L;
+
+        TestFailedException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    /** The ops that turn before into after; an empty array if they are equal. */
+    public static ArrayNode diff(JsonNode before, JsonNode after) {
+        ArrayNode ops = JsonNodeFactory.instance.arrayNode();
+        diff("", before, after, ops);
+        return ops;
+    }
+
+    /**
+     * diff() with a test op before each replace or remove for the value it replaces or
+     * removes, so the patch fails (TestFailedException) on a document that was changed at
+     * those places since before was read, and applies to one changed elsewhere.
+     */
+    public static ArrayNode checkedDiff(JsonNode before, JsonNode after) {
+        ArrayNode ops = diff(before, after);
+        ArrayNode out = JsonNodeFactory.instance.arrayNode(ops.size() * 2);
+        for (JsonNode op : ops) {
+            String name = op.get("op").asText();
+            if (name.equals("replace") || name.equals("remove")) {
+                String path = op.get("path").asText();
+                out.addObject().put("op", "test").put("path", path).set("value", get(before, path).deepCopy());
+            }
+            out.add(op);
+        }
+        return out;
+    }
+
+    private static void diff(String path, JsonNode a, JsonNode b, ArrayNode ops) {
+        if (a.equals(b)) return;
+        if (a.isObject() && b.isObject()) {
+            for (Iterator<String> it = a.fieldNames(); it.hasNext(); ) {
+                String name = it.next();
+                if (!b.has(name)) op(ops, "remove", path + "/" + escape(name), null);
+            }
+            for (Iterator<Map.Entry<String, JsonNode>> it = b.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> e = it.next();
+                JsonNode old = a.get(e.getKey());
+                String p = path + "/" + escape(e.getKey());
+                if (old == null) op(ops, "add", p, e.getValue());
+                else diff(p, old, e.getValue(), ops);
+            }
+        } else if (a.isArray() && b.isArray()) {
+            int n = a.size(), m = b.size();
+            int head = 0;
+            while (head < n && head < m && a.get(head).equals(b.get(head))) head++;
+            int tail = 0;
+            while (tail < n - head && tail < m - head && a.get(n - 1 - tail).equals(b.get(m - 1 - tail))) tail++;
+            int common = Math.min(n, m) - head - tail;
+            for (int i = head; i < head + common; i++) diff(path + "/" + i, a.get(i), b.get(i), ops);
+            int at = head + common;
+            for (int i = 0; i < n - head - tail - common; i++) op(ops, "remove", path + "/" + at, null);
+            for (int i = 0; i < m - head - tail - common; i++) op(ops, "add", path + "/" + (at + i), b.get(at + i));
+        } else {
+            op(ops, "replace", path, b);
+        }
+    }
+
+    private static void op(ArrayNode ops, String op, String path, JsonNode value) {
+        ObjectNode o = ops.addObject();
+        o.put("op", op);
+        o.put("path", path);
+        if (value != null) o.set("value", value.deepCopy());
+    }
+
+    /**
+     * doc with the patch applied, as a new tree (doc is not changed). The ops are applied in
+     * order and all or nothing: IllegalArgumentException names the first op that cannot be
+     * applied (missing target, failed test, malformed op); for a test op it is a
+     * TestFailedException.
+     */
+    public static JsonNode apply(JsonNode doc, JsonNode patch) {
+        if (patch == null || !patch.isArray()) throw new IllegalArgumentException("a patch is an array of ops");
+        JsonNode root = doc.deepCopy();
+        for (int i = 0; i < patch.size(); i++) {
+            JsonNode op = patch.get(i);
+            try {
+                root = applyOp(root, op);
+            } catch (IllegalArgumentException ex) {
+                String message = "patch op " + i + " " + op + ": " + ex.getMessage();
+                if ("test".equals(op.path("op").asText())) throw new TestFailedException(message, ex);
+                throw new IllegalArgumentException(message, ex);
+            }
+        }
+        return root;
+    }
+
+    private static JsonNode applyOp(JsonNode root, JsonNode op) {
+        String path = required(op, "path");
+        return switch (required(op, "op")) {
+            case "add" -> add(root, path, value(op));
+            case "remove" -> {
+                remove(root, path);
+                yield root;
+            }
+            case "replace" -> replace(root, path, value(op));
+            case "move" -> {
+                String from = required(op, "from");
+                if (path.startsWith(from + "/")) throw new IllegalArgumentException("cannot move a value into itself");
+                JsonNode v = get(root, from);
+                remove(root, from);
+                yield add(root, path, v);
+            }
+            case "copy" -> add(root, path, get(root, required(op, "from")).deepCopy());
+            case "test" -> {
+                if (!get(root, path).equals(value(op))) throw new IllegalArgumentException("test failed");
+                yield root;
+            }
+            default -> throw new IllegalArgumentException("unknown op");
+        };
+    }
+
+    private static JsonNode add(JsonNode root, String path, JsonNode value) {
+        value = value.deepCopy();
+        if (path.isEmpty()) return value;
+        JsonNode parent = get(root, parentOf(path));
+        String last = lastToken(path);
+        if (parent instanceof ObjectNode o) {
+            o.set(last, value);
+        } else if (parent instanceof ArrayNode a) {
+            int i = last.equals("-") ? a.size() : index(last, a.size());
+            a.insert(i, value);
+        } else {
+            throw new IllegalArgumentException(parentOf(path) + " is not a container");
+        }
+        return root;
+    }
+
+    /** Like remove + add, but the member keeps its place in the object. */
+    private static JsonNode replace(JsonNode root, String path, JsonNode value) {
+        get(root, path); // must exist
+        value = value.deepCopy();
+        if (path.isEmpty()) return value;
+        JsonNode parent = get(root, parentOf(path));
+        String last = lastToken(path);
+        if (parent instanceof ObjectNode o) o.set(last, value);
+        else ((ArrayNode) parent).set(index(last, parent.size() - 1), value);
+        return root;
+    }
+
+    private static void remove(JsonNode root, String path) {
+        if (path.isEmpty()) throw new IllegalArgumentException("cannot remove the document");
+        JsonNode parent = get(root, parentOf(path));
+        String last = lastToken(path);
+        if (parent instanceof ObjectNode o) {
+            if (o.remove(last) == null) throw new IllegalArgumentException(path + " does not exist");
+        } else if (parent instanceof ArrayNode a) {
+            a.remove(index(last, a.size() - 1));
+        } else {
+            throw new IllegalArgumentException(parentOf(path) + " is not a container");
+        }
+    }
+
+    /** The node at a JSON Pointer; throws if there is none. */
+    private static JsonNode get(JsonNode root, String path) {
+        JsonNode cur = root;
+        for (String token : tokens(path)) {
+            if (cur.isObject()) {
+                cur = cur.get(token);
+            } else if (cur.isArray()) {
+                cur = cur.get(index(token, cur.size() - 1));
+            } else {
+                cur = null;
+            }
+            if (cur == null) throw new IllegalArgumentException(path + " does not exist");
+        }
+        return cur;
+    }
+
+    private static List<String> tokens(String path) {
+        List<String> out = new ArrayList<>();
+        if (path.isEmpty()) return out;
+        if (path.charAt(0) != '/') throw new IllegalArgumentException("\"" + path + "\" is not a JSON Pointer");
+        int start = 1;
+        while (true) {
+            int slash = path.indexOf('/', start);
+            out.add(unescape(slash < 0 ? path.substring(start) : path.substring(start, slash)));
+            if (slash < 0) return out;
+            start = slash + 1;
+        }
+    }
+
+    private static String parentOf(String path) {
+        return path.substring(0, path.lastIndexOf('/'));
+    }
+
+    private static String lastToken(String path) {
+        List<String> t = tokens(path);
+        return t.get(t.size() - 1);
+    }
+
+    /** An array index in 0..max, without leading zeros. */
+    private static int index(String token, int max) {
+        if (token.isEmpty() || token.length() > 9 || (token.length() > 1 && token.charAt(0) == '0')) {
+            throw new IllegalArgumentException("bad array index \"" + token + "\"");
+        }
+        for (int i = 0; i < token.length(); i++) {
+            if (token.charAt(i) < '0' || token.charAt(i) > '9') throw new IllegalArgumentException("bad array index \"" + token + "\"");
+        }
+        int i = Integer.parseInt(token);
+        if (i > max) throw new IllegalArgumentException("array index " + i + " is out of bounds");
+        return i;
+    }
+
+    private static String required(JsonNode op, String member) {
+        JsonNode v = op.get(member);
+        if (v == null || !v.isTextual()) throw new IllegalArgumentException("\"" + member + "\" is missing");
+        return v.textValue();
+    }
+
+    private static JsonNode value(JsonNode op) {
+        JsonNode v = op.get("value");
+        if (v == null) throw new IllegalArgumentException("\"value\" is missing");
+        return v;
+    }
+
+    private static String escape(String token) {
+        return token.replace("~", "~0").replace("/", "~1");
+    }
+
+    private static String unescape(String token) {
+        return token.replace("~1", "/").replace("~0", "~");
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.ruichiji.service;
+
+/**
+ * Progress/cancellation hook for long catalog loads and bulk edits.
+ *
+ * progress() is called from the working thread with the work done so far and the total (bytes
+ * of the file for loads, items for bulk edits); isCancelled() is polled between items and
+ * makes the operation abort with a CancellationException (the cached catalog is left
+ * untouched).
+ */
+public interface LoadMonitor {
+    LoadMonitor NONE = new LoadMonitor() {
+        @Override public void progress(long done, long total) {}
+        @Override public boolean isCancelled() { return false; }
+    };
+
+    void progress(long done, long total);
+
+    boolean isCancelled();
+}
@@ -0,0 +1,87 @@
+package com.example.ruichiji.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches for DataService.readLyricsFile:
+ *   - lyricsFile value from the JSON ("data/lyrics/x.txt") -> resolved file on disk, so the
+ *     repoRoot / repoRoot/assets probing happens once per path;
+ *   - resolved file -> text, LRU-bounded by the total number of characters kept and
+ *     validated against the file's mtime/size (Catalog.FileStamp) before use.
+ *
+ * Callers that know the file is watched for changes (see CatalogWatcher) may skip the stat
+ * and rely on {@link #invalidateIfStale} being called for every change event instead.
+ */
+final class LyricsCache {
+
+    private record Entry(String text, Catalog.FileStamp stamp) {}
+
+    private final long maxChars;
+    private final Map<String, Path> resolved = new ConcurrentHashMap<>();
+    private final LinkedHashMap<Path, Entry> texts = new LinkedHashMap<>(64, 0.75f, true);
+    private long chars;
+
+    LyricsCache(long maxChars) {
+        this.maxChars = maxChars;
+    }
+
+    Path resolvedPath(String lyricsFile) {
+        return resolved.get(lyricsFile);
+    }
+
+    void putResolvedPath(String lyricsFile, Path file) {
+        resolved.put(lyricsFile, file);
+    }
+
+    void forgetResolvedPath(String lyricsFile) {
+        resolved.remove(lyricsFile);
+    }
+
+    /**
+     * Cached text of the file, or null. With validate, the file's current stamp must match
+     * the one recorded when the text was cached (one stat, no read).
+     */
+    String get(Path file, boolean validate) throws IOException {
+        Entry e;
+        synchronized (this) {
+            e = texts.get(file);
+        }
+        if (e == null) return null;
+        if (validate && !e.stamp().equals(Catalog.FileStamp.of(file))) {
+            remove(file, e);
+            return null;
+        }
+        return e.text();
+    }
+
+    /** Remember text read from (or just written to) file; stamp is taken by the caller. */
+    synchronized void put(Path file, String text, Catalog.FileStamp stamp) {
+        Entry old = texts.remove(file);
+        if (old != null) chars -= old.text().length();
+        if (text.length() > maxChars) return;
+        texts.put(file, new Entry(text, stamp));
+        chars += text.length();
+        var it = texts.values().iterator();
+        while (chars > maxChars && it.hasNext()) {
+            chars -= it.next().text().length();
+            it.remove();
+        }
+    }
+
+    /** Drop the cached text if the file no longer matches it (our own writes leave it cached). */
+    void invalidateIfStale(Path file) throws IOException {
+        Entry e;
+        synchronized (this) {
+            e = texts.get(file);
+        }
+        if (e != null && !e.stamp().equals(Catalog.FileStamp.of(file))) remove(file, e);
+    }
+
+    private synchronized void remove(Path file, Entry expected) {
+        if (texts.remove(file, expected)) chars -= expected.text().length();
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.ruichiji.service;
+
+/**
+ * One link from a catalog item to a music item.
+ *
+ * @param kind    kind of the referring item ("movies", "discography", "live")
+ * @param id      id of the referring item
+ * @param field   where the link is, e.g. "musicID", "tracks[2].musicID", "setlist[0].id"
+ * @param musicId the referenced music id
+ */
+public record MusicReference(String kind, String id, String field, String musicId) {}
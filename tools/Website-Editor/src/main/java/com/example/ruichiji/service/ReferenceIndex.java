@@ -0,0 +1,229 @@
+package com.example.ruichiji.service;
+
+import com.example.ruichiji.model.Album;
+import com.example.ruichiji.model.CatalogItem;
+import com.example.ruichiji.model.LiveEvent;
+import com.example.ruichiji.model.Movie;
+import com.example.ruichiji.model.SetlistEntry;
+import com.example.ruichiji.model.Track;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reverse index of music id links:
+ *   movies.json       musicID
+ *   discography.json  tracks[].musicID
+ *   live.json         setlist[].id
+ *
+ * For each referring item the extracted links are kept, so an upsert/delete only replaces
+ * that item's links; "who references music X" is a single map lookup. The set of existing
+ * music ids is tracked alongside to find dangling links.
+ *
+ * Lookups read concurrent maps without locking; updates are synchronized.
+ */
+final class ReferenceIndex {
+    static final String MUSIC = "music";
+    static final List<String> KINDS = List.of(MUSIC, "movies", "discography", "live");
+
+    private static final Comparator<MusicReference> ORDER = Comparator.comparing(MusicReference::kind)
+            .thenComparing(MusicReference::id).thenComparing(MusicReference::field);
+
+    private record Key(String kind, String id) {}
+
+    private final Map<String, Set<MusicReference>> byMusicId = new ConcurrentHashMap<>();
+    private final Map<Key, List<MusicReference>> byReferrer = new ConcurrentHashMap<>();
+    private final Set<String> musicIds = ConcurrentHashMap.newKeySet();
+
+    static boolean isTracked(String kind) {
+        return KINDS.contains(kind);
+    }
+
+    /**
+     * Links from one item of a referring kind (empty for other kinds). Track and setlist
+     * arrays that are not lists of objects (kept untyped by the record) are read as trees.
+     */
+    static List<MusicReference> extract(String kind, CatalogItem item) {
+        String id = Catalog.idOf(item);
+        List<MusicReference> out = new ArrayList<>(2);
+        if (item instanceof Movie m) {
+            add(out, kind, id, "musicID", m.getMusicId());
+        } else if (item instanceof Album al) {
+            List<Track> tracks = al.getTracks();
+            if (tracks == null) {
+                addAll(out, kind, id, al.get("tracks"), "tracks", "musicID");
+            } else {
+                for (int i = 0; i < tracks.size(); i++) add(out, kind, id, "tracks[" + i + "].musicID", tracks.get(i).getMusicId());
+            }
+        } else if (item instanceof LiveEvent ev) {
+            List<SetlistEntry> setlist = ev.getSetlist();
+            if (setlist == null) {
+                addAll(out, kind, id, ev.get("setlist"), "setlist", "id");
+            } else {
+                for (int i = 0; i < setlist.size(); i++) add(out, kind, id, "setlist[" + i + "].id", setlist.get(i).getId());
+            }
+        }
+        return out;
+    }
+
+    private static void addAll(List<MusicReference> out, String kind, String id, JsonNode arr, String arrayField, String linkField) {
+        if (arr == null || !arr.isArray()) return;
+        for (int i = 0; i < arr.size(); i++) {
+            JsonNode v = arr.get(i).get(linkField);
+            if (v != null && v.isTextual()) add(out, kind, id, arrayField + "[" + i + "]." + linkField, v.asText());
+        }
+    }
+
+    private static void add(List<MusicReference> out, String kind, String id, String field, String musicId) {
+        if (musicId == null || musicId.isBlank()) return;
+        out.add(new MusicReference(kind, id, field, musicId));
+    }
+
+    /**
+     * Point every link in item from oldId to newId (item must be a private copy). Returns
+     * true if anything changed.
+     */
+    static boolean relink(CatalogItem item, String oldId, String newId) {
+        boolean changed = false;
+        if (item instanceof Movie m) {
+            if (oldId.equals(m.getMusicId())) {
+                m.setMusicId(newId);
+                changed = true;
+            }
+        } else if (item instanceof Album al) {
+            if (al.getTracks() == null) return relinkAll(al.get("tracks"), "musicID", oldId, newId);
+            for (Track t : al.getTracks()) {
+                if (!oldId.equals(t.getMusicId())) continue;
+                t.setMusicId(newId);
+                changed = true;
+            }
+        } else if (item instanceof LiveEvent ev) {
+            if (ev.getSetlist() == null) return relinkAll(ev.get("setlist"), "id", oldId, newId);
+            for (SetlistEntry e : ev.getSetlist()) {
+                if (!oldId.equals(e.getId())) continue;
+                e.setId(newId);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /** arr is the record's own (untyped) tree, so it is changed in place. */
+    private static boolean relinkAll(JsonNode arr, String linkField, String oldId, String newId) {
+        if (arr == null || !arr.isArray()) return false;
+        boolean changed = false;
+        for (JsonNode e : arr) {
+            if (e.isObject()) changed |= relinkField((ObjectNode) e, linkField, oldId, newId);
+        }
+        return changed;
+    }
+
+    private static boolean relinkField(ObjectNode n, String field, String oldId, String newId) {
+        JsonNode v = n.get(field);
+        if (v == null || !v.isTextual() || !v.asText().equals(oldId)) return false;
+        n.put(field, newId);
+        return true;
+    }
+
+    // ---- updates ----
+
+    synchronized void update(String kind, CatalogItem item) {
+        if (MUSIC.equals(kind)) {
+            musicIds.add(Catalog.idOf(item));
+        } else {
+            Key key = new Key(kind, Catalog.idOf(item));
+            put(key, extract(kind, item));
+        }
+    }
+
+    synchronized void remove(String kind, String id) {
+        if (MUSIC.equals(kind)) {
+            musicIds.remove(id);
+        } else {
+            put(new Key(kind, id), List.of());
+        }
+    }
+
+    /** Replace everything known about one kind; links are extracted in parallel first. */
+    void replaceKind(String kind, List<CatalogItem> items) {
+        if (MUSIC.equals(kind)) {
+            Set<String> ids = new HashSet<>(items.size() * 2);
+            for (CatalogItem n : items) ids.add(Catalog.idOf(n));
+            synchronized (this) {
+                musicIds.clear();
+                musicIds.addAll(ids);
+            }
+            return;
+        }
+        List<List<MusicReference>> prepared = items.parallelStream().map(n -> extract(kind, n)).toList();
+        synchronized (this) {
+            for (Key key : new ArrayList<>(byReferrer.keySet())) {
+                if (key.kind().equals(kind)) put(key, List.of());
+            }
+            for (int i = 0; i < items.size(); i++) {
+                Key key = new Key(kind, Catalog.idOf(items.get(i)));
+                // duplicate ids: keep the links of every copy
+                List<MusicReference> refs = new ArrayList<>(byReferrer.getOrDefault(key, List.of()));
+                refs.addAll(prepared.get(i));
+                put(key, refs);
+            }
+        }
+    }
+
+    private void put(Key key, List<MusicReference> refs) {
+        List<MusicReference> old = refs.isEmpty() ? byReferrer.remove(key) : byReferrer.put(key, List.copyOf(refs));
+        if (old != null) {
+            for (MusicReference r : old) {
+                byMusicId.computeIfPresent(r.musicId(), (k, set) -> {
+                    set.remove(r);
+                    return set.isEmpty() ? null : set;
+                });
+            }
+        }
+        for (MusicReference r : refs) {
+            byMusicId.computeIfAbsent(r.musicId(), k -> ConcurrentHashMap.newKeySet()).add(r);
+        }
+    }
+
+    // ---- queries ----
+
+    List<MusicReference> referencesTo(String musicId) {
+        Set<MusicReference> s = byMusicId.get(musicId);
+        if (s == null) return List.of();
+        List<MusicReference> out = new ArrayList<>(s);
+        out.sort(ORDER);
+        return out;
+    }
+
+    /** Links from one item that point at no existing music item. */
+    List<MusicReference> unresolved(String kind, String id) {
+        List<MusicReference> out = new ArrayList<>();
+        for (MusicReference r : byReferrer.getOrDefault(new Key(kind, id), List.of())) {
+            if (!musicIds.contains(r.musicId())) out.add(r);
+        }
+        return out;
+    }
+
+    /** One pass over all links: dangling ones and repeated links within one item. */
+    ReferenceReport check() {
+        List<MusicReference> dangling = new ArrayList<>();
+        List<MusicReference> duplicates = new ArrayList<>();
+        for (List<MusicReference> refs : byReferrer.values()) {
+            Set<String> seen = new HashSet<>();
+            for (MusicReference r : refs) {
+                if (!musicIds.contains(r.musicId())) dangling.add(r);
+                if (!seen.add(r.musicId())) duplicates.add(r);
+            }
+        }
+        dangling.sort(ORDER);
+        duplicates.sort(ORDER);
+        return new ReferenceReport(dangling, duplicates);
+    }
+}
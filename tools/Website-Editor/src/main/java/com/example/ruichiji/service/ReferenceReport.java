@@ -0,0 +1,17 @@
+package com.example.ruichiji.service;
+
+import java.util.List;
+
+/**
+ * Result of {@link DataService#checkReferences()}.
+ *
+ * @param dangling   references to music ids that do not exist
+ * @param duplicates references to a music id that the same item already references
+ *                   (every occurrence after the first)
+ */
+public record ReferenceReport(List<MusicReference> dangling, List<MusicReference> duplicates) {
+
+    public boolean isClean() {
+        return dangling.isEmpty() && duplicates.isEmpty();
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.ruichiji.service;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Result of {@link DataService#repair(String)}.
+ *
+ * @param salvaged number of items kept from the damaged file
+ * @param dropped  byte ranges of the damaged file that were left out, in file order
+ * @param backup   copy of the damaged file the ranges refer to (null if nothing was repaired)
+ */
+public record RepairReport(int salvaged, List<Dropped> dropped, Path backup) {
+
+    /** Returned when the file parsed (or did not exist) and was left alone. */
+    public static final RepairReport NOT_NEEDED = new RepairReport(0, List.of(), null);
+
+    /** Bytes [start, end) of the damaged file and why they could not be kept. */
+    public record Dropped(long start, long end, String reason) {
+        @Override
+        public String toString() {
+            return "bytes " + start + "-" + end + " (" + reason + ")";
+        }
+    }
+
+    public boolean repaired() {
+        return backup != null;
+    }
+}
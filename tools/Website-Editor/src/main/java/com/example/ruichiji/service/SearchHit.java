@@ -0,0 +1,6 @@
+package com.example.ruichiji.service;
+
+/**
+ * One result of {@link DataService#search}: the item's kind and id, plus its title for display.
+ */
+public record SearchHit(String kind, String id, String title) {}
@@ -0,0 +1,260 @@
+package com.example.ruichiji.service;
+
+import com.example.ruichiji.model.CatalogItem;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+/**
+ * In-memory inverted index over catalog text (title, description, content, note, id) and
+ * music lyrics.
+ *
+ * Tokenisation (same for documents and queries), after NFKC normalisation and lower-casing:
+ *   - runs of CJK characters (kanji, hiragana, katakana, hangul, "ー", "々") produce every
+ *     character bigram plus every single character, so any substring of two or more
+ *     characters matches through its bigrams and one-character queries still work;
+ *   - runs of letters/digits in other scripts produce whole words;
+ *   - everything else separates tokens.
+ * A query matches documents containing all of its tokens; the last Latin word of a query is
+ * also matched as a prefix so the search box works while typing, once it has MIN_PREFIX
+ * characters (a single letter would union most of the index). Bigram matching can report
+ * a document whose bigrams all occur but not contiguously; for a search box that is fine.
+ *
+ * Postings live in a ConcurrentSkipListMap so queries never lock; updates are synchronized.
+ */
+final class SearchIndex {
+    static final String[] TEXT_FIELDS = {"id", "title", "description", "content", "note"};
+    static final int MIN_PREFIX = 2;
+
+    record DocKey(String kind, String id) {}
+
+    private static final class Doc {
+        final String title;
+        final Set<String> fieldTokens;
+        final Set<String> lyricsTokens;
+
+        Doc(String title, Set<String> fieldTokens, Set<String> lyricsTokens) {
+            this.title = title;
+            this.fieldTokens = fieldTokens;
+            this.lyricsTokens = lyricsTokens;
+        }
+    }
+
+    private final ConcurrentSkipListMap<String, Set<DocKey>> postings = new ConcurrentSkipListMap<>();
+    private final Map<DocKey, Doc> docs = new ConcurrentHashMap<>();
+
+    // ---- updates ----
+
+    /** (Re)index the text fields of one item; keeps previously indexed lyrics unless dropLyrics. */
+    synchronized void index(String kind, CatalogItem item, boolean dropLyrics) {
+        DocKey key = new DocKey(kind, Catalog.idOf(item));
+        Doc old = docs.get(key);
+        Set<String> lyrics = (old == null || dropLyrics) ? Set.of() : old.lyricsTokens;
+        put(key, new Doc(item.text("title"), fieldTokens(item), lyrics), old);
+    }
+
+    /** Replace the lyrics tokens of a music item. */
+    synchronized void indexLyrics(String musicId, String lyrics) {
+        DocKey key = new DocKey("music", musicId);
+        Doc old = docs.get(key);
+        Set<String> lyricsTokens = tokenize(lyrics == null ? "" : lyrics);
+        Doc next = old == null
+                ? new Doc("", Set.of(), lyricsTokens)
+                : new Doc(old.title, old.fieldTokens, lyricsTokens);
+        put(key, next, old);
+    }
+
+    synchronized void remove(String kind, String id) {
+        DocKey key = new DocKey(kind, id);
+        Doc old = docs.remove(key);
+        if (old != null) unpost(key, old);
+    }
+
+    /**
+     * Replace every document of a kind. Items are tokenised in parallel before the index is
+     * touched. lyricsById supplies lyrics text for music items; null keeps the lyrics that are
+     * already indexed for ids that remain.
+     */
+    void replaceKind(String kind, List<CatalogItem> items, Map<String, String> lyricsById) {
+        List<Map.Entry<DocKey, Doc>> prepared = items.parallelStream()
+                .map(item -> {
+                    String id = Catalog.idOf(item);
+                    String lyrics = lyricsById == null ? null : lyricsById.get(id);
+                    Set<String> lyricsTokens = lyrics == null ? null : tokenize(lyrics);
+                    return Map.entry(new DocKey(kind, id), new Doc(item.text("title"), fieldTokens(item), lyricsTokens));
+                })
+                .toList();
+        synchronized (this) {
+            Map<DocKey, Doc> previous = new HashMap<>();
+            for (DocKey key : new ArrayList<>(docs.keySet())) {
+                if (!key.kind().equals(kind)) continue;
+                Doc old = docs.remove(key);
+                if (old == null) continue;
+                unpost(key, old);
+                previous.put(key, old);
+            }
+            for (Map.Entry<DocKey, Doc> e : prepared) {
+                Doc d = e.getValue();
+                if (d.lyricsTokens == null) {
+                    Doc old = previous.get(e.getKey());
+                    d = new Doc(d.title, d.fieldTokens, old == null ? Set.of() : old.lyricsTokens);
+                }
+                put(e.getKey(), d, docs.get(e.getKey()));
+            }
+        }
+    }
+
+    private void put(DocKey key, Doc doc, Doc old) {
+        if (old != null) unpost(key, old);
+        docs.put(key, doc);
+        for (String t : doc.fieldTokens) postings.computeIfAbsent(t, k -> ConcurrentHashMap.newKeySet()).add(key);
+        for (String t : doc.lyricsTokens) postings.computeIfAbsent(t, k -> ConcurrentHashMap.newKeySet()).add(key);
+    }
+
+    private void unpost(DocKey key, Doc doc) {
+        for (String t : doc.fieldTokens) unpost(t, key);
+        for (String t : doc.lyricsTokens) unpost(t, key);
+    }
+
+    private void unpost(String token, DocKey key) {
+        postings.computeIfPresent(token, (k, set) -> {
+            set.remove(key);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    // ---- queries ----
+
+    /**
+     * Documents matching every token of the query, optionally restricted to one kind, in kind/id
+     * order. Empty for a blank query.
+     */
+    List<SearchHit> search(String query, String kindOrNull, int limit) {
+        List<String> tokens = tokenizeQuery(query);
+        if (tokens.isEmpty()) return List.of();
+
+        List<Set<DocKey>> sets = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            String t = tokens.get(i);
+            boolean prefix = i == tokens.size() - 1 && t.length() >= MIN_PREFIX && !isCjk(t.codePointAt(0));
+            Set<DocKey> s = prefix ? prefixPostings(t) : postings.get(t);
+            if (s == null || s.isEmpty()) return List.of();
+            sets.add(s);
+        }
+        sets.sort(Comparator.comparingInt(Set::size));
+
+        List<SearchHit> out = new ArrayList<>();
+        for (DocKey k : sets.get(0)) {
+            if (kindOrNull != null && !kindOrNull.equals(k.kind())) continue;
+            boolean all = true;
+            for (int i = 1; i < sets.size() && all; i++) all = sets.get(i).contains(k);
+            if (!all) continue;
+            Doc d = docs.get(k);
+            out.add(new SearchHit(k.kind(), k.id(), d == null ? "" : d.title));
+        }
+        out.sort(Comparator.comparing(SearchHit::kind).thenComparing(SearchHit::id));
+        return out.size() > limit ? new ArrayList<>(out.subList(0, limit)) : out;
+    }
+
+    private Set<DocKey> prefixPostings(String prefix) {
+        NavigableMap<String, Set<DocKey>> range = postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        if (range.size() == 1) return range.firstEntry().getValue();
+        Set<DocKey> union = new HashSet<>();
+        for (Set<DocKey> s : range.values()) union.addAll(s);
+        return union;
+    }
+
+    int documentCount() {
+        return docs.size();
+    }
+
+    int tokenCount() {
+        return postings.size();
+    }
+
+    // ---- tokenisation ----
+
+    static Set<String> fieldTokens(CatalogItem item) {
+        Set<String> out = new HashSet<>();
+        for (String f : TEXT_FIELDS) addTokens(item.text(f), out);
+        return out;
+    }
+
+    static Set<String> tokenize(String s) {
+        Set<String> out = new HashSet<>();
+        addTokens(s, out);
+        return out;
+    }
+
+    /** Query tokens in order (duplicates removed). */
+    static List<String> tokenizeQuery(String q) {
+        List<String> out = new ArrayList<>();
+        if (q == null) return out;
+        Set<String> seen = new HashSet<>();
+        forEachToken(q, t -> {
+            if (seen.add(t)) out.add(t);
+        }, true);
+        return out;
+    }
+
+    private static void addTokens(String s, Set<String> out) {
+        if (s == null || s.isEmpty()) return;
+        forEachToken(s, out::add, false);
+    }
+
+    /**
+     * For queries, a CJK run of two or more characters only needs its bigrams (the unigrams
+     * are implied); documents get both.
+     */
+    private static void forEachToken(String raw, Consumer<String> sink, boolean query) {
+        String s = Normalizer.normalize(raw, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        int i = 0;
+        int n = s.length();
+        while (i < n) {
+            int cp = s.codePointAt(i);
+            if (isCjk(cp)) {
+                int start = i;
+                while (i < n && isCjk(s.codePointAt(i))) i += Character.charCount(s.codePointAt(i));
+                emitCjkRun(s.substring(start, i), sink, query);
+            } else if (Character.isLetterOrDigit(cp)) {
+                int start = i;
+                while (i < n) {
+                    int c = s.codePointAt(i);
+                    if (!Character.isLetterOrDigit(c) || isCjk(c)) break;
+                    i += Character.charCount(c);
+                }
+                sink.accept(s.substring(start, i));
+            } else {
+                i += Character.charCount(cp);
+            }
+        }
+    }
+
+    private static void emitCjkRun(String run, Consumer<String> sink, boolean query) {
+        int[] cps = run.codePoints().toArray();
+        if (cps.length == 1 || !query) {
+            for (int cp : cps) sink.accept(new String(Character.toChars(cp)));
+        }
+        for (int k = 0; k + 1 < cps.length; k++) {
+            sink.accept(new String(cps, k, 2));
+        }
+    }
+
+    static boolean isCjk(int cp) {
+        if (cp == 0x30FC || cp == 0x3005) return true; // prolonged sound mark, iteration mark
+        Character.UnicodeScript sc = Character.UnicodeScript.of(cp);
+        return sc == Character.UnicodeScript.HAN || sc == Character.UnicodeScript.HIRAGANA
+                || sc == Character.UnicodeScript.KATAKANA || sc == Character.UnicodeScript.HANGUL;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.ruichiji.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * One finding of {@link DataService#validate()} or {@link CatalogSchema#validate}.
+ *
+ * @param severity ERROR for data the site or the editor cannot use, WARNING for leftovers
+ * @param kind     catalog kind, "lyrics" for problems of a lyrics file itself (orphaned, unreadable),
+ *                 "bundles" for the page bundle manifest, or "watcher" for the file watcher
+ * @param id       id of the item ("" if it has none; the file name for lyrics files)
+ * @param path     member within the item, e.g. "date", "credits[2]", "tracks[3].title"; "" for the item
+ * @param code     stable machine-readable code: required, type, format, unknown, unused,
+ *                 duplicate-id, unreadable, lyrics-missing, lyrics-orphan, dangling-ref, duplicate-ref,
+ *                 journal-record, rename-recovered, derived-output, repaired, bundles-stale,
+ *                 compaction, reload, watcher
+ * @param message  human-readable explanation
+ */
+public record ValidationIssue(Severity severity, String kind, String id, String path, String code, String message) {
+
+    public enum Severity { ERROR, WARNING }
+
+    @JsonIgnore
+    public boolean isError() {
+        return severity == Severity.ERROR;
+    }
+
+    @Override
+    public String toString() {
+        return severity.name().toLowerCase() + " " + kind + "/" + id + (path.isEmpty() ? "" : " " + path) + ": " + message;
+    }
+}
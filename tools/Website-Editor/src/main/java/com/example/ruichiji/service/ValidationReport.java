@@ -0,0 +1,25 @@
+package com.example.ruichiji.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of {@link DataService#validate()}. A record of plain values, so it serialises to
+ * JSON as is (the command line tool's validate --json).
+ *
+ * @param errors      number of ERROR issues
+ * @param warnings    number of WARNING issues
+ * @param items       item count per kind (kinds that could not be read are missing)
+ * @param lyricsFiles number of lyricsFile references checked
+ * @param millis      wall time of the run
+ * @param issues      in kind order (as DataService.KINDS), then file order; lyrics orphans last
+ */
+public record ValidationReport(int errors, int warnings, Map<String, Integer> items, int lyricsFiles,
+                               long millis, List<ValidationIssue> issues) {
+
+    static ValidationReport of(List<ValidationIssue> issues, Map<String, Integer> items, int lyricsFiles, long millis) {
+        int errors = 0;
+        for (ValidationIssue i : issues) if (i.isError()) errors++;
+        return new ValidationReport(errors, issues.size() - errors, items, lyricsFiles, millis, List.copyOf(issues));
+    }
+}
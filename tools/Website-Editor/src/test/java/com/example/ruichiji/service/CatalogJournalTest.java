@@ -0,0 +1,130 @@
+package com.example.ruichiji.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogJournalTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    private CatalogJournal journal() {
+        return new CatalogJournal(dir.resolve(".journal").resolve("music.journal"), MAPPER);
+    }
+
+    private static List<String> ids(List<JsonNode> records) {
+        return records.stream().map(r -> r.path("id").asText()).toList();
+    }
+
+    /** What an append interrupted half way leaves behind. */
+    private static void tear(CatalogJournal j) throws IOException {
+        Files.writeString(j.file, "{\"op\":\"delete\",\"i", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    }
+
+    @Test
+    void missingJournalHasNoRecords() throws IOException {
+        CatalogJournal j = journal();
+        assertTrue(j.readRecords().isEmpty());
+        assertTrue(j.skippedLines().isEmpty());
+    }
+
+    @Test
+    void replaysRecordsInOrder() throws IOException {
+        CatalogJournal j = journal();
+        j.append(j.deleteRecord("a"));
+        j.append(j.deleteRecord("b"));
+        j.closeChannel();
+        assertEquals(List.of("a", "b"), ids(journal().readRecords()));
+    }
+
+    @Test
+    void replaySkipsATruncatedLastLine() throws IOException {
+        CatalogJournal j = journal();
+        j.append(j.deleteRecord("a"));
+        j.append(j.deleteRecord("b"));
+        j.closeChannel();
+        tear(j);
+
+        CatalogJournal reopened = journal();
+        assertEquals(List.of("a", "b"), ids(reopened.readRecords()));
+        assertEquals(List.of(3), reopened.skippedLines());
+    }
+
+    @Test
+    void appendAfterATruncatedLineStartsANewLine() throws IOException {
+        CatalogJournal j = journal();
+        j.append(j.deleteRecord("a"));
+        j.closeChannel();
+        tear(j);
+
+        CatalogJournal reopened = journal();
+        reopened.append(reopened.deleteRecord("c"));
+        reopened.closeChannel();
+        assertEquals(List.of("a", "c"), ids(reopened.readRecords()));
+        assertEquals(List.of(2), reopened.skippedLines());
+    }
+
+    @Test
+    void dropHeadKeepsWhatWasAppendedAfterTheOffset() throws IOException {
+        CatalogJournal j = journal();
+        j.append(j.deleteRecord("a"));
+        j.closeChannel();
+        long folded = j.size();
+        j.append(j.deleteRecord("b"));
+        j.dropHead(folded);
+        assertEquals(List.of("b"), ids(j.readRecords()));
+
+        j.dropHead(j.size());
+        assertFalse(Files.exists(j.file));
+    }
+
+    @Test
+    void dropHeadCopiesATailLargerThanOneChunk() throws IOException {
+        CatalogJournal j = journal();
+        j.append(j.deleteRecord("folded"));
+        j.closeChannel();
+        long folded = j.size();
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) lines.append("{\"op\":\"delete\",\"id\":\"").append(i).append("\"}\n");
+        Files.writeString(j.file, lines, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        long tail = j.size() - folded;
+
+        j.dropHead(folded);
+        assertEquals(tail, j.size());
+        List<String> ids = ids(j.readRecords());
+        assertEquals(100_000, ids.size());
+        assertEquals("0", ids.get(0));
+        assertEquals("99999", ids.get(ids.size() - 1));
+    }
+
+    @Test
+    void dropHeadNearTheEndOfAJournalLargerThan2GiB() throws IOException {
+        CatalogJournal j = journal();
+        Files.createDirectories(j.file.getParent());
+        long folded = 3L << 30;
+        byte[] records = "{\"op\":\"delete\",\"id\":\"a\"}\n{\"op\":\"delete\",\"id\":\"b\"}\n".getBytes(StandardCharsets.UTF_8);
+        // sparse: the folded head takes no disk space
+        try (FileChannel ch = FileChannel.open(j.file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.SPARSE)) {
+            ch.write(ByteBuffer.wrap(records), folded);
+        }
+        j.dropHead(folded + records.length / 2);
+        assertEquals(records.length / 2, j.size());
+        assertEquals(List.of("b"), ids(j.readRecords()));
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.ruichiji.service;
+
+import com.example.ruichiji.model.CatalogItem;
+import com.example.ruichiji.model.Items;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogMergeTest {
+    private static final String KIND = "music";
+    private static final Predicate<CatalogItem> NONE_RETIRED = x -> false;
+
+    private final List<ItemConflict> conflicts = new ArrayList<>();
+
+    /** A stored record (not a copy), as loaded from the file. */
+    private static CatalogItem item(String id, String title) {
+        ObjectNode n = JsonNodeFactory.instance.objectNode().put("id", id).put("title", title);
+        return Items.fromTree(KIND, n);
+    }
+
+    private static CatalogItem edited(CatalogItem stored, String title) {
+        CatalogItem c = stored.copy();
+        c.setTitle(title);
+        return c;
+    }
+
+    private List<CatalogItem> merge(List<CatalogItem> view, List<CatalogItem> ours, List<CatalogItem> theirs) {
+        return CatalogMerge.merge(KIND, view, ours, theirs, NONE_RETIRED, conflicts);
+    }
+
+    private static List<String> ids(List<CatalogItem> items) {
+        return items.stream().map(Items::idOf).toList();
+    }
+
+    private static List<String> titles(List<CatalogItem> items) {
+        return items.stream().map(CatalogItem::getTitle).toList();
+    }
+
+    @Test
+    void withoutOtherCommitsOursIsTakenAsItIs() {
+        CatalogItem a = item("a", "A");
+        CatalogItem b = item("b", "B");
+        List<CatalogItem> view = List.of(a, b);
+        CatalogItem a2 = edited(a, "A2");
+        List<CatalogItem> out = merge(view, List.of(b, a2), view);
+        assertEquals(List.of("b", "a"), ids(out));
+        assertSame(a2, out.get(1));
+        assertTrue(conflicts.isEmpty());
+    }
+
+    @Test
+    void changesToDifferentItemsAreBothKept() {
+        CatalogItem a = item("a", "A");
+        CatalogItem b = item("b", "B");
+        List<CatalogItem> view = List.of(a, b);
+        List<CatalogItem> theirs = List.of(item("a", "A by them"), b);
+        List<CatalogItem> out = merge(view, List.of(a, edited(b, "B by us")), theirs);
+        assertEquals(List.of("A by them", "B by us"), titles(out));
+        assertTrue(conflicts.isEmpty());
+    }
+
+    @Test
+    void changesToTheSameItemConflict() {
+        CatalogItem a = item("a", "A");
+        List<CatalogItem> view = List.of(a);
+        merge(view, List.of(edited(a, "A by us")), List.of(item("a", "A by them")));
+        assertEquals(List.of(new ItemConflict(KIND, "a", "changed")), conflicts);
+    }
+
+    @Test
+    void theSameChangeOnBothSidesIsNoConflict() {
+        CatalogItem a = item("a", "A");
+        List<CatalogItem> out = merge(List.of(a), List.of(edited(a, "A2")), List.of(item("a", "A2")));
+        assertEquals(List.of("A2"), titles(out));
+        assertTrue(conflicts.isEmpty());
+    }
+
+    @Test
+    void anUnchangedCopyTakesTheirVersion() {
+        CatalogItem a = item("a", "A");
+        CatalogItem theirA = item("a", "A by them");
+        List<CatalogItem> out = merge(List.of(a), List.of(a.copy()), List.of(theirA));
+        assertSame(theirA, out.get(0));
+        assertTrue(conflicts.isEmpty());
+    }
+
+    @Test
+    void itemsTheyAddedAreKeptAfterTheItemTheyFollow() {
+        CatalogItem a = item("a", "A");
+        CatalogItem b = item("b", "B");
+        List<CatalogItem> view = List.of(a, b);
+        List<CatalogItem> theirs = List.of(item("top", "T"), a, item("c", "C"), b);
+        List<CatalogItem> out = merge(view, List.of(a, edited(b, "B2")), theirs);
+        assertEquals(List.of("top", "a", "c", "b"), ids(out));
+        assertTrue(conflicts.isEmpty());
+    }
+
+    @Test
+    void ourDeletionOfAnItemTheyDidNotTouchIsKept() {
+        CatalogItem a = item("a", "A");
+        CatalogItem b = item("b", "B");
+        List<CatalogItem> theirs = List.of(a, b, item("c", "C"));
+        List<CatalogItem> out = merge(List.of(a, b), List.of(a), theirs);
+        assertEquals(List.of("a", "c"), ids(out));
+        assertTrue(conflicts.isEmpty());
+    }
+
+    @Test
+    void ourDeletionOfAnItemTheyChangedConflicts() {
+        CatalogItem a = item("a", "A");
+        CatalogItem b = item("b", "B");
+        merge(List.of(a, b), List.of(a), List.of(a, item("b", "B by them")));
+        assertEquals(List.of(new ItemConflict(KIND, "b", "removed")), conflicts);
+    }
+
+    @Test
+    void theirDeletionWinsUnlessWeChangedTheItem() {
+        CatalogItem a = item("a", "A");
+        CatalogItem b = item("b", "B");
+        List<CatalogItem> view = List.of(a, b);
+        assertEquals(List.of("b"), ids(merge(view, List.of(a, b), List.of(b))));
+        assertTrue(conflicts.isEmpty());
+
+        merge(view, List.of(edited(a, "A2"), b), List.of(b));
+        assertEquals(List.of(new ItemConflict(KIND, "a", "deleted")), conflicts);
+    }
+
+    @Test
+    void aNewItemWhoseIdTheyTookConflicts() {
+        CatalogItem a = item("a", "A");
+        CatalogItem created = Items.create(KIND);
+        created.setId("n");
+        merge(List.of(a), List.of(created, a), List.of(item("n", "theirs"), a));
+        assertEquals(List.of(new ItemConflict(KIND, "n", "exists")), conflicts);
+    }
+
+    @Test
+    void aRetiredRecordTakesTheirVersion() {
+        CatalogItem old = item("a", "A");                   // read before a reload
+        CatalogItem view = item("a", "A by them");          // what the reload loaded
+        CatalogItem theirA = item("a", "A by them again");
+        List<CatalogItem> out = CatalogMerge.merge(KIND, List.of(view), List.of(old), List.of(theirA),
+                x -> x == old, conflicts);
+        assertSame(theirA, out.get(0));
+        assertTrue(conflicts.isEmpty());
+
+        // the same record not known as retired looks like our change to the view
+        merge(List.of(view), List.of(old), List.of(theirA));
+        assertEquals(List.of(new ItemConflict(KIND, "a", "changed")), conflicts);
+    }
+
+    @Test
+    void repeatedIdsInOursAreWrittenAsGiven() {
+        CatalogItem a = item("a", "A");
+        CatalogItem again = item("a", "again");
+        List<CatalogItem> view = List.of(a);
+        assertEquals(List.of("A", "again"), titles(merge(view, List.of(a, again), view)));
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.ruichiji.service;
+
+import com.example.ruichiji.model.CatalogItem;
+import com.example.ruichiji.model.Items;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogSalvageTest {
+    private static final ObjectReader READER = new ObjectMapper().readerFor(Items.typeOf("music"));
+
+    private static final String A = "{\n    \"id\" : \"a\",\n    \"title\" : \"A\"\n  }";
+    private static final String B = "{\n    \"id\" : \"b\",\n    \"title\" : \"B\"\n  }";
+    private static final String C = "{\n    \"id\" : \"c\",\n    \"title\" : \"C\"\n  }";
+
+    /** A catalog as CatalogJson writes it. */
+    private static String catalog(String... items) {
+        return "{\n  \"items\" : [ " + String.join(", ", items) + " ]\n}\n";
+    }
+
+    private static CatalogSalvage.Result salvage(String content) {
+        return CatalogSalvage.salvage(content.getBytes(StandardCharsets.UTF_8), READER);
+    }
+
+    private static List<String> ids(CatalogSalvage.Result r) {
+        return r.items().stream().map(CatalogItem::getId).toList();
+    }
+
+    @Test
+    void intactFileNeedsNoRepair() {
+        CatalogSalvage.Result r = salvage(catalog(A, B, C));
+        assertEquals(List.of("a", "b", "c"), ids(r));
+        assertTrue(r.intact());
+    }
+
+    @Test
+    void readsTopLevelArraysAndByteOrderMarks() {
+        CatalogSalvage.Result r = salvage("\uFEFF[ " + A + ", " + B + " ]");
+        assertEquals(List.of("a", "b"), ids(r));
+        assertTrue(r.intact());
+    }
+
+    @Test
+    void truncatedFileKeepsTheCompleteItems() {
+        String full = catalog(A, B, C);
+        String cut = full.substring(0, full.indexOf("\"C\""));
+        CatalogSalvage.Result r = salvage(cut);
+        assertEquals(List.of("a", "b"), ids(r));
+        assertFalse(r.complete());
+        assertEquals(1, r.dropped().size());
+        assertEquals("truncated item", r.dropped().get(0).reason());
+        assertEquals(cut.length(), r.dropped().get(0).end());
+    }
+
+    @Test
+    void truncatedBetweenItemsDropsNothing() {
+        String full = catalog(A, B, C);
+        CatalogSalvage.Result r = salvage(full.substring(0, full.indexOf(B) + B.length() + 1));
+        assertEquals(List.of("a", "b"), ids(r));
+        assertFalse(r.complete());
+        assertTrue(r.dropped().isEmpty());
+    }
+
+    @Test
+    void aLostQuoteCostsOnlyItsOwnItem() {
+        String broken = B.replace("\"B\"", "\"B");
+        String content = catalog(A, broken, C);
+        CatalogSalvage.Result r = salvage(content);
+        assertEquals(List.of("a", "c"), ids(r));
+        assertTrue(r.complete());
+        assertEquals(1, r.dropped().size());
+        RepairReport.Dropped d = r.dropped().get(0);
+        assertEquals(content.indexOf(broken), d.start());
+        assertTrue(d.end() <= content.indexOf(C), d.toString());
+    }
+
+    @Test
+    void anItemOfTheWrongShapeIsDropped() {
+        CatalogSalvage.Result r = salvage(catalog(A, "{ \"id\" : [ }", C));
+        assertEquals(List.of("a", "c"), ids(r));
+        assertEquals(1, r.dropped().size());
+    }
+
+    @Test
+    void dataBetweenItemsIsSkipped() {
+        CatalogSalvage.Result r = salvage(catalog(A, "garbage", C));
+        assertEquals(List.of("a", "c"), ids(r));
+        assertEquals("unexpected data", r.dropped().get(0).reason());
+    }
+
+    @Test
+    void noItemsArrayDropsEverything() {
+        String content = "not json at all";
+        CatalogSalvage.Result r = salvage(content);
+        assertTrue(r.items().isEmpty());
+        assertEquals(List.of(new RepairReport.Dropped(0, content.length(), "no items array")), r.dropped());
+    }
+}
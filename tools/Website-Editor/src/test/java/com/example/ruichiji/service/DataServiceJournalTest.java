@@ -0,0 +1,74 @@
+package com.example.ruichiji.service;
+
+import com.example.ruichiji.model.CatalogItem;
+import com.example.ruichiji.model.Items;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Journaled edits through DataService: each returns once its record is synced, without a group delay. */
+class DataServiceJournalTest {
+    private static final int N = 100;
+
+    @TempDir
+    Path root;
+
+    private DataService open() throws IOException {
+        Path data = root.resolve("assets").resolve("data");
+        Files.createDirectories(data);
+        if (!Files.exists(data.resolve("music.json"))) Files.writeString(data.resolve("music.json"), "{ \"items\" : [ ] }\n");
+        return new DataService(root);
+    }
+
+    private static CatalogItem music(String id) {
+        CatalogItem item = Items.create("music");
+        item.setId(id);
+        item.setTitle("title " + id);
+        return item;
+    }
+
+    @Test
+    void sequentialUpsertsDoNotWaitForAGroupWindow() throws IOException {
+        try (DataService ds = open()) {
+            ds.readItems("music");
+            long start = System.nanoTime();
+            for (int i = 0; i < N; i++) ds.upsert("music", music("m" + i));
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            // a fixed 50 ms group window made this take at least N * 50 ms
+            assertTrue(millis < N * 20L, N + " sequential upserts took " + millis + " ms");
+        }
+    }
+
+    @Test
+    void concurrentUpsertsAreAllDurable() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try (DataService ds = open()) {
+            ds.readItems("music");
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < N; i++) {
+                String id = "m" + i;
+                futures.add(pool.submit(() -> {
+                    ds.upsert("music", music(id));
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+        } finally {
+            pool.shutdown();
+        }
+        try (DataService reopened = open()) {
+            assertEquals(N, reopened.readItems("music").size());
+        }
+    }
+}
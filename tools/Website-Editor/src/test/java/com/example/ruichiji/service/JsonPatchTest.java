@@ -0,0 +1,118 @@
+package com.example.ruichiji.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonPatchTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static JsonNode json(String s) throws IOException {
+        return MAPPER.readTree(s.replace('\'', '"'));
+    }
+
+    /** diff(a, b) applied to a gives b, and returns the patch for further checks. */
+    private static ArrayNode roundTrip(String before, String after) throws IOException {
+        JsonNode a = json(before);
+        JsonNode b = json(after);
+        ArrayNode patch = JsonPatch.diff(a, b);
+        assertEquals(b, JsonPatch.apply(a, patch), patch.toString());
+        return patch;
+    }
+
+    @Test
+    void equalTreesGiveAnEmptyPatch() throws IOException {
+        assertTrue(roundTrip("{'id':'a','tracks':[1,2]}", "{'id':'a','tracks':[1,2]}").isEmpty());
+    }
+
+    @Test
+    void roundTripsMemberChanges() throws IOException {
+        ArrayNode patch = roundTrip("{'id':'a','title':'x','gone':1}", "{'id':'a','title':'y','new':[1]}");
+        assertEquals(3, patch.size());
+    }
+
+    @Test
+    void editedArrayElementBecomesOneNestedOp() throws IOException {
+        ArrayNode patch = roundTrip(
+                "{'tracks':[{'title':'a'},{'title':'b'},{'title':'c'}]}",
+                "{'tracks':[{'title':'a'},{'title':'B'},{'title':'c'}]}");
+        assertEquals(1, patch.size());
+        assertEquals("/tracks/1/title", patch.get(0).get("path").asText());
+    }
+
+    @Test
+    void insertOrRemoveBetweenCommonHeadAndTailIsOneOp() throws IOException {
+        assertEquals(1, roundTrip("[1,2,3,4]", "[1,2,9,3,4]").size());
+        assertEquals(1, roundTrip("[1,2,3,4]", "[1,3,4]").size());
+        roundTrip("[1,2,3]", "[]");
+        roundTrip("[]", "[1,2,3]");
+        roundTrip("[1,2,3,4,5]", "[0,2,3,9,9,5]");
+    }
+
+    @Test
+    void escapesSlashAndTildeInMemberNames() throws IOException {
+        ArrayNode patch = roundTrip("{'a/b':1,'c~d':2}", "{'a/b':3,'c~d':4}");
+        assertEquals("/a~1b", patch.get(0).get("path").asText());
+        assertEquals("/c~0d", patch.get(1).get("path").asText());
+    }
+
+    @Test
+    void replacesValuesOfAnotherType() throws IOException {
+        roundTrip("{'v':[1,2]}", "{'v':{'x':1}}");
+        roundTrip("{'v':'s'}", "{'v':null}");
+    }
+
+    @Test
+    void applyLeavesTheDocumentUnchanged() throws IOException {
+        JsonNode doc = json("{'title':'x'}");
+        JsonPatch.apply(doc, json("[{'op':'replace','path':'/title','value':'y'}]"));
+        assertEquals(json("{'title':'x'}"), doc);
+    }
+
+    @Test
+    void applyIsAllOrNothing() throws IOException {
+        JsonNode doc = json("{'title':'x'}");
+        JsonNode patch = json("[{'op':'replace','path':'/title','value':'y'},{'op':'remove','path':'/missing'}]");
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> JsonPatch.apply(doc, patch));
+        assertTrue(ex.getMessage().startsWith("patch op 1 "), ex.getMessage());
+    }
+
+    @Test
+    void checkedDiffAppliesToTheDocumentItWasMadeFrom() throws IOException {
+        JsonNode before = json("{'title':'x','note':'n','tracks':[1,2]}");
+        JsonNode after = json("{'title':'y','tracks':[1]}");
+        assertEquals(after, JsonPatch.apply(before, JsonPatch.checkedDiff(before, after)));
+    }
+
+    @Test
+    void checkedDiffAppliesOverChangesElsewhere() throws IOException {
+        JsonNode before = json("{'title':'x','date':'2024-01-01'}");
+        JsonNode after = json("{'title':'y','date':'2024-01-01'}");
+        JsonNode theirs = json("{'title':'x','date':'2025-02-02'}");
+        assertEquals(json("{'title':'y','date':'2025-02-02'}"),
+                JsonPatch.apply(theirs, JsonPatch.checkedDiff(before, after)));
+    }
+
+    @Test
+    void checkedDiffFailsWhereTheDocumentChanged() throws IOException {
+        JsonNode before = json("{'title':'x','note':'n'}");
+        JsonNode patch = JsonPatch.checkedDiff(before, json("{'title':'y','note':'n'}"));
+        assertThrows(JsonPatch.TestFailedException.class, () -> JsonPatch.apply(json("{'title':'z','note':'n'}"), patch));
+
+        JsonNode removal = JsonPatch.checkedDiff(before, json("{'title':'x'}"));
+        assertThrows(JsonPatch.TestFailedException.class, () -> JsonPatch.apply(json("{'title':'x','note':'m'}"), removal));
+    }
+
+    @Test
+    void plainDiffDoesNotDetectConflicts() throws IOException {
+        JsonNode patch = JsonPatch.diff(json("{'title':'x'}"), json("{'title':'y'}"));
+        assertEquals(json("{'title':'y'}"), JsonPatch.apply(json("{'title':'z'}"), patch));
+    }
+}